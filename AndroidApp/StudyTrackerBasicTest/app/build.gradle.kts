@@ -30,6 +30,10 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Robolectric view tests resolve the app's colors
+        unitTests.isIncludeAndroidResources = true
+    }
 }
 
 dependencies {
@@ -50,6 +54,9 @@ dependencies {
     // Charts for analytics
     implementation("com.github.PhilJay:MPAndroidChart:v3.1.0")
     
+    // Paged session history list
+    implementation("androidx.recyclerview:recyclerview:1.4.0")
+
     // WorkManager for background tasks
     implementation("androidx.work:work-runtime:2.9.0")
     
@@ -57,6 +64,11 @@ dependencies {
     implementation("de.hdodenhof:circleimageview:3.1.0")
 
     testImplementation(libs.junit)
+    // Real org.json for JVM tests; android.jar only has stubs
+    testImplementation("org.json:json:20250517")
+    // Lifecycle and network tests against a local server
+    testImplementation("org.robolectric:robolectric:4.16")
+    testImplementation("com.squareup.okhttp3:mockwebserver")
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
 }
\ No newline at end of file
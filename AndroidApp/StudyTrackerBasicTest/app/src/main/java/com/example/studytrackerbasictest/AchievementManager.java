@@ -5,6 +5,9 @@ import android.content.SharedPreferences;
 
 import com.example.studytrackerbasictest.databases.SessionDatabase;
 
+import java.util.List;
+import java.util.Map;
+
 public class AchievementManager {
 
     private static final String PREFS_NAME = "AchievementPrefs";
@@ -16,31 +19,40 @@ public class AchievementManager {
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
 
         // Get stats
-        db.getSessionsForUser(username, sessions -> {
-            int totalSessions = sessions.size();
-
-            // Calculate total hours
-            int totalMinutes = 0;
-            for (var session : sessions) {
-                String duration = (String) session.get("duration");
-                if (duration != null) {
-                    String[] parts = duration.split(":");
-                    if (parts.length == 2) {
-                        totalMinutes += Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
-                    }
+        db.getSessionsForUser(username, sessions -> checkAndNotifyAchievements(context, prefs, sessions));
+    }
+
+    // For callers that already have the user's sessions (including the one just finished)
+    public static void checkAndNotifyAchievements(Context context, List<Map<String, Object>> sessions) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        checkAndNotifyAchievements(context, prefs, sessions);
+    }
+
+    private static void checkAndNotifyAchievements(Context context, SharedPreferences prefs,
+                                                   List<Map<String, Object>> sessions) {
+        int totalSessions = sessions.size();
+
+        // Calculate total hours
+        int totalMinutes = 0;
+        for (var session : sessions) {
+            String duration = (String) session.get("duration");
+            if (duration != null) {
+                String[] parts = duration.split(":");
+                if (parts.length == 2) {
+                    totalMinutes += Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
                 }
             }
-            int totalHours = totalMinutes / 60;
-
-            // Check achievements
-            checkFirstSession(context, prefs, totalSessions);
-            check10Sessions(context, prefs, totalSessions);
-            check50Sessions(context, prefs, totalSessions);
-            check100Sessions(context, prefs, totalSessions);
-            check10Hours(context, prefs, totalHours);
-            check50Hours(context, prefs, totalHours);
-            check100Hours(context, prefs, totalHours);
-        });
+        }
+        int totalHours = totalMinutes / 60;
+
+        // Check achievements
+        checkFirstSession(context, prefs, totalSessions);
+        check10Sessions(context, prefs, totalSessions);
+        check50Sessions(context, prefs, totalSessions);
+        check100Sessions(context, prefs, totalSessions);
+        check10Hours(context, prefs, totalHours);
+        check50Hours(context, prefs, totalHours);
+        check100Hours(context, prefs, totalHours);
     }
 
     private static void checkFirstSession(Context context, SharedPreferences prefs, int totalSessions) {
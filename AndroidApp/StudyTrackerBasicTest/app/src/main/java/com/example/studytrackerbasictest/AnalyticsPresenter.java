@@ -0,0 +1,278 @@
+package com.example.studytrackerbasictest;
+
+import android.graphics.Color;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.core.util.Pair;
+import androidx.fragment.app.FragmentManager;
+
+import com.example.studytrackerbasictest.analytics.AnalyticsEngine;
+import com.example.studytrackerbasictest.analytics.DaySketches;
+import com.example.studytrackerbasictest.analytics.DistractionRollup;
+import com.example.studytrackerbasictest.analytics.Trend;
+import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.charts.PieChart;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.components.YAxis;
+import com.github.mikephil.charting.data.BarData;
+import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.BarEntry;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.data.PieData;
+import com.github.mikephil.charting.data.PieDataSet;
+import com.github.mikephil.charting.data.PieEntry;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.google.android.material.datepicker.MaterialDatePicker;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * Stat cards, focus trend line, peak-focus bar chart and distraction pie shared by
+ * AnalyticsFragment and StatsActivity. Both screens render the same {@link AnalyticsEngine.Result}; only the
+ * text colour differs.
+ */
+public class AnalyticsPresenter {
+
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private static final String[] HOUR_GROUP_LABELS = {"12-3am", "4-7am", "8-11am", "12-3pm", "4-7pm", "8-11pm"};
+    private static final float[] DEMO_PEAK_SCORES = {45, 60, 78, 85, 82, 65};
+    private static final int BAR_COLOR = Color.parseColor("#FF9800");
+    private static final int MINUTES_COLOR = Color.parseColor("#2196F3");
+    private static final int FOCUS_COLOR = Color.parseColor("#4CAF50");
+
+    // Points closer than this look the same on a line, so LTTB keeps one per this many pixels
+    private static final int TREND_POINT_SPACING_PX = 4;
+    private static final int TREND_DEFAULT_POINTS = 200;   // Before the chart has been laid out
+    private static final DateTimeFormatter DAY_LABEL = DateTimeFormatter.ofPattern("MMM d", Locale.getDefault());
+    private static final DateTimeFormatter MONTH_LABEL = DateTimeFormatter.ofPattern("MMM yy", Locale.getDefault());
+    // Indexed by DistractionType code, so a type keeps its colour whichever others are present
+    private static final int[] DISTRACTION_COLORS = {
+            Color.parseColor("#9E9E9E"),   // Other
+            Color.parseColor("#FFC107"),   // Phone
+            Color.parseColor("#FF5252"),   // Eyes Closed
+            Color.parseColor("#FF9800"),   // Looking Away
+            Color.parseColor("#7E57C2")    // Away From Desk
+    };
+
+    private final TextView avgFocusScore, streakDays, streakLabel, totalSessions, totalHours, distributionSummary;
+    private final LineChart trendChart;
+    private final BarChart peakFocusChart;
+    private final PieChart distractionBreakdown;
+    private final int textColor;
+    private Trend.Granularity trendGranularity = Trend.Granularity.DAY;   // For the trend's x labels
+
+    /** Looks up the shared view ids under root. */
+    public AnalyticsPresenter(View root, int textColor) {
+        avgFocusScore = root.findViewById(R.id.avgFocusScore);
+        streakDays = root.findViewById(R.id.streakDays);
+        streakLabel = root.findViewById(R.id.streakLabel);
+        totalSessions = root.findViewById(R.id.totalSessions);
+        totalHours = root.findViewById(R.id.totalHours);
+        distributionSummary = root.findViewById(R.id.distributionSummary);
+        trendChart = root.findViewById(R.id.trendChart);
+        peakFocusChart = root.findViewById(R.id.peakFocusChart);
+        distractionBreakdown = root.findViewById(R.id.distractionBreakdown);
+        this.textColor = textColor;
+        setupCharts();
+    }
+
+    private void setupCharts() {
+        // Focus Trend Chart: minutes on the left axis, focus 0..100 on the right
+        trendChart.getDescription().setEnabled(false);
+        trendChart.setDrawGridBackground(false);
+        trendChart.setPinchZoom(false);
+        trendChart.setScaleEnabled(false);
+        trendChart.getLegend().setTextColor(textColor);
+
+        XAxis trendX = trendChart.getXAxis();
+        trendX.setPosition(XAxis.XAxisPosition.BOTTOM);
+        trendX.setDrawGridLines(false);
+        trendX.setGranularity(1f);
+        trendX.setLabelCount(4);
+        trendX.setTextColor(textColor);
+        trendX.setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                LocalDate date = LocalDate.ofEpochDay((long) value);
+                return (trendGranularity == Trend.Granularity.MONTH ? MONTH_LABEL : DAY_LABEL).format(date);
+            }
+        });
+
+        trendChart.getAxisLeft().setTextColor(textColor);
+        trendChart.getAxisLeft().setAxisMinimum(0f);
+        trendChart.getAxisRight().setTextColor(textColor);
+        trendChart.getAxisRight().setAxisMinimum(0f);
+        trendChart.getAxisRight().setAxisMaximum(100f);
+
+        // Peak Focus Time Chart
+        peakFocusChart.getDescription().setEnabled(false);
+        peakFocusChart.setDrawGridBackground(false);
+        peakFocusChart.setDrawBarShadow(false);
+        peakFocusChart.setDrawValueAboveBar(false);
+        peakFocusChart.setPinchZoom(false);
+        peakFocusChart.setScaleEnabled(false);
+
+        XAxis xAxis = peakFocusChart.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setDrawGridLines(false);
+        xAxis.setGranularity(1f);
+        xAxis.setTextColor(textColor);
+        xAxis.setValueFormatter(new ValueFormatter() {
+            @Override
+            public String getFormattedValue(float value) {
+                int group = (int) value;
+                return group >= 0 && group < HOUR_GROUP_LABELS.length ? HOUR_GROUP_LABELS[group] : "";
+            }
+        });
+
+        peakFocusChart.getAxisLeft().setTextColor(textColor);
+        peakFocusChart.getAxisLeft().setAxisMinimum(0f);
+        peakFocusChart.getAxisLeft().setAxisMaximum(100f);
+        peakFocusChart.getAxisRight().setEnabled(false);
+        peakFocusChart.getLegend().setEnabled(false);
+
+        // Distraction Breakdown Pie Chart
+        distractionBreakdown.setUsePercentValues(true);
+        distractionBreakdown.getDescription().setEnabled(false);
+        distractionBreakdown.setDrawHoleEnabled(true);
+        distractionBreakdown.setHoleRadius(40f);
+        distractionBreakdown.setTransparentCircleRadius(45f);
+        distractionBreakdown.setDrawEntryLabels(true);
+        distractionBreakdown.setEntryLabelColor(textColor);
+        distractionBreakdown.setEntryLabelTextSize(12f);
+        distractionBreakdown.getLegend().setTextColor(textColor);
+        distractionBreakdown.setNoDataText("No distractions recorded");
+        distractionBreakdown.setNoDataTextColor(textColor);
+    }
+
+    /**
+     * Shows a date range picker; onPicked gets the first and last epoch day, inclusive.
+     * The picker reports each day as UTC midnight, which maps straight to an epoch day.
+     */
+    public static void showRangePicker(FragmentManager fragmentManager, BiConsumer<Integer, Integer> onPicked) {
+        MaterialDatePicker<Pair<Long, Long>> picker =
+                MaterialDatePicker.Builder.dateRangePicker().setTitleText("Select dates").build();
+        picker.addOnPositiveButtonClickListener(range -> {
+            if (range.first == null || range.second == null) return;
+            onPicked.accept((int) Math.floorDiv(range.first, DAY_MS), (int) Math.floorDiv(range.second, DAY_MS));
+        });
+        picker.show(fragmentManager, "analytics_range");
+    }
+
+    /** Main thread. */
+    public void render(AnalyticsEngine.Result result) {
+        // Focus scores are 0..100 already
+        double avgFocus = Double.isNaN(result.averageFocus) ? 0 : result.averageFocus;
+        avgFocusScore.setText(String.format(Locale.getDefault(), "%.0f%%", avgFocus));
+        streakDays.setText(String.valueOf(result.streakDays));
+        streakLabel.setText(result.longestStreakDays > result.streakDays
+                ? "Day Streak (best " + result.longestStreakDays + ")" : "Day Streak");
+        totalSessions.setText(String.valueOf(result.sessionCount));
+        totalHours.setText(result.totalHours() + "h");
+        distributionSummary.setText(describe(result.distribution));
+
+        renderTrend(result.trend);
+        renderPeakFocus(result);
+        renderDistractionBreakdown(result);
+    }
+
+    // The trend is downsampled to what the chart can draw, so a year of days costs the same as a month
+    private void renderTrend(Trend trend) {
+        int width = trendChart.getWidth();
+        int maxPoints = width > 0 ? width / TREND_POINT_SPACING_PX : TREND_DEFAULT_POINTS;
+        trendGranularity = trend.granularity;
+
+        LineData data = new LineData();
+        data.addDataSet(lineDataSet(trend.minutesPoints(maxPoints), "Minutes", MINUTES_COLOR, YAxis.AxisDependency.LEFT));
+        float[] focus = trend.focusPoints(maxPoints);
+        if (focus.length > 0) {
+            data.addDataSet(lineDataSet(focus, "Focus", FOCUS_COLOR, YAxis.AxisDependency.RIGHT));
+        }
+        trendChart.setData(data);
+        trendChart.invalidate();
+    }
+
+    private LineDataSet lineDataSet(float[] pairs, String label, int color, YAxis.AxisDependency axis) {
+        List<Entry> entries = new ArrayList<>(pairs.length / 2);
+        for (int i = 0; i < pairs.length; i += 2) entries.add(new Entry(pairs[i], pairs[i + 1]));
+
+        LineDataSet dataSet = new LineDataSet(entries, label);
+        dataSet.setAxisDependency(axis);
+        dataSet.setColor(color);
+        dataSet.setLineWidth(2f);
+        dataSet.setDrawCircles(false);
+        dataSet.setDrawValues(false);
+        dataSet.setHighlightEnabled(false);
+        return dataSet;
+    }
+
+    // "Median session 25 min · 90% under 50 min", plus focus quartiles when any were scored
+    private static String describe(DaySketches.Distribution d) {
+        if (d.sessions == 0) return "";
+        String text = String.format(Locale.getDefault(), "Median session %.0f min · 90%% under %.0f min",
+                d.medianMinutes, d.p90Minutes);
+        if (d.scoredSessions == 0) return text;
+        return text + String.format(Locale.getDefault(), "\nFocus p25/50/75/90: %.0f / %.0f / %.0f / %.0f",
+                d.focusP25, d.focusMedian, d.focusP75, d.focusP90);
+    }
+
+    private void renderPeakFocus(AnalyticsEngine.Result result) {
+        List<BarEntry> entries = new ArrayList<>(AnalyticsEngine.HOUR_GROUPS);
+        boolean real = result.hasHourData();
+        for (int group = 0; group < AnalyticsEngine.HOUR_GROUPS; group++) {
+            // Demo data until sessions carry start times
+            float value = real ? result.hourGroupFocus(group) : DEMO_PEAK_SCORES[group];
+            entries.add(new BarEntry(group, Float.isNaN(value) ? 0f : value));
+        }
+
+        BarDataSet dataSet = new BarDataSet(entries, "Focus Score");
+        dataSet.setColor(BAR_COLOR);
+        dataSet.setValueTextColor(textColor);
+        dataSet.setValueTextSize(0f);
+
+        BarData data = new BarData(dataSet);
+        data.setBarWidth(0.9f); // Wider bars
+        peakFocusChart.setData(data);
+        peakFocusChart.invalidate();
+    }
+
+    // O(types): the breakdown arrives as per-type totals from the daily rollups
+    private void renderDistractionBreakdown(AnalyticsEngine.Result result) {
+        DistractionRollup.Breakdown breakdown = result.distractions;
+        if (breakdown.totalEvents() == 0) {
+            distractionBreakdown.clear();   // Shows the no-data text
+            return;
+        }
+
+        // Share of distracted time; counts only if every episode was too short to register
+        boolean byTime = breakdown.totalSeconds() > 0;
+        DistractionType[] types = DistractionType.values();
+        List<PieEntry> entries = new ArrayList<>(types.length);
+        List<Integer> colors = new ArrayList<>(types.length);
+        for (DistractionType type : types) {
+            float value = byTime ? breakdown.seconds(type) : breakdown.events(type);
+            if (value <= 0) continue;
+            entries.add(new PieEntry(value, type.label));
+            colors.add(DISTRACTION_COLORS[type.code % DISTRACTION_COLORS.length]);
+        }
+
+        PieDataSet dataSet = new PieDataSet(entries, "");
+        dataSet.setColors(colors);
+        dataSet.setValueTextColor(textColor);
+        dataSet.setValueTextSize(14f);
+
+        PieData data = new PieData(dataSet);
+        distractionBreakdown.setData(data);
+        distractionBreakdown.invalidate();
+    }
+}
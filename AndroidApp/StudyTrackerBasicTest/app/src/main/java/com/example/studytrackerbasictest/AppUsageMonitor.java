@@ -7,8 +7,11 @@ import android.content.Context;
 import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
+import com.example.studytrackerbasictest.network.DetectionServer;
+
 import java.util.List;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -29,15 +32,21 @@ public class AppUsageMonitor {
     private String packageName;
     private AppUsageListener listener;
     
+    // SystemClock.elapsedRealtime(): wall-clock changes mustn't stretch or shrink a distraction
     private long lastCheckTime = 0;
     private long timeInOtherApps = 0;
+    private long distractionStartedAt = 0;
     private boolean currentlyDistracted = false;
     
     public interface AppUsageListener {
         void onAppSwitchedAway(String appName);
         void onAppReturned();
-        void onDistractionDetected(long durationMs);
-        void onDistractionEnded(long durationMs);
+        /**
+         * Timestamps are on the detection server's clock (DetectionServer.toServerTime),
+         * so phone episodes line up with the camera's.
+         */
+        void onDistractionDetected(long startedAtServerMs, long durationMs);
+        void onDistractionEnded(long startedAtServerMs, long endedAtServerMs);
     }
     
     public AppUsageMonitor(Context context, AppUsageListener listener) {
@@ -56,7 +65,7 @@ public class AppUsageMonitor {
         }
         
         isMonitoring = true;
-        lastCheckTime = System.currentTimeMillis();
+        lastCheckTime = SystemClock.elapsedRealtime();
         timeInOtherApps = 0;
         currentlyDistracted = false;
         
@@ -204,7 +213,7 @@ public class AppUsageMonitor {
                 return;
             }
             
-            long currentTime = System.currentTimeMillis();
+            long currentTime = SystemClock.elapsedRealtime();
             long elapsed = currentTime - lastCheckTime;
             lastCheckTime = currentTime;
             
@@ -217,12 +226,14 @@ public class AppUsageMonitor {
                 if (!currentlyDistracted && timeInOtherApps >= DISTRACTION_THRESHOLD_MS) {
                     // Sustained distraction detected
                     currentlyDistracted = true;
+                    distractionStartedAt = currentTime - timeInOtherApps;
                     String appName = getForegroundAppName();
                     Log.d(TAG, "Distraction detected: User in " + appName + 
                           " for " + timeInOtherApps + "ms");
                     
                     if (listener != null) {
-                        listener.onDistractionDetected(timeInOtherApps);
+                        listener.onDistractionDetected(
+                                DetectionServer.toServerTime(distractionStartedAt), timeInOtherApps);
                     }
                 }
                 
@@ -238,7 +249,9 @@ public class AppUsageMonitor {
                     Log.d(TAG, "User returned to app after " + timeInOtherApps + "ms");
                     
                     if (listener != null) {
-                        listener.onDistractionEnded(timeInOtherApps);
+                        listener.onDistractionEnded(
+                                DetectionServer.toServerTime(distractionStartedAt),
+                                DetectionServer.toServerTime(currentTime));
                     }
                     
                     currentlyDistracted = false;
@@ -7,30 +7,26 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.NumberPicker;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
-import com.example.studytrackerbasictest.databases.SessionDatabase;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.LifecycleSubscriptionManager;
+import com.example.studytrackerbasictest.network.SessionPipeline;
+import com.example.studytrackerbasictest.network.SessionStats;
+import com.example.studytrackerbasictest.network.SessionStatsPoller;
 
-import org.json.JSONObject;
-
-import java.io.IOException;
 import java.util.Locale;
 
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
 
 
 public class CountdownFragment extends Fragment {
@@ -39,19 +35,21 @@ public class CountdownFragment extends Fragment {
     private Button preset25, preset45, preset60;
     private Button startBtn;
     private TextView timerDisplay;
+    private TextView timerLabel;
+    private final TimeTextFormatter timerFormat = new TimeTextFormatter();
+    private final TimeTextFormatter focusFormat = new TimeTextFormatter("Focus ", "%");
 
     private CountDownTimer countDownTimer;
     private boolean isRunning = false;
     private long timeLeftMs = 0;
 
     private String username;
-    private String currentSessionId = null;
 
-    private final OkHttpClient client = new OkHttpClient();
-    private static String BASE_URL = "http://10.0.2.2:3000";
+    private SessionPipeline pipeline;
+    private SessionStatsPoller statsPoller;
+    private final SessionRecorder recorder = new SessionRecorder();
 
     static final String PREFS_NAME = "AppPrefs";
-    static final String KEY_IP = "server_ip";
 
     @Nullable
     @Override
@@ -66,17 +64,25 @@ public class CountdownFragment extends Fragment {
         preset60 = v.findViewById(R.id.preset60);
         startBtn = v.findViewById(R.id.startCountdownBtn);
         timerDisplay = v.findViewById(R.id.timerDisplay);
+        timerLabel = v.findViewById(R.id.timerLabel);
 
         setupPicker();
         setupPresets();
         setupStartButton();
         
-        // Initialize timer display
+        // Initialize timer display (a recreated view starts blank, whatever was shown before)
+        timerFormat.invalidate();
         updateTimerDisplay(25 * 60 * 1000);
 
-        SharedPreferences prefs = getActivity().getSharedPreferences(PREFS_NAME, getActivity().MODE_PRIVATE);
-        String savedIp = prefs.getString(KEY_IP, "");
-        if (!savedIp.isEmpty()) BASE_URL = "http://" + savedIp + ":3000";
+        if (pipeline == null) pipeline = new SessionPipeline(requireContext());
+        // Live focus while the session runs: full rate while this screen is visible,
+        // a trickle in the background, cancelled with the fragment
+        if (statsPoller == null) {
+            statsPoller = new SessionStatsPoller(new LifecycleSubscriptionManager(this),
+                    DetectionServer.client(), DetectionServer.baseUrl(requireContext()), this::onStats);
+        }
+        focusFormat.invalidate();
+        if (isRunning) statsPoller.start();
 
         return v;
     }
@@ -119,7 +125,6 @@ public class CountdownFragment extends Fragment {
 
         isRunning = true;
 
-        sendRequest("/start");
         startFocusSession(username);
         scheduleBreakReminder(timeLeftMs);
 
@@ -139,6 +144,9 @@ public class CountdownFragment extends Fragment {
 
     private void stopCountdown() {
         if (countDownTimer != null) countDownTimer.cancel();
+        statsPoller.stop();
+        focusFormat.invalidate();
+        timerLabel.setText("minutes");
 
         startBtn.setText("Start Focus Session");
         startBtn.setBackgroundTintList(getResources().getColorStateList(R.color.green_primary));
@@ -163,97 +171,32 @@ public class CountdownFragment extends Fragment {
                 .format(new java.util.Date());
 
         // Save as session even if stopped early
-        stopFocusSessionAndSave(date, duration, username);
-        sendRequest("/stop");
-    }
-
-
-    private String formatTime(long ms) {
-        int mins = (int) (ms / 1000) / 60;
-        int secs = (int) (ms / 1000) % 60;
-        return String.format(Locale.getDefault(), "%02d:%02d", mins, secs);
-    }
-
-    private void sendRequest(String endpoint) {
-        MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-
-        String bodyText = "{}";
-        if (endpoint.equals("/start")) {
-            JSONObject obj = new JSONObject();
-            try { obj.put("username", username); } catch (Exception ignored) {}
-            bodyText = obj.toString();
-        }
-
-        Request request = new Request.Builder()
-                .url(BASE_URL + endpoint)
-                .post(RequestBody.create(bodyText, JSON))
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override public void onFailure(Call call, IOException e) {}
-            @Override public void onResponse(Call call, Response response) {}
-        });
+        stopFocusSessionAndSave(date, duration, username, elapsedMs);
     }
 
     private void startFocusSession(String username) {
-        MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-        String body = "{\"username\":\"" + username + "\"}";
-
-        Request request = new Request.Builder()
-                .url(BASE_URL + "/session/start")
-                .post(RequestBody.create(body, JSON))
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override public void onFailure(Call call, IOException e) {}
-
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    currentSessionId = json.optString("sessionId", null);
-                } catch (Exception ignored) {}
+        long tappedAt = SystemClock.elapsedRealtime();
+        pipeline.start(username, tappedAt, (ok, sessionId) -> {
+            if (!ok && getContext() != null) {
+                Toast.makeText(getContext(), "Detection server didn't respond; focus won't be scored",
+                        Toast.LENGTH_SHORT).show();
             }
         });
+        recorder.begin();
+        statsPoller.start(tappedAt);
     }
 
-    private void stopFocusSessionAndSave(String date, String duration, String username) {
-
-        Request request = new Request.Builder()
-                .url(BASE_URL + "/session/stop")
-                .post(RequestBody.create("{}", MediaType.parse("application/json; charset=utf-8")))
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-
-            @Override public void onFailure(Call call, IOException e) {
-                SessionDatabase db = new SessionDatabase();
-                db.saveSession(currentSessionId, date, duration, username, null);
-            }
-
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-
-                Double focusScore = null;
-
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    if (json.has("focusScore"))
-                        focusScore = json.getDouble("focusScore");
-                } catch (Exception ignored) {}
-
-                SessionDatabase db = new SessionDatabase();
-                db.saveSession(currentSessionId, date, duration, username, focusScore);
-
-                // Show completion notification
-                if (getContext() != null) {
-                    NotificationHelper.showSessionComplete(getContext(), duration, focusScore);
-                    AchievementManager.checkAndNotifyAchievements(getContext(), username);
-                }
+    private void stopFocusSessionAndSave(String date, String duration, String username, long elapsedMs) {
+        // /session/stop then /stop; anything that doesn't get through is queued in order.
+        // Saving, the notification and achievements run alongside under one deadline.
+        SessionCompletion.run(requireContext(), pipeline, recorder.finish(), username, date, duration, elapsedMs);
+    }
 
-                currentSessionId = null;
-            }
-        });
+    private void onStats(SessionStats stats, long producedAt) {
+        recorder.onStats(stats, producedAt);
+        if (focusFormat.setNumber(Math.round(stats.currentFocusScore))) {
+            timerLabel.setText(focusFormat.buffer(), 0, focusFormat.length());
+        }
     }
 
     private void scheduleBreakReminder(long durationMs) {
@@ -288,9 +231,16 @@ public class CountdownFragment extends Fragment {
     }
 
     private void updateTimerDisplay(long milliseconds) {
-        int minutes = (int) (milliseconds / 1000) / 60;
-        int seconds = (int) (milliseconds / 1000) % 60;
-        timerDisplay.setText(String.format(Locale.getDefault(), "%02d:%02d", minutes, seconds));
+        // CountDownTimer ticks slightly early, so most ticks land on an unchanged second
+        if (timerFormat.setMinutesSeconds(milliseconds / 1000)) {
+            timerDisplay.setText(timerFormat.buffer(), 0, timerFormat.length());
+        }
     }
 
+    @Override
+    public void onResume() {
+        super.onResume();
+        // Have a live connection ready before Start is tapped
+        SessionPipeline.prewarm(requireContext());
+    }
 }
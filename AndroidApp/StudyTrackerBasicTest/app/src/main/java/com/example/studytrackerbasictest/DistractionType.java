@@ -0,0 +1,52 @@
+package com.example.studytrackerbasictest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Distraction activities reported by the detection server ("currentActivity").
+ * Codes are stable and used on the wire and in stored summaries; never reuse one.
+ */
+public enum DistractionType {
+    UNKNOWN(0, "unknown", "Other"),
+    PHONE(1, "phone_distraction", "Phone"),
+    ASLEEP(2, "asleep", "Eyes Closed"),
+    LOOKING_AWAY(3, "looking_away", "Looking Away"),
+    FACE_MISSING(4, "face_missing", "Away From Desk");
+
+    private static final DistractionType[] BY_CODE = values();
+
+    public final int code;
+    public final String wireName;
+    public final String label;
+    private final byte[] wireBytes;
+
+    DistractionType(int code, String wireName, String label) {
+        this.code = code;
+        this.wireName = wireName;
+        this.label = label;
+        this.wireBytes = wireName.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static DistractionType fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : UNKNOWN;
+    }
+
+    public static DistractionType fromWireName(String name) {
+        for (DistractionType type : BY_CODE) {
+            if (type.wireName.equals(name)) return type;
+        }
+        return UNKNOWN;
+    }
+
+    /** Match an ASCII name held in bytes[0, length) without allocating a String. */
+    public static DistractionType fromWireBytes(byte[] bytes, int length) {
+        for (DistractionType type : BY_CODE) {
+            byte[] name = type.wireBytes;
+            if (name.length != length) continue;
+            int i = 0;
+            while (i < length && name[i] == bytes[i]) i++;
+            if (i == length) return type;
+        }
+        return UNKNOWN;
+    }
+}
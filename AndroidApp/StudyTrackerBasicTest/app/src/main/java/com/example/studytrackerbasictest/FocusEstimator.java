@@ -0,0 +1,90 @@
+package com.example.studytrackerbasictest;
+
+/**
+ * Client-side estimate of the live focus score and focused streak between server polls,
+ * so the ring can be drawn every frame while /session/stats is only fetched every few seconds.
+ *
+ * The score goes through an alpha-beta filter (value + rate). Between samples it is
+ * extrapolated along the filtered rate, but never for longer than {@link #MAX_HORIZON_MS}
+ * and never outside 0..100, so a late or lost poll can't run the ring away. When a sample
+ * corrects the estimate, the difference is eased out over {@link #BLEND_MS} instead of
+ * jumping. The streak is a counter, so it is simply dead-reckoned while focused.
+ *
+ * Times are SystemClock.elapsedRealtime() milliseconds. Not thread-safe; main thread only.
+ */
+public class FocusEstimator {
+
+    private static final double ALPHA = 0.5;
+    private static final double BETA = 0.15;
+    private static final double MAX_RATE = 5.0 / 1000;   // score points per ms (5 per second)
+    static final long MAX_HORIZON_MS = 8000;
+    static final long BLEND_MS = 400;
+
+    private boolean hasSample = false;
+    private long sampleAt;
+    private double score;
+    private double rate;
+    private long focusedMs;
+    private boolean distracted;
+
+    // Rendered-minus-estimated at the last sample, decaying to zero
+    private double correction;
+
+    public void update(long nowMs, double measuredScore, long measuredFocusedMs, boolean isDistracted) {
+        if (!hasSample) {
+            hasSample = true;
+            sampleAt = nowMs;
+            score = measuredScore;
+            rate = 0;
+            focusedMs = measuredFocusedMs;
+            distracted = isDistracted;
+            correction = 0;
+            return;
+        }
+
+        double rendered = score(nowMs);
+        long dt = Math.max(1, nowMs - sampleAt);
+        double predicted = score + rate * Math.min(dt, MAX_HORIZON_MS);
+        double residual = measuredScore - predicted;
+
+        score = predicted + ALPHA * residual;
+        rate = clamp(rate + BETA * residual / dt, -MAX_RATE, MAX_RATE);
+        sampleAt = nowMs;
+        focusedMs = measuredFocusedMs;
+        distracted = isDistracted;
+        correction = rendered - clamp(score, 0, 100);
+    }
+
+    public boolean hasSample() {
+        return hasSample;
+    }
+
+    /** Score to draw at nowMs, 0..100. */
+    public double score(long nowMs) {
+        if (!hasSample) return 0;
+        long dt = Math.max(0, nowMs - sampleAt);
+        double estimate = clamp(score + rate * Math.min(dt, MAX_HORIZON_MS), 0, 100);
+        if (dt < BLEND_MS) {
+            double remaining = 1 - (double) dt / BLEND_MS;
+            estimate += correction * remaining * remaining;   // Ease out
+        }
+        return clamp(estimate, 0, 100);
+    }
+
+    /** Focused-streak time at nowMs: keeps counting while the last sample said focused. */
+    public long focusedMs(long nowMs) {
+        if (!hasSample || distracted) return focusedMs;
+        return focusedMs + Math.min(Math.max(0, nowMs - sampleAt), MAX_HORIZON_MS);
+    }
+
+    /** Drop the trend, e.g. after a pause, so the ring doesn't extrapolate across the gap. */
+    public void reset() {
+        hasSample = false;
+        rate = 0;
+        correction = 0;
+    }
+
+    private static double clamp(double v, double lo, double hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
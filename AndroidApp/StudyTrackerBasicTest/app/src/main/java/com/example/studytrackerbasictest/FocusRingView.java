@@ -0,0 +1,113 @@
+package com.example.studytrackerbasictest;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Focus score as a two-colour ring: a green arc for the score over a red track.
+ *
+ * Replaces a PieChart on the live screen, which rebuilt a data set and ran its whole
+ * renderer for what is one arc. Paints and bounds are allocated once; setScore() and
+ * onDraw() allocate nothing, so the ring can be updated every frame.
+ */
+public class FocusRingView extends View {
+
+    private static final long ANIMATION_MS = 300;
+    private static final float THICKNESS = 0.25f;   // Of the radius, matching the old 75% hole
+    private static final float GAP_DEGREES = 2f;     // Between the two colours, like the old slice space
+
+    private final Paint focusedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint distractedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF bounds = new RectF();
+
+    private float shownScore = 100f;
+    private float fromScore = 100f;
+    private float targetScore = 100f;
+    private long animationStart;
+    private boolean animating = false;
+
+    public FocusRingView(Context context) {
+        this(context, null);
+    }
+
+    public FocusRingView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        focusedPaint.setStyle(Paint.Style.STROKE);
+        focusedPaint.setColor(ContextCompat.getColor(context, R.color.green_primary));
+        distractedPaint.setStyle(Paint.Style.STROKE);
+        distractedPaint.setColor(ContextCompat.getColor(context, R.color.red_accent));
+    }
+
+    /**
+     * @param score   0..100
+     * @param animate ease the sweep from its current angle; pass false when the caller is
+     *                already animating (e.g. once per frame from a FocusEstimator)
+     */
+    public void setScore(float score, boolean animate) {
+        float clamped = Math.max(0f, Math.min(100f, score));
+        if (clamped == targetScore && (animating || clamped == shownScore)) return;
+
+        targetScore = clamped;
+        if (animate) {
+            fromScore = shownScore;
+            animationStart = SystemClock.uptimeMillis();
+            animating = true;
+        } else {
+            shownScore = clamped;
+            animating = false;
+        }
+        postInvalidateOnAnimation();
+    }
+
+    public float getScore() {
+        return targetScore;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        float contentW = w - getPaddingLeft() - getPaddingRight();
+        float contentH = h - getPaddingTop() - getPaddingBottom();
+        float radius = Math.min(contentW, contentH) / 2f;
+        float stroke = radius * THICKNESS;
+        float cx = getPaddingLeft() + contentW / 2f;
+        float cy = getPaddingTop() + contentH / 2f;
+        float r = radius - stroke / 2f;
+
+        focusedPaint.setStrokeWidth(stroke);
+        distractedPaint.setStrokeWidth(stroke);
+        bounds.set(cx - r, cy - r, cx + r, cy + r);
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (animating) {
+            float t = Math.min(1f, (SystemClock.uptimeMillis() - animationStart) / (float) ANIMATION_MS);
+            float eased = 1f - (1f - t) * (1f - t);
+            shownScore = fromScore + (targetScore - fromScore) * eased;
+            if (t >= 1f) animating = false;
+            else postInvalidateOnAnimation();
+        }
+
+        float sweep = 360f * shownScore / 100f;
+        if (sweep <= GAP_DEGREES || sweep >= 360f - GAP_DEGREES) {
+            // Only one colour visible: a closed circle, no gaps
+            canvas.drawArc(bounds, 0f, 360f, false, sweep >= 180f ? focusedPaint : distractedPaint);
+            return;
+        }
+        // Clockwise from 12 o'clock, like the PieChart it replaces
+        canvas.drawArc(bounds, -90f + GAP_DEGREES / 2f, sweep - GAP_DEGREES, false, focusedPaint);
+        canvas.drawArc(bounds, -90f + sweep + GAP_DEGREES / 2f, 360f - sweep - GAP_DEGREES, false, distractedPaint);
+    }
+}
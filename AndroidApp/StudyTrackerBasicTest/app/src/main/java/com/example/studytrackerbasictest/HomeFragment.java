@@ -1,5 +1,6 @@
 package com.example.studytrackerbasictest;
 
+import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Build;
@@ -16,6 +17,12 @@ import android.widget.Toast;
 import androidx.fragment.app.Fragment;
 
 import com.example.studytrackerbasictest.databases.SessionDatabase;
+import com.example.studytrackerbasictest.network.CommandOutbox;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.DistractionSocket;
+import com.example.studytrackerbasictest.network.LifecycleSubscriptionManager;
+import com.example.studytrackerbasictest.network.SessionStats;
+import com.example.studytrackerbasictest.network.SessionStatsDecoder;
 
 import org.json.JSONObject;
 
@@ -29,8 +36,6 @@ import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okhttp3.WebSocket;
-import okhttp3.WebSocketListener;
 
 public class HomeFragment extends Fragment {
 
@@ -38,6 +43,7 @@ public class HomeFragment extends Fragment {
     String BASE_URL = "http://10.0.2.2:3000";
 
     TextView welcomeText, timerText, statusText, todayTimeValue, totalSessionsValue;
+    private final TimeTextFormatter timerFormat = new TimeTextFormatter("Running: ", "");
     Button toggleBtn, viewStatsBtn, achievementsBtn;
 
     String username;
@@ -46,7 +52,8 @@ public class HomeFragment extends Fragment {
     private Handler handler = new Handler();
     private boolean isRunning = false;
     private int seconds = 0;
-    private WebSocket webSocket;
+    private LifecycleSubscriptionManager subscriptions;
+    private DistractionSocket distractionSocket;
 
     static final String PREFS_NAME = "AppPrefs";
     static final String KEY_IP = "server_ip";
@@ -72,8 +79,10 @@ public class HomeFragment extends Fragment {
         String savedIp = prefs.getString(KEY_IP, "");
         if (!savedIp.isEmpty()) BASE_URL = "http://" + savedIp + ":3000";
 
-        client = new OkHttpClient();
-        
+        client = DetectionServer.client();
+        if (subscriptions == null) subscriptions = new LifecycleSubscriptionManager(this);
+        connectToDistractionWebSocket();
+
         // Load stats
         loadStats();
 
@@ -117,7 +126,8 @@ public class HomeFragment extends Fragment {
     private void startTimer() {
         isRunning = true;
         seconds = 0;
-        timerText.setText("Running: 00:00");
+        timerFormat.invalidate();
+        showTimer();
         handler.postDelayed(timerRunnable, 1000);
     }
 
@@ -127,11 +137,17 @@ public class HomeFragment extends Fragment {
         timerText.setText("");
     }
 
+    private void showTimer() {
+        if (timerFormat.setMinutesSeconds(seconds)) {
+            timerText.setText(timerFormat.buffer(), 0, timerFormat.length());
+        }
+    }
+
     private final Runnable timerRunnable = new Runnable() {
         @Override public void run() {
             if (isRunning) {
                 seconds++;
-                timerText.setText(String.format("Running: %02d:%02d", seconds / 60, seconds % 60));
+                showTimer();
                 handler.postDelayed(this, 1000);
             }
         }
@@ -141,20 +157,30 @@ public class HomeFragment extends Fragment {
     private void sendRequest(String endpoint) {
         MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
-        String bodyText = "{}";
+        String bodyText = CommandOutbox.stopBody(currentSessionId);
         if (endpoint.equals("/start")) {
             JSONObject obj = new JSONObject();
             try { obj.put("username", username); } catch (Exception ignored) {}
             bodyText = obj.toString();
         }
 
+        String idempotencyKey = CommandOutbox.newIdempotencyKey();
+        Context appContext = requireContext().getApplicationContext();
+        String finalBodyText = bodyText;
+
         Request request = new Request.Builder()
                 .url(BASE_URL + endpoint)
+                .header(DetectionServer.IDEMPOTENCY_HEADER, idempotencyKey)
                 .post(RequestBody.create(bodyText, JSON))
                 .build();
 
         client.newCall(request).enqueue(new Callback() {
-            @Override public void onFailure(Call call, IOException e) {}
+            @Override public void onFailure(Call call, IOException e) {
+                // Only /stop is safe to deliver late; a delayed /start would switch the camera on unexpectedly
+                if (endpoint.equals("/stop")) {
+                    CommandOutbox.enqueue(appContext, endpoint, finalBodyText, idempotencyKey, null);
+                }
+            }
             @Override public void onResponse(Call call, Response response) {}
         });
     }
@@ -172,11 +198,10 @@ public class HomeFragment extends Fragment {
             @Override public void onFailure(Call call, IOException e) {}
 
             @Override public void onResponse(Call call, Response response) throws IOException {
-                try {
-                    String responseBody = response.body().string();
-                    Log.d("HomeFragment", "Server response: " + responseBody);
-                    JSONObject json = new JSONObject(responseBody);
-                    currentSessionId = json.optString("sessionId", null);
+                try (Response r = response) {
+                    SessionStats result = new SessionStats();
+                    new SessionStatsDecoder().decode(r.body().source(), result);
+                    currentSessionId = result.sessionId;
                     Log.d("HomeFragment", "✅ Session started with ID: " + currentSessionId);
                 } catch (Exception e) {
                     Log.e("HomeFragment", "❌ Failed to parse session start response: " + e.getMessage());
@@ -187,27 +212,33 @@ public class HomeFragment extends Fragment {
 
     private void stopFocusSessionAndSave(String date, String duration, String username) {
 
+        String idempotencyKey = CommandOutbox.newIdempotencyKey();
+        Context appContext = requireContext().getApplicationContext();
+        String stopBody = CommandOutbox.stopBody(currentSessionId);
+
         Request request = new Request.Builder()
                 .url(BASE_URL + "/session/stop")
-                .post(RequestBody.create("{}", MediaType.parse("application/json; charset=utf-8")))
+                .header(DetectionServer.IDEMPOTENCY_HEADER, idempotencyKey)
+                .post(RequestBody.create(stopBody, MediaType.parse("application/json; charset=utf-8")))
                 .build();
 
         client.newCall(request).enqueue(new Callback() {
 
             @Override public void onFailure(Call call, IOException e) {
                 SessionDatabase db = new SessionDatabase();
-                db.saveSession(currentSessionId, date, duration, username, null);
+                String docId = db.saveSession(currentSessionId, date, duration, username, null);
+                // Retry with the same key later; the server's score is back-filled into docId
+                CommandOutbox.enqueue(appContext, "/session/stop", stopBody, idempotencyKey, docId);
             }
 
             @Override public void onResponse(Call call, Response response) throws IOException {
                 Double focusScore = null;
 
                 try {
-                    String responseBody = response.body().string();
-                    Log.d("HomeFragment", "Stop response: " + responseBody);
-                    JSONObject json = new JSONObject(responseBody);
-                    if (json.has("focusScore")) {
-                        focusScore = json.getDouble("focusScore");
+                    SessionStats result = new SessionStats();
+                    new SessionStatsDecoder().decode(response.body().source(), result);
+                    if (result.hasFocusScore()) {
+                        focusScore = result.focusScore;
                         Log.d("HomeFragment", "✅ Focus score received: " + focusScore);
                     }
                 } catch (Exception e) {
@@ -216,7 +247,10 @@ public class HomeFragment extends Fragment {
 
                 Log.d("HomeFragment", "Saving session - ID: " + currentSessionId + ", User: " + username + ", Score: " + focusScore);
                 SessionDatabase db = new SessionDatabase();
-                db.saveSession(currentSessionId, date, duration, username, focusScore);
+                String docId = db.saveSession(currentSessionId, date, duration, username, focusScore);
+                if (!response.isSuccessful() && response.code() != 409) {
+                    CommandOutbox.enqueue(appContext, "/session/stop", stopBody, idempotencyKey, docId);
+                }
 
                 // Show completion notification
                 if (getContext() != null) {
@@ -256,30 +290,14 @@ public class HomeFragment extends Fragment {
         
         if (!alertsEnabled) return;
 
-        String wsUrl = BASE_URL.replace("http://", "ws://") + "/ws";
-        Request request = new Request.Builder().url(wsUrl).build();
-
-        webSocket = client.newWebSocket(request, new WebSocketListener() {
-            @Override
-            public void onMessage(WebSocket ws, String text) {
-                // "ON" = distracted, "OFF" = focused
-                if ("ON".equals(text) && getContext() != null) {
-                    NotificationHelper.showDistractionAlert(getContext());
-                }
-            }
+        if (distractionSocket != null) return;
 
-            @Override
-            public void onFailure(WebSocket ws, Throwable t, okhttp3.Response response) {
-                // Connection failed, ignore
+        // Only connected while the fragment is started; reconnects and replays missed alerts itself
+        distractionSocket = subscriptions.connect(new DistractionSocket(client, BASE_URL, distracted -> {
+            if (distracted && getContext() != null) {
+                NotificationHelper.showDistractionAlert(getContext());
             }
-        });
-    }
-
-    private void disconnectWebSocket() {
-        if (webSocket != null) {
-            webSocket.close(1000, "Session ended");
-            webSocket = null;
-        }
+        }));
     }
 
     private void loadStats() {
@@ -325,10 +343,4 @@ public class HomeFragment extends Fragment {
         super.onResume();
         loadStats();
     }
-
-    @Override
-    public void onDestroy() {
-        super.onDestroy();
-        disconnectWebSocket();
-    }
 }
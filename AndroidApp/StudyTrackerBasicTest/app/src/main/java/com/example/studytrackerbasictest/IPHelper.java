@@ -3,7 +3,9 @@ package com.example.studytrackerbasictest;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 
 public class IPHelper {
 
@@ -30,5 +32,19 @@ public class IPHelper {
         }
         return "0.0.0.0"; // fallback
     }
+
+    // All other hosts of ip's /24 (x.y.z.1 - x.y.z.254), empty if ip isn't a usable IPv4 address
+    public static List<String> subnetHosts(String ip) {
+        List<String> hosts = new ArrayList<>(254);
+        String[] octets = ip.split("\\.");
+        if (octets.length != 4 || "0.0.0.0".equals(ip)) return hosts;
+
+        String prefix = octets[0] + "." + octets[1] + "." + octets[2] + ".";
+        for (int i = 1; i <= 254; i++) {
+            String host = prefix + i;
+            if (!host.equals(ip)) hosts.add(host);
+        }
+        return hosts;
+    }
 }
 
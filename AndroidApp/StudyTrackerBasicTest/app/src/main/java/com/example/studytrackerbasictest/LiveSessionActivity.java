@@ -4,6 +4,9 @@ import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.util.Log;
 import android.view.View;
 import android.view.WindowManager;
 import android.widget.Button;
@@ -13,27 +16,19 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
-import com.github.mikephil.charting.charts.PieChart;
-import com.github.mikephil.charting.data.PieData;
-import com.github.mikephil.charting.data.PieDataSet;
-import com.github.mikephil.charting.data.PieEntry;
+import com.example.studytrackerbasictest.databases.SessionDatabase;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.LifecycleSubscriptionManager;
+import com.example.studytrackerbasictest.network.SessionStats;
+import com.example.studytrackerbasictest.network.SessionStatsPoller;
 
-import org.json.JSONObject;
-
-import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Locale;
-
-import okhttp3.Call;
-import okhttp3.Callback;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class LiveSessionActivity extends AppCompatActivity {
 
-    private PieChart focusRing;
+    private static final String TAG = "LiveSessionActivity";
+
+    private FocusRingView focusRing;
     private TextView focusScoreText, focusedStreakText, todayTotalText, sessionTimeText;
     private Button pauseBtn, endBtn;
     private CardView distractionWarning;
@@ -41,15 +36,31 @@ public class LiveSessionActivity extends AppCompatActivity {
 
     private OkHttpClient client;
     private String BASE_URL;
-    private Handler handler = new Handler();
+    private LifecycleSubscriptionManager subscriptions;
+    private SessionStatsPoller statsPoller;
     private Handler warningHandler = new Handler();
+
+    // Every applied poll, kept for replay; saved with the session when it ends (UI thread).
+    // Distraction episodes come from the server's own intervals when a session screen stops.
+    private final SessionRecorder recorder = new SessionRecorder();
+    private int recordedSamples = 0;
+    private String timelineSessionId;
+    private boolean timelineSaved = false;
+
+    // Sparse polls in, one estimate per vsync out
+    private final FocusEstimator estimator = new FocusEstimator();
+    private final Choreographer.FrameCallback frameCallback = this::onFrame;
+    private boolean rendering = false;
+    private final TimeTextFormatter scoreFormat = new TimeTextFormatter();
+    private final TimeTextFormatter streakFormat = new TimeTextFormatter("Current Focused Streak: ", " min");
+    private final TimeTextFormatter sessionTimeFormat = new TimeTextFormatter("Session Time: ", "");
     
     private boolean isPaused = false;
     private long pausedAtMs = 0;
     private long totalPausedMs = 0;
+    // SystemClock.elapsedRealtime(); DetectionServer.toServerTime() maps it onto the camera's clock
     private long sessionStartTime = 0;
 
-    private static final int POLL_INTERVAL_MS = 2000; // Poll every 2 seconds
     private static final int WARNING_DISMISS_MS = 7000; // 7 seconds
 
     @Override
@@ -70,12 +81,30 @@ public class LiveSessionActivity extends AppCompatActivity {
 
         initViews();
         setupServer();
-        setupChart();
         setupButtons();
         checkUsageStatsPermission();
         
-        sessionStartTime = System.currentTimeMillis();
-        startPolling();
+        sessionStartTime = SystemClock.elapsedRealtime();
+        Log.d(TAG, "Session started at server t=" + DetectionServer.toServerTime(sessionStartTime));
+
+        // Polling follows the activity lifecycle: full rate while visible,
+        // throttled after onStop, cancelled (with in-flight calls) in onDestroy;
+        // FocusEstimator fills in between polls
+        subscriptions = new LifecycleSubscriptionManager(this);
+        statsPoller = new SessionStatsPoller(subscriptions, client, BASE_URL, this::applyStats);
+        statsPoller.start();
+
+        // One message per connectivity change instead of a Toast for every failed poll
+        subscriptions.connect(DetectionServer.connectivity(this::onConnectivityChanged));
+    }
+
+    private void onConnectivityChanged(boolean reachable) {
+        if (reachable) {
+            Toast.makeText(this, "Reconnected to detection server", Toast.LENGTH_SHORT).show();
+            if (!isPaused) statsPoller.pollNow();
+        } else {
+            Toast.makeText(this, "Detection server unreachable, retrying...", Toast.LENGTH_LONG).show();
+        }
     }
     
     private void checkUsageStatsPermission() {
@@ -105,26 +134,16 @@ public class LiveSessionActivity extends AppCompatActivity {
         endBtn = findViewById(R.id.endBtn);
         distractionWarning = findViewById(R.id.distractionWarning);
         warningText = findViewById(R.id.warningText);
+
+        // Today's total (placeholder - would need to fetch from database)
+        todayTotalText.setText("Today's Total: 0h 0m");
     }
 
     private void setupServer() {
         SharedPreferences prefs = getSharedPreferences("AppPrefs", MODE_PRIVATE);
         String savedIp = prefs.getString("server_ip", "");
         BASE_URL = savedIp.isEmpty() ? "http://10.0.2.2:3000" : "http://" + savedIp + ":3000";
-        client = new OkHttpClient();
-    }
-
-    private void setupChart() {
-        focusRing.setUsePercentValues(false);
-        focusRing.getDescription().setEnabled(false);
-        focusRing.setDrawHoleEnabled(true);
-        focusRing.setHoleRadius(75f);
-        focusRing.setTransparentCircleRadius(0f);
-        focusRing.setDrawEntryLabels(false);
-        focusRing.getLegend().setEnabled(false);
-        focusRing.setRotationEnabled(false);
-        focusRing.setHighlightPerTapEnabled(false);
-        focusRing.setDrawCenterText(false);
+        client = DetectionServer.client();
     }
 
     private void setupButtons() {
@@ -135,124 +154,110 @@ public class LiveSessionActivity extends AppCompatActivity {
     private void togglePause() {
         isPaused = !isPaused;
         if (isPaused) {
-            pausedAtMs = System.currentTimeMillis();
+            pausedAtMs = SystemClock.elapsedRealtime();
             pauseBtn.setText("Resume");
             pauseBtn.setBackgroundTintList(getResources().getColorStateList(R.color.green_primary));
             stopPolling();
+            stopRendering();
+            estimator.reset();
         } else {
-            totalPausedMs += (System.currentTimeMillis() - pausedAtMs);
+            totalPausedMs += (SystemClock.elapsedRealtime() - pausedAtMs);
             pauseBtn.setText("Pause");
             pauseBtn.setBackgroundTintList(getResources().getColorStateList(R.color.deep_sea_blue));
             startPolling();
+            startRendering();
         }
     }
 
     private void endSession() {
         stopPolling();
+        saveSessionDetails();
         finish();
     }
 
+    // The timeline, stored under the session's document id, which for
+    // a server session is its id
+    private void saveSessionDetails() {
+        if (timelineSaved || recordedSamples == 0) return;
+        timelineSaved = true;
+        String docId = timelineSessionId != null ? SessionDatabase.documentIdFor(timelineSessionId) : null;
+        recorder.finish().saveTo(docId, new SessionDatabase()::saveTimeline);
+    }
+
     private void startPolling() {
-        handler.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                if (!isPaused) {
-                    fetchSessionStats();
-                    handler.postDelayed(this, POLL_INTERVAL_MS);
-                }
-            }
-        }, 0);
+        statsPoller.start();
     }
 
     private void stopPolling() {
-        handler.removeCallbacksAndMessages(null);
+        statsPoller.stop();
     }
 
-    private void fetchSessionStats() {
-        Request request = new Request.Builder()
-                .url(BASE_URL + "/session/stats")
-                .get()
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                runOnUiThread(() -> 
-                    Toast.makeText(LiveSessionActivity.this, "Connection error", Toast.LENGTH_SHORT).show()
-                );
-            }
-
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (!response.isSuccessful()) return;
-
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    String status = json.optString("status");
-                    
-                    if ("ok".equals(status)) {
-                        double focusScore = json.optDouble("currentFocusScore", 100.0);
-                        long focusedMs = json.optLong("focusedMs", 0);
-                        long elapsedMs = json.optLong("elapsedMs", 0);
-                        boolean isDistracted = json.optBoolean("isDistracted", false);
-                        String currentActivity = json.optString("currentActivity", "unknown");
-                        double currentSeverity = json.optDouble("currentSeverity", 0.5);
-
-                        runOnUiThread(() -> {
-                            updateUI(focusScore, focusedMs, elapsedMs);
-                            if (isDistracted) {
-                                showDistractionWarning(currentActivity, currentSeverity);
-                            } else {
-                                hideDistractionWarning();
-                            }
-                        });
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-        });
+    private void applyStats(SessionStats stats, long producedAt) {
+        if (isPaused) return;
+        estimator.update(producedAt, stats.currentFocusScore, stats.focusedMs, stats.isDistracted);
+        recordSample(stats, producedAt);
+        if (stats.isDistracted) {
+            showDistractionWarning(stats.currentActivity, stats.currentSeverity);
+        } else {
+            hideDistractionWarning();
+        }
     }
 
-    private void updateUI(double focusScore, long focusedMs, long elapsedMs) {
-        // Update focus score text
-        focusScoreText.setText(String.format(Locale.getDefault(), "%.0f", focusScore));
+    private void recordSample(SessionStats stats, long producedAt) {
+        recorder.onStats(stats, producedAt);
+        recordedSamples++;
+        if (stats.sessionId != null) timelineSessionId = stats.sessionId;
+    }
 
-        // Update focus ring
-        updateFocusRing((float) focusScore);
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (!isPaused) startRendering();
+    }
 
-        // Update focused streak
-        int focusedMins = (int) (focusedMs / 60000);
-        focusedStreakText.setText(String.format(Locale.getDefault(), 
-            "Current Focused Streak: %d min", focusedMins));
+    @Override
+    protected void onPause() {
+        super.onPause();
+        stopRendering();
+    }
 
-        // Update session time
-        long actualElapsed = System.currentTimeMillis() - sessionStartTime - totalPausedMs;
-        int sessionMins = (int) (actualElapsed / 60000);
-        int sessionSecs = (int) ((actualElapsed / 1000) % 60);
-        sessionTimeText.setText(String.format(Locale.getDefault(), 
-            "Session Time: %02d:%02d", sessionMins, sessionSecs));
+    private void startRendering() {
+        if (rendering) return;
+        rendering = true;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
 
-        // Update today's total (placeholder - would need to fetch from database)
-        todayTotalText.setText("Today's Total: 0h 0m");
+    private void stopRendering() {
+        rendering = false;
+        Choreographer.getInstance().removeFrameCallback(frameCallback);
     }
 
-    private void updateFocusRing(float focusScore) {
-        List<PieEntry> entries = new ArrayList<>();
-        entries.add(new PieEntry(focusScore, "Focused"));
-        entries.add(new PieEntry(100 - focusScore, "Distracted"));
+    private void onFrame(long frameTimeNanos) {
+        if (!rendering) return;
+        long now = SystemClock.elapsedRealtime();
 
-        PieDataSet dataSet = new PieDataSet(entries, "");
-        dataSet.setColors(Color.parseColor("#4CAF50"), Color.parseColor("#FF5252"));
-        dataSet.setDrawValues(false);
-        dataSet.setSliceSpace(2f);
+        if (estimator.hasSample()) {
+            float focusScore = (float) estimator.score(now);
+            focusRing.setScore(focusScore, false);   // Already eased by the estimator
 
-        PieData data = new PieData(dataSet);
-        focusRing.setData(data);
-        focusRing.invalidate();
+            // Each text is only rewritten on the frames where its value changes
+            if (scoreFormat.setNumber(Math.round(focusScore))) {
+                focusScoreText.setText(scoreFormat.buffer(), 0, scoreFormat.length());
+            }
+            if (streakFormat.setNumber(estimator.focusedMs(now) / 60000)) {
+                focusedStreakText.setText(streakFormat.buffer(), 0, streakFormat.length());
+            }
+        }
+
+        long actualElapsed = now - sessionStartTime - totalPausedMs;
+        if (sessionTimeFormat.setMinutesSeconds(actualElapsed / 1000)) {
+            sessionTimeText.setText(sessionTimeFormat.buffer(), 0, sessionTimeFormat.length());
+        }
+
+        Choreographer.getInstance().postFrameCallback(frameCallback);
     }
 
-    private void showDistractionWarning(String activity, double severity) {
+    private void showDistractionWarning(DistractionType activity, double severity) {
         distractionWarning.setVisibility(View.VISIBLE);
         
         // Customize message based on activity type
@@ -261,7 +266,7 @@ public class LiveSessionActivity extends AppCompatActivity {
         String message;
         
         switch (activity) {
-            case "phone_distraction":
+            case PHONE:
                 emoji = "📱";
                 title = "PHONE DETECTED!";
                 message = "Put your phone away immediately!\nFocus on your studies!";
@@ -271,17 +276,17 @@ public class LiveSessionActivity extends AppCompatActivity {
                     vibrator.vibrate(500);
                 }
                 break;
-            case "asleep":
+            case ASLEEP:
                 emoji = "😴";
                 title = "WAKE UP!";
                 message = "You're falling asleep!\nTake a break or splash water on your face!";
                 break;
-            case "looking_away":
+            case LOOKING_AWAY:
                 emoji = "👀";
                 title = "LOOKING AWAY!";
                 message = "You've been distracted for too long.\nRefocus on your work!";
                 break;
-            case "face_missing":
+            case FACE_MISSING:
                 emoji = "❌";
                 title = "WHERE ARE YOU?";
                 message = "Face not detected!\nReturn to your study desk!";
@@ -324,7 +329,7 @@ public class LiveSessionActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        stopPolling();
         warningHandler.removeCallbacksAndMessages(null);
+        if (isFinishing()) saveSessionDetails();   // Left with Back instead of End
     }
 }
@@ -0,0 +1,64 @@
+package com.example.studytrackerbasictest;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.NetworkMetrics;
+
+/**
+ * Debug screen for NetworkMetrics: per-endpoint latency percentiles, error rates and
+ * connection reuse. Opened by long-pressing "Auto-discover Server" in Settings.
+ */
+public class NetworkDebugActivity extends AppCompatActivity {
+
+    private static final String TAG = "NetworkDebugActivity";
+
+    private TextView metricsText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_network_debug);
+
+        Toolbar toolbar = findViewById(R.id.networkDebugToolbar);
+        setSupportActionBar(toolbar);
+        getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setTitle("Network Diagnostics");
+
+        metricsText = findViewById(R.id.metricsText);
+        Button refreshBtn = findViewById(R.id.refreshMetricsBtn);
+        Button resetBtn = findViewById(R.id.resetMetricsBtn);
+
+        refreshBtn.setOnClickListener(v -> refresh());
+        resetBtn.setOnClickListener(v -> {
+            NetworkMetrics.reset();
+            refresh();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    private void refresh() {
+        String report = "Server: " + DetectionServer.baseUrl(this)
+                + (DetectionServer.isReachable() ? "" : "  (circuit open)") + "\n\n"
+                + NetworkMetrics.dump();
+        metricsText.setText(report);
+        Log.d(TAG, report);
+    }
+
+    @Override
+    public boolean onSupportNavigateUp() {
+        finish();
+        return true;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.studytrackerbasictest;
+
+import androidx.annotation.Nullable;
+
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Phone distraction episodes AppUsageMonitor reported, on the detection server's clock
+ * (DetectionServer.toServerTime) so they line up with the camera's intervals. The session
+ * service records them; SessionCompletion takes the session's share and merges it with the
+ * server's intervals before saving. Thread-safe.
+ */
+public final class PhoneDistractions {
+
+    /** Beyond this the oldest unclaimed episodes are dropped. */
+    static final int MAX_EPISODES = 256;
+    private static final int MAX_PARKED = 16;
+    // Time in another app is counted as fully off task
+    private static final double SEVERITY = 1.0;
+
+    private static final ArrayDeque<long[]> episodes = new ArrayDeque<>();
+    private static final Map<String, DistractionLog> parked = new LinkedHashMap<String, DistractionLog>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DistractionLog> eldest) {
+            return size() > MAX_PARKED;
+        }
+    };
+
+    private PhoneDistractions() {}
+
+    public static synchronized void record(long startedAtServerMs, long endedAtServerMs) {
+        if (episodes.size() == MAX_EPISODES) episodes.removeFirst();
+        episodes.addLast(new long[]{startedAtServerMs, Math.max(startedAtServerMs, endedAtServerMs)});
+    }
+
+    /**
+     * The episodes overlapping [fromServerMs, toServerMs], clipped to it, as PHONE episodes.
+     * Everything that started before toServerMs is forgotten; later ones wait for the next session.
+     */
+    public static synchronized DistractionLog take(long fromServerMs, long toServerMs) {
+        DistractionLog log = new DistractionLog();
+        Iterator<long[]> it = episodes.iterator();
+        while (it.hasNext()) {
+            long[] e = it.next();
+            if (e[0] >= toServerMs) continue;
+            it.remove();
+            if (e[1] <= fromServerMs) continue;
+            log.add(DistractionType.PHONE, Math.max(e[0], fromServerMs), Math.min(e[1], toServerMs), SEVERITY);
+        }
+        return log;
+    }
+
+    /** Holds a session's phone episodes while its stop is queued, for OutboxWorker's back-fill. */
+    public static synchronized void park(String sessionDocId, DistractionLog log) {
+        parked.put(sessionDocId, log);
+    }
+
+    @Nullable
+    public static synchronized DistractionLog unpark(String sessionDocId) {
+        return parked.remove(sessionDocId);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.studytrackerbasictest;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.studytrackerbasictest.analytics.AnalyticsEngine;
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+import com.example.studytrackerbasictest.databases.SessionDatabase;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.SessionPipeline;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Everything that happens after a session is stopped, as concurrent stages instead of
+ * one callback chain:
+ *
+ * - stop:         /session/stop + /stop through SessionPipeline (server focus score and
+ *                 the distracted intervals the server recorded)
+ * - history:      the user's past sessions, fetched once and shared by save and achievements
+ * - save:         Firestore write as soon as the doc id and session number are known
+ *                 (the day is marked studied for streaks right away)
+ * - timeline:     the focus samples recorded on screen, stored once the doc id is known
+ * - distractions: the server's intervals merged with the phone's own episodes
+ *                 (PhoneDistractions), as per-type counters and episodes on the doc
+ * - score:        merges the server score into the saved doc whenever it arrives, and
+ *                 counts the session towards peak focus by hour and range totals
+ * - notify:       completion notification with the score, or without it at the deadline
+ * - achievements: computed from history plus this session, no second query
+ *
+ * Stage latencies are logged once everything has settled or the deadline passed.
+ */
+public class SessionCompletion {
+
+    private static final String TAG = "SessionCompletion";
+    private static final long DEADLINE_MS = 4000;
+
+    private final Context appContext;
+    private final String username;
+    private final String date;
+    private final String duration;
+    private final long sessionStartMs;   // Wall clock, epoch ms
+    private final long sessionEndMs;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final SessionDatabase db = new SessionDatabase();
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private final long deadline = startedAt + DEADLINE_MS;
+    private final Map<String, Long> stageMs = new ConcurrentHashMap<>();
+
+    private SessionCompletion(Context context, String username, String date, String duration, long elapsedMs) {
+        this.appContext = context.getApplicationContext();
+        this.username = username;
+        this.date = date;
+        this.duration = duration;
+        this.sessionEndMs = System.currentTimeMillis();
+        this.sessionStartMs = sessionEndMs - elapsedMs;
+    }
+
+    /**
+     * Must be called on the main thread, as the session ends.
+     *
+     * @param elapsedMs time actually studied, i.e. what duration describes
+     */
+    public static void run(Context context, SessionPipeline pipeline, SessionRecorder.Recording recording,
+                           String username, String date, String duration, long elapsedMs) {
+        new SessionCompletion(context, username, date, duration, elapsedMs).start(pipeline, recording);
+    }
+
+    private void start(SessionPipeline pipeline, SessionRecorder.Recording recording) {
+        CompletableFuture<String> docId = new CompletableFuture<>();
+        CompletableFuture<Double> score = new CompletableFuture<>();
+        CompletableFuture<DistractionLog> distractions = new CompletableFuture<>();
+        CompletableFuture<List<Map<String, Object>>> history = new CompletableFuture<>();
+
+        // Fan out: the server round trip and the Firestore query run side by side
+        pipeline.stop(new SessionPipeline.StopCallback() {
+            @Nullable
+            @Override
+            public String onStopping(@Nullable String sessionId) {
+                String id = SessionDatabase.documentIdFor(sessionId);
+                docId.complete(id);
+                return id;
+            }
+
+            @Override
+            public void onStopped(@Nullable Double focusScore, @Nullable DistractionLog log) {
+                distractions.complete(log);
+                score.complete(focusScore);
+            }
+        });
+        db.getSessionsForUser(username, history::complete);
+        AnalyticsEngine.recordStudyDay(username, date);
+
+        timed("stop", score);
+        timed("history", history);
+
+        // History missing at the deadline: fall back to saveSession's own numbering query
+        CompletableFuture<Void> save = docId
+                .thenCombine(withDeadline(history, null), (id, sessions) -> {
+                    if (sessions != null) {
+                        db.saveSession(id, date, duration, username, null, sessions.size() + 1, sessionStartMs, sessionEndMs);
+                    } else {
+                        db.saveSession(id, date, duration, username, null, sessionStartMs, sessionEndMs);
+                    }
+                    return null;
+                });
+        save = timed("save", save);
+
+        CompletableFuture<Void> timeline = docId.thenAccept(id -> recording.saveTo(id, db::saveTimeline));
+        timeline = timed("timeline", timeline);
+
+        // Both sources are on the server's clock, so same-type overlaps merge into one episode
+        long endServerMs = DetectionServer.toServerTime(startedAt);
+        DistractionLog phone = PhoneDistractions.take(endServerMs - (sessionEndMs - sessionStartMs), endServerMs);
+        CompletableFuture<Void> distractionsSaved = distractions.thenAcceptBoth(docId, (log, id) -> {
+            if (log != null) {
+                db.saveDistractions(id, DistractionLog.merge(log, phone));
+            } else if (!phone.isEmpty()) {
+                // Stop still queued: save the phone's share now, OutboxWorker merges it on delivery
+                db.saveDistractions(id, phone);
+                PhoneDistractions.park(id, phone);
+            }
+        });
+        distractionsSaved = timed("distractions", distractionsSaved);
+
+        // Merged into the doc on its own, so a slow server never holds up the save
+        CompletableFuture<Void> scoreSaved = score.thenAcceptBoth(docId, (focusScore, id) -> {
+            if (focusScore == null) return;
+            db.updateFocusScore(id, focusScore);
+            AnalyticsEngine.recordSession(username, id, date, sessionStartMs, sessionEndMs, focusScore);
+        });
+        scoreSaved = timed("score", scoreSaved);
+
+        CompletableFuture<Void> notify = withDeadline(score, null).thenAccept(focusScore ->
+                mainHandler.post(() -> NotificationHelper.showSessionComplete(appContext, duration, focusScore)));
+        notify = timed("notify", notify);
+
+        CompletableFuture<Void> achievements = withDeadline(history, null).thenAccept(sessions -> {
+            if (sessions == null) return;
+            List<Map<String, Object>> withCurrent = new ArrayList<>(sessions);
+            Map<String, Object> current = new HashMap<>();
+            current.put("duration", duration);
+            withCurrent.add(current);
+            mainHandler.post(() -> AchievementManager.checkAndNotifyAchievements(appContext, withCurrent));
+        });
+        achievements = timed("achievements", achievements);
+
+        withDeadline(CompletableFuture.allOf(save, timeline, distractionsSaved, scoreSaved, notify, achievements), null)
+                .thenRun(() -> mainHandler.post(this::logStages));
+    }
+
+    /**
+     * A future that completes with f's value, or with fallback once the global deadline passes.
+     */
+    private <T> CompletableFuture<T> withDeadline(CompletableFuture<T> f, @Nullable T fallback) {
+        CompletableFuture<T> bounded = new CompletableFuture<>();
+        f.whenComplete((value, error) -> bounded.complete(error == null ? value : fallback));
+        mainHandler.postDelayed(() -> bounded.complete(fallback),
+                Math.max(0, deadline - SystemClock.elapsedRealtime()));
+        return bounded;
+    }
+
+    /** The returned future completes only after the stage's latency is recorded. */
+    private <T> CompletableFuture<T> timed(String stage, CompletableFuture<T> f) {
+        return f.whenComplete((value, error) -> stageMs.put(stage, SystemClock.elapsedRealtime() - startedAt));
+    }
+
+    private void logStages() {
+        StringBuilder sb = new StringBuilder("⏱ Session completion");
+        for (String stage : new String[]{"stop", "history", "save", "timeline", "distractions", "score", "notify", "achievements"}) {
+            Long ms = stageMs.get(stage);
+            sb.append(' ').append(stage).append('=').append(ms != null ? ms + "ms" : "pending");
+        }
+        Log.d(TAG, sb.toString());
+    }
+}
@@ -139,8 +139,9 @@ public class SessionForegroundService extends Service implements AppUsageMonitor
     }
 
     @Override
-    public void onDistractionDetected(long durationMs) {
-        Log.d(TAG, "Phone distraction detected: " + durationMs + "ms in other apps");
+    public void onDistractionDetected(long startedAtServerMs, long durationMs) {
+        Log.d(TAG, "Phone distraction detected: " + durationMs + "ms in other apps (since server t="
+                + startedAtServerMs + ")");
         
         // Show notification warning
         NotificationHelper.showWarning(
@@ -148,17 +149,14 @@ public class SessionForegroundService extends Service implements AppUsageMonitor
             "Phone Distraction Detected",
             "You've been using other apps. Stay focused!"
         );
-        
-        // TODO: Send to server/database
-        // Mark as distracted in session data
     }
 
     @Override
-    public void onDistractionEnded(long durationMs) {
-        Log.d(TAG, "User returned after " + durationMs + "ms distraction");
-        
-        // TODO: Send to server/database
-        // Record distraction duration
+    public void onDistractionEnded(long startedAtServerMs, long endedAtServerMs) {
+        Log.d(TAG, "User returned after " + (endedAtServerMs - startedAtServerMs)
+                + "ms distraction (server t=" + startedAtServerMs + ".." + endedAtServerMs + ")");
+        // Merged with the camera's intervals when the session is saved
+        PhoneDistractions.record(startedAtServerMs, endedAtServerMs);
     }
 
     @Override
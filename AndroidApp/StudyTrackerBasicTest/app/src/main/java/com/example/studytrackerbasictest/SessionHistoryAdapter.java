@@ -0,0 +1,59 @@
+package com.example.studytrackerbasictest;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Session history rows for AnalyticsFragment. Lists from {@link SessionHistoryPager} are
+ * diffed off the main thread, so a refresh rebinds only rows whose content changed.
+ */
+public class SessionHistoryAdapter extends ListAdapter<SessionRow, SessionHistoryAdapter.Holder> {
+
+    private static final DiffUtil.ItemCallback<SessionRow> DIFF = new DiffUtil.ItemCallback<SessionRow>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SessionRow oldRow, @NonNull SessionRow newRow) {
+            return oldRow.id.equals(newRow.id);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SessionRow oldRow, @NonNull SessionRow newRow) {
+            return oldRow.equals(newRow);
+        }
+    };
+
+    public SessionHistoryAdapter() {
+        super(DIFF);
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View v = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.list_item_session_history, parent, false);
+        return new Holder(v);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        SessionRow row = getItem(position);
+        holder.title.setText(row.title());
+        holder.details.setText(row.details());
+    }
+
+    static class Holder extends RecyclerView.ViewHolder {
+        final TextView title, details;
+
+        Holder(View v) {
+            super(v);
+            title = v.findViewById(R.id.sessionTitle);
+            details = v.findViewById(R.id.sessionDetails);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.studytrackerbasictest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Newest-first session history, loaded a page at a time from a {@link PageSource}.
+ * The next page is requested once a row within PREFETCH_DISTANCE of the end is shown,
+ * so it is usually there before the user scrolls to it. Each change is published as a
+ * new immutable list for a ListAdapter to diff.
+ *
+ * refresh() reloads as many rows as are shown (up to MAX_REFRESH_ROWS) in one query, and
+ * any page still in flight from before it is dropped.
+ *
+ * Main thread only; the source must call back on the main thread.
+ */
+public class SessionHistoryPager {
+
+    public static final int PAGE_SIZE = 20;
+    static final int PREFETCH_DISTANCE = 5;
+    static final int MAX_REFRESH_ROWS = 200;
+
+    /** Where pages come from; SessionDatabase in the app. */
+    public interface PageSource {
+        /**
+         * Up to limit of username's sessions, newest first, starting after the row
+         * after (or from the newest if after is null). onLoaded gets null on failure.
+         */
+        void loadPage(String username, SessionRow after, int limit, Consumer<List<SessionRow>> onLoaded);
+    }
+
+    private final PageSource source;
+    private final String username;
+    private final Consumer<List<SessionRow>> onRows;
+
+    private List<SessionRow> rows = Collections.emptyList();
+    private boolean loading;
+    private boolean endReached;
+    private int generation;   // Bumped by refresh(); older pages are dropped
+
+    public SessionHistoryPager(PageSource source, String username, Consumer<List<SessionRow>> onRows) {
+        this.source = source;
+        this.username = username;
+        this.onRows = onRows;
+    }
+
+    public List<SessionRow> rows() {
+        return rows;
+    }
+
+    /** Reloads from the newest session; rows already shown stay until the answer arrives. */
+    public void refresh() {
+        int limit = Math.min(Math.max(PAGE_SIZE, rows.size()), MAX_REFRESH_ROWS);
+        int token = ++generation;
+        loading = true;
+        source.loadPage(username, null, limit, page -> {
+            if (token != generation) return;
+            loading = false;
+            if (page == null) return;   // Keep what is shown; the next refresh retries
+            endReached = page.size() < limit;
+            publish(page);
+        });
+    }
+
+    /** Call with the last visible position whenever the list scrolls or lays out. */
+    public void onRowShown(int position) {
+        if (loading || endReached || rows.isEmpty()) return;
+        if (position < rows.size() - PREFETCH_DISTANCE) return;
+
+        int token = generation;
+        loading = true;
+        source.loadPage(username, rows.get(rows.size() - 1), PAGE_SIZE, page -> {
+            if (token != generation) return;
+            loading = false;
+            if (page == null) return;   // The next scroll retries
+            endReached = page.size() < PAGE_SIZE;
+            List<SessionRow> next = new ArrayList<>(rows.size() + page.size());
+            next.addAll(rows);
+            next.addAll(page);
+            publish(next);
+        });
+    }
+
+    private void publish(List<SessionRow> next) {
+        rows = Collections.unmodifiableList(next);
+        onRows.accept(rows);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.studytrackerbasictest;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.studytrackerbasictest.analytics.FocusTimeline;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.SessionStats;
+
+/**
+ * Records a running session for replay: every stats sample the session screen shows goes
+ * into a FocusTimeline, on the server's clock. When the session stops the screen hands
+ * {@link #finish()} to SessionCompletion, which stores it under the session's document.
+ * Main thread only.
+ */
+public class SessionRecorder {
+
+    private static final String TAG = "SessionRecorder";
+
+    /** Where a finished timeline is written; SessionDatabase::saveTimeline in the app. */
+    public interface TimelineStore {
+        void saveTimeline(String sessionDocId, byte[] timeline, int samples);
+    }
+
+    /** One finished session's recording. */
+    public static final class Recording {
+        private final FocusTimeline.Encoder timeline;
+
+        private Recording(FocusTimeline.Encoder timeline) {
+            this.timeline = timeline;
+        }
+
+        public int samples() {
+            return timeline.count();
+        }
+
+        /** Writes the timeline under sessionDocId; nothing is written for an empty one. */
+        public void saveTo(@Nullable String sessionDocId, TimelineStore store) {
+            if (timeline.count() == 0) return;
+            if (sessionDocId == null) {
+                Log.w(TAG, "⚠️ No session document; dropping " + timeline.count() + " timeline samples");
+                return;
+            }
+            store.saveTimeline(sessionDocId, timeline.toByteArray(), timeline.count());
+        }
+    }
+
+    private FocusTimeline.Encoder timeline = new FocusTimeline.Encoder();
+
+    /** Forget anything recorded so far, e.g. samples polled before the last stop. */
+    public void begin() {
+        timeline = new FocusTimeline.Encoder();
+    }
+
+    /** A SessionStatsPoller sample that has just been shown. */
+    public void onStats(SessionStats stats, long producedAt) {
+        timeline.add(DetectionServer.toServerTime(producedAt), stats.currentFocusScore,
+                stats.isDistracted, stats.currentActivity);
+    }
+
+    /** What was recorded since begin(); the recorder starts afresh. */
+    public Recording finish() {
+        Recording recording = new Recording(timeline);
+        timeline = new FocusTimeline.Encoder();
+        return recording;
+    }
+}
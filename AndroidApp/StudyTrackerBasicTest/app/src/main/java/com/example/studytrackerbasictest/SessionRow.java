@@ -0,0 +1,60 @@
+package com.example.studytrackerbasictest;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One row of the session history list: the few fields it shows, plus the document id
+ * that both identifies the row for DiffUtil and serves as the paging cursor.
+ * Immutable, so a refreshed page can be diffed against the rows already shown.
+ */
+public final class SessionRow {
+
+    public final String id;
+    public final String date;       // "yyyy-MM-dd", which sorts like the dates it names
+    public final String duration;
+    public final Double focusScore; // null if the session wasn't scored
+
+    public SessionRow(String id, String date, String duration, Double focusScore) {
+        this.id = id;
+        this.date = date;
+        this.duration = duration;
+        this.focusScore = focusScore;
+    }
+
+    /** From a session document as SessionDatabase stores it. */
+    public static SessionRow from(String id, Map<String, Object> data) {
+        Object date = data.get("date");
+        Object duration = data.get("duration");
+        Object fs = data.get("focusScore");
+        return new SessionRow(id,
+                date != null ? date.toString() : "",
+                duration != null ? duration.toString() : "",
+                fs instanceof Number ? ((Number) fs).doubleValue() : null);
+    }
+
+    public String title() {
+        return date + " - " + duration;
+    }
+
+    public String details() {
+        String focusStr = focusScore != null
+                ? String.format(Locale.getDefault(), "%.0f%%", focusScore) : "N/A";
+        return "Focus Score: " + focusStr;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SessionRow)) return false;
+        SessionRow other = (SessionRow) o;
+        return id.equals(other.id) && date.equals(other.date) && duration.equals(other.duration)
+                && Objects.equals(focusScore, other.focusScore);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, date, duration, focusScore);
+    }
+}
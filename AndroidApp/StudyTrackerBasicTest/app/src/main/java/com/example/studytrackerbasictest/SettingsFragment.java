@@ -17,13 +17,16 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.widget.SwitchCompat;
 import androidx.fragment.app.Fragment;
 
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.ServerDiscovery;
+
 public class SettingsFragment extends Fragment {
 
     private static final String PREFS_NAME = "AppPrefs";
     private static final String KEY_IP = "server_ip";
 
     EditText ipInput;
-    Button saveBtn, logoutBtn;
+    Button saveBtn, discoverBtn, logoutBtn;
     SwitchCompat switchDistractionAlerts, switchBreakReminders, switchAchievements;
 
     public SettingsFragment() {}
@@ -44,6 +47,7 @@ public class SettingsFragment extends Fragment {
 
         ipInput = view.findViewById(R.id.ipInput);
         saveBtn = view.findViewById(R.id.saveBtn);
+        discoverBtn = view.findViewById(R.id.discoverBtn);
         logoutBtn = view.findViewById(R.id.logoutBtn);
         switchDistractionAlerts = view.findViewById(R.id.switchDistractionAlerts);
         switchBreakReminders = view.findViewById(R.id.switchBreakReminders);
@@ -64,9 +68,39 @@ public class SettingsFragment extends Fragment {
                 return;
             }
             prefs.edit().putString(KEY_IP, ip).apply();
+            ServerDiscovery.markManual(requireContext());
+            DetectionServer.resetConnectivity();
             Toast.makeText(requireContext(), "IP saved", Toast.LENGTH_SHORT).show();
         });
 
+        // Hidden diagnostics: per-endpoint latency and error rates
+        discoverBtn.setOnLongClickListener(v -> {
+            startActivity(new Intent(requireContext(), NetworkDebugActivity.class));
+            return true;
+        });
+
+        discoverBtn.setOnClickListener(v -> {
+            discoverBtn.setEnabled(false);
+            discoverBtn.setText("Searching...");
+
+            ServerDiscovery.discover(requireContext(), new ServerDiscovery.Callback() {
+                @Override
+                public void onServerFound(String host) {
+                    if (!isAdded()) return;
+                    resetDiscoverButton();
+                    ipInput.setText(host);
+                    Toast.makeText(requireContext(), "Found server at " + host, Toast.LENGTH_SHORT).show();
+                }
+
+                @Override
+                public void onNotFound() {
+                    if (!isAdded()) return;
+                    resetDiscoverButton();
+                    Toast.makeText(requireContext(), "No server found on this network", Toast.LENGTH_SHORT).show();
+                }
+            });
+        });
+
         // Save notification preferences when changed
         switchDistractionAlerts.setOnCheckedChangeListener((buttonView, isChecked) -> {
             prefs.edit().putBoolean("distraction_alerts", isChecked).apply();
@@ -92,4 +126,9 @@ public class SettingsFragment extends Fragment {
             requireActivity().finish();
         });
     }
+
+    private void resetDiscoverButton() {
+        discoverBtn.setEnabled(true);
+        discoverBtn.setText("Auto-discover Server");
+    }
 }
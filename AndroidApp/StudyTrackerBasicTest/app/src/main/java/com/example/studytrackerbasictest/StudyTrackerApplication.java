@@ -1,6 +1,10 @@
 package com.example.studytrackerbasictest;
 
 import android.app.Application;
+import com.example.studytrackerbasictest.analytics.AnalyticsEngine;
+import com.example.studytrackerbasictest.databases.StudyDayPrefs;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.ServerDiscovery;
 import com.google.firebase.FirebaseApp;
 
 public class StudyTrackerApplication extends Application {
@@ -11,5 +15,14 @@ public class StudyTrackerApplication extends Application {
         
         // Initialize Firebase
         FirebaseApp.initializeApp(this);
+
+        // Shared detection-server client, circuit breaker and health probing
+        DetectionServer.init(this);
+
+        // Re-check an auto-discovered server address; rescan the LAN if it moved
+        ServerDiscovery.revalidate(this);
+
+        // Study-day bitmaps for streaks live in local prefs
+        AnalyticsEngine.init(new StudyDayPrefs(this));
     }
 }
@@ -0,0 +1,124 @@
+package com.example.studytrackerbasictest;
+
+/**
+ * Writes per-second UI text ("Running: 04:05", "Score 87") into one reused char[]
+ * instead of going through String.format, which allocates a Formatter, boxed
+ * arguments and a String on every tick.
+ *
+ * Usage, with the TextView taking the buffer as-is:
+ *
+ *   if (fmt.setMinutesSeconds(secs)) textView.setText(fmt.buffer(), 0, fmt.length());
+ *
+ * The setters return false when the text wouldn't change, so the TextView isn't
+ * touched (no relayout) on ticks that show the same value. Digits are always ASCII.
+ * Not thread-safe; one instance per TextView.
+ */
+public final class TimeTextFormatter {
+
+    private static final int KIND_NONE = 0;
+    private static final int KIND_MINUTES_SECONDS = 1;
+    private static final int KIND_NUMBER = 2;
+
+    private final char[] prefix;
+    private final char[] suffix;
+    private final char[] buffer;
+    private int length;
+
+    private int lastKind = KIND_NONE;
+    private long lastValue;
+
+    public TimeTextFormatter() {
+        this("", "");
+    }
+
+    public TimeTextFormatter(String prefix, String suffix) {
+        this.prefix = prefix.toCharArray();
+        this.suffix = suffix.toCharArray();
+        // Room for a sign and all 19 digits of a long; mm:ss needs at most 17 + 3
+        this.buffer = new char[this.prefix.length + 21 + this.suffix.length];
+    }
+
+    /** "mm:ss"; minutes widen past 99 rather than wrapping. Negative values show as 00:00. */
+    public boolean setMinutesSeconds(long totalSeconds) {
+        long value = Math.max(0, totalSeconds);
+        if (!changed(KIND_MINUTES_SECONDS, value)) return false;
+
+        int pos = writePrefix();
+        pos = writeDigits(value / 60, 2, pos);
+        buffer[pos++] = ':';
+        pos = writeDigits(value % 60, 2, pos);
+        writeSuffix(pos);
+        return true;
+    }
+
+    /** Plain integer, e.g. a rounded score or whole minutes. */
+    public boolean setNumber(long value) {
+        if (!changed(KIND_NUMBER, value)) return false;
+
+        int pos = writePrefix();
+        if (value < 0) {
+            buffer[pos++] = '-';
+            // Long.MIN_VALUE has no positive counterpart to negate into
+            pos = value == Long.MIN_VALUE ? writeMinValue(pos) : writeDigits(-value, 1, pos);
+        } else {
+            pos = writeDigits(value, 1, pos);
+        }
+        writeSuffix(pos);
+        return true;
+    }
+
+    public char[] buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /** Forget the last value, e.g. after the TextView was set to something else. */
+    public void invalidate() {
+        lastKind = KIND_NONE;
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+
+    private boolean changed(int kind, long value) {
+        if (lastKind == kind && lastValue == value) return false;
+        lastKind = kind;
+        lastValue = value;
+        return true;
+    }
+
+    private int writePrefix() {
+        System.arraycopy(prefix, 0, buffer, 0, prefix.length);
+        return prefix.length;
+    }
+
+    private void writeSuffix(int pos) {
+        System.arraycopy(suffix, 0, buffer, pos, suffix.length);
+        length = pos + suffix.length;
+    }
+
+    /** Non-negative value, zero-padded to at least minDigits. */
+    private int writeDigits(long value, int minDigits, int pos) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) digits++;
+        digits = Math.max(digits, minDigits);
+
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private int writeMinValue(int pos) {
+        // 9223372036854775808 = (Long.MAX_VALUE / 10) * 10 + 8, written in two parts
+        pos = writeDigits(Long.MAX_VALUE / 10, 1, pos);
+        buffer[pos++] = '8';
+        return pos;
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.studytrackerbasictest;
 
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.SystemClock;
 import android.view.LayoutInflater;
@@ -10,43 +8,36 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.Chronometer;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
-import com.example.studytrackerbasictest.databases.SessionDatabase;
+import com.example.studytrackerbasictest.network.DetectionServer;
+import com.example.studytrackerbasictest.network.LifecycleSubscriptionManager;
+import com.example.studytrackerbasictest.network.SessionPipeline;
+import com.example.studytrackerbasictest.network.SessionStats;
+import com.example.studytrackerbasictest.network.SessionStatsPoller;
 
-import org.json.JSONObject;
-
-import java.io.IOException;
 import java.util.Locale;
 
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.MediaType;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.RequestBody;
-import okhttp3.Response;
 
 public class UntimedSessionFragment extends Fragment {
 
     private Chronometer chronometer;
     private Button startStopBtn;
     private TextView statusText;
+    private final TimeTextFormatter focusFormat = new TimeTextFormatter("Session in progress... Focus ", "%");
 
     private boolean isRunning = false;
     private long startTimeMs = 0;
     private long pauseOffset = 0;
 
     private String username;
-    private String currentSessionId = null;
-
-    private final OkHttpClient client = new OkHttpClient();
-    private static String BASE_URL = "http://10.0.2.2:3000";
 
-    static final String PREFS_NAME = "AppPrefs";
-    static final String KEY_IP = "server_ip";
+    private SessionPipeline pipeline;
+    private SessionStatsPoller statsPoller;
+    private final SessionRecorder recorder = new SessionRecorder();
 
     @Nullable
     @Override
@@ -61,9 +52,15 @@ public class UntimedSessionFragment extends Fragment {
 
         setupStartStopButton();
 
-        SharedPreferences prefs = getActivity().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        String savedIp = prefs.getString(KEY_IP, "");
-        if (!savedIp.isEmpty()) BASE_URL = "http://" + savedIp + ":3000";
+        if (pipeline == null) pipeline = new SessionPipeline(requireContext());
+        // Live focus while the session runs: full rate while this screen is visible,
+        // a trickle in the background, cancelled with the fragment
+        if (statsPoller == null) {
+            statsPoller = new SessionStatsPoller(new LifecycleSubscriptionManager(this),
+                    DetectionServer.client(), DetectionServer.baseUrl(requireContext()), this::onStats);
+        }
+        focusFormat.invalidate();
+        if (isRunning) statsPoller.start();
 
         return v;
     }
@@ -90,13 +87,14 @@ public class UntimedSessionFragment extends Fragment {
         statusText.setText("Session in progress...");
         statusText.setTextColor(getResources().getColor(R.color.green_primary));
 
-        sendRequest("/start");
         startFocusSession(username);
     }
 
     private void stopSession() {
         isRunning = false;
-        
+        statsPoller.stop();
+        focusFormat.invalidate();
+
         chronometer.stop();
         pauseOffset = SystemClock.elapsedRealtime() - chronometer.getBase();
 
@@ -114,92 +112,36 @@ public class UntimedSessionFragment extends Fragment {
         String date = new java.text.SimpleDateFormat("yyyy-MM-dd", Locale.getDefault())
                 .format(new java.util.Date());
 
-        stopFocusSessionAndSave(date, duration, username);
-        sendRequest("/stop");
+        stopFocusSessionAndSave(date, duration, username, elapsedMs);
 
         // Reset chronometer
         pauseOffset = 0;
         chronometer.setBase(SystemClock.elapsedRealtime());
     }
 
-    private void sendRequest(String endpoint) {
-        MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-
-        String bodyText = "{}";
-        if (endpoint.equals("/start")) {
-            JSONObject obj = new JSONObject();
-            try { obj.put("username", username); } catch (Exception ignored) {}
-            bodyText = obj.toString();
-        }
-
-        Request request = new Request.Builder()
-                .url(BASE_URL + endpoint)
-                .post(RequestBody.create(bodyText, JSON))
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override public void onFailure(Call call, IOException e) {}
-            @Override public void onResponse(Call call, Response response) {}
-        });
-    }
-
     private void startFocusSession(String username) {
-        MediaType JSON = MediaType.parse("application/json; charset=utf-8");
-        String body = "{\"username\":\"" + username + "\"}";
-
-        Request request = new Request.Builder()
-                .url(BASE_URL + "/session/start")
-                .post(RequestBody.create(body, JSON))
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-            @Override public void onFailure(Call call, IOException e) {}
-
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    currentSessionId = json.optString("sessionId", null);
-                } catch (Exception ignored) {}
+        long tappedAt = SystemClock.elapsedRealtime();
+        pipeline.start(username, tappedAt, (ok, sessionId) -> {
+            if (!ok && getContext() != null) {
+                Toast.makeText(getContext(), "Detection server didn't respond; focus won't be scored",
+                        Toast.LENGTH_SHORT).show();
             }
         });
+        recorder.begin();
+        statsPoller.start(tappedAt);
     }
 
-    private void stopFocusSessionAndSave(String date, String duration, String username) {
-        Request request = new Request.Builder()
-                .url(BASE_URL + "/session/stop")
-                .post(RequestBody.create("{}", MediaType.parse("application/json; charset=utf-8")))
-                .build();
-
-        client.newCall(request).enqueue(new Callback() {
-
-            @Override public void onFailure(Call call, IOException e) {
-                SessionDatabase db = new SessionDatabase();
-                db.saveSession(currentSessionId, date, duration, username, null);
-            }
-
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                Double focusScore = null;
-
-                try {
-                    JSONObject json = new JSONObject(response.body().string());
-                    if (json.has("focusScore"))
-                        focusScore = json.getDouble("focusScore");
-                } catch (Exception ignored) {}
-
-                SessionDatabase db = new SessionDatabase();
-                db.saveSession(currentSessionId, date, duration, username, focusScore);
-
-                // Show completion notification
-                if (getContext() != null) {
-                    NotificationHelper.showSessionComplete(getContext(), duration, focusScore);
-                    AchievementManager.checkAndNotifyAchievements(getContext(), username);
-                }
+    private void onStats(SessionStats stats, long producedAt) {
+        recorder.onStats(stats, producedAt);
+        if (focusFormat.setNumber(Math.round(stats.currentFocusScore))) {
+            statusText.setText(focusFormat.buffer(), 0, focusFormat.length());
+        }
+    }
 
-                currentSessionId = null;
-            }
-        });
+    private void stopFocusSessionAndSave(String date, String duration, String username, long elapsedMs) {
+        // /session/stop then /stop; anything that doesn't get through is queued in order.
+        // Saving, the notification and achievements run alongside under one deadline.
+        SessionCompletion.run(requireContext(), pipeline, recorder.finish(), username, date, duration, elapsedMs);
     }
 
     @Override
@@ -212,6 +154,7 @@ public class UntimedSessionFragment extends Fragment {
     @Override
     public void onResume() {
         super.onResume();
-        // Restore state if needed
+        // Have a live connection ready before Start is tapped
+        SessionPipeline.prewarm(requireContext());
     }
 }
@@ -0,0 +1,299 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Every number the Analytics tab and StatsActivity show for a period or custom day
+ * range: totals and average focus in O(log days) from a {@link DayIndex} built per load,
+ * length and focus percentiles from merged {@link DaySketches}, a day/week/month
+ * {@link Trend} from the same index, the distraction breakdown from per-type
+ * {@link DistractionRollup}s, peak focus by hour in O(24 log days) from an
+ * {@link HourHistogram}, and streaks from a per-user {@link StudyDayBitmap} that is
+ * persisted through the {@link StudyDayBitmap.Store} given to {@link #init}.
+ *
+ * Pure Java. Everything runs on the single analytics thread, which owns the loaded
+ * data, histograms and bitmaps; screens reach it through {@link AnalyticsLoader}.
+ */
+public final class AnalyticsEngine {
+
+    public static final int HOUR_GROUPS = 6;            // 4-hour blocks, 12-3am .. 8-11pm
+    private static final int HOURS_PER_GROUP = HourHistogram.HOURS / HOUR_GROUPS;
+
+    public enum Period {
+        TODAY(0), WEEK(7), MONTH(30),
+        /** An explicit day range picked by the user; daysBack is unused. */
+        CUSTOM(0);
+
+        /** Sessions from today minus this many days, inclusive, count towards the period. */
+        public final int daysBack;
+
+        Period(int daysBack) {
+            this.daysBack = daysBack;
+        }
+    }
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "analytics");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Analytics thread only
+    private static final Map<String, StudyDayBitmap> studyDays = new HashMap<>();
+    private static final Map<String, UserData> loaded = new HashMap<>();
+
+    // The last load for a user
+    private static final class UserData {
+        final SessionColumns columns;
+        final DayIndex index;
+        final DaySketches sketches;
+        final DistractionRollup distractions;
+        final HourHistogram hours;   // Buckets are local hours of zone
+        final ZoneId zone;
+        final long fingerprint;
+        int version;
+
+        UserData(SessionColumns columns, DayIndex index, DaySketches sketches, DistractionRollup distractions,
+                 HourHistogram hours, ZoneId zone, long fingerprint, int version) {
+            this.columns = columns;
+            this.index = index;
+            this.sketches = sketches;
+            this.distractions = distractions;
+            this.hours = hours;
+            this.zone = zone;
+            this.fingerprint = fingerprint;
+            this.version = version;
+        }
+    }
+
+    private static volatile StudyDayBitmap.Store dayStore;
+
+    private AnalyticsEngine() {}
+
+    /** Once, at app start; without a store streaks are still computed, just not kept. */
+    public static void init(StudyDayBitmap.Store store) {
+        dayStore = store;
+    }
+
+    /** Runs task on the analytics thread, in order with every other analytics task. */
+    static void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /** Today's epoch day in the device's time zone. */
+    static int today() {
+        return (int) LocalDate.now(ZoneId.systemDefault()).toEpochDay();
+    }
+
+    /**
+     * Analytics thread. Takes a fresh set of session documents for username: builds the
+     * columns, day index, daily sketches, distraction rollups and hour histogram, and
+     * marks the study-day bitmap.
+     *
+     * @return false if the documents hold the same data as the last load, in which
+     *         case nothing is rebuilt and {@link #dataVersion} doesn't change
+     */
+    static boolean load(String username, List<Map<String, Object>> sessions) {
+        ZoneId zone = ZoneId.systemDefault();
+        SessionColumns columns = SessionColumns.from(sessions, zone);
+        long fingerprint = columns.fingerprint();
+        UserData previous = loaded.get(username);
+        if (previous != null && previous.fingerprint == fingerprint && previous.zone.equals(zone)) return false;
+
+        StudyDayBitmap days = studyDaysFor(username);
+        int version = days.version();
+        markStudyDays(columns, days);
+        if (days.version() != version) saveStudyDays(username, days);
+
+        loaded.put(username, new UserData(columns, DayIndex.build(columns), DaySketches.build(columns),
+                DistractionRollup.build(columns), HourHistogram.build(columns, zone), zone, fingerprint, previous != null ? previous.version + 1 : 0));
+        return true;
+    }
+
+    /** Analytics thread. Bumped whenever username's loaded data changes; -1 if nothing is loaded. */
+    static int dataVersion(String username) {
+        UserData data = loaded.get(username);
+        return data != null ? data.version : -1;
+    }
+
+    /**
+     * Analytics thread. Numbers for the period (or, for CUSTOM, firstDay..lastDay) from
+     * the last load; null if nothing is loaded for username.
+     */
+    static Result query(String username, Period period, int firstDay, int lastDay, int today) {
+        UserData data = loaded.get(username);
+        if (data == null) return null;
+        if (period != Period.CUSTOM) {
+            firstDay = today - period.daysBack;
+            lastDay = today;
+        }
+        return compute(data.index, data.sketches, data.distractions, data.hours, studyDaysFor(username),
+                period, firstDay, lastDay, today);
+    }
+
+    /** Marks a session's local date ("yyyy-MM-dd") as studied, as soon as it is saved. */
+    public static void recordStudyDay(String username, String date) {
+        int day = SessionColumns.parseEpochDay(date);
+        if (day == SessionColumns.NO_DAY) return;
+        executor.execute(() -> {
+            StudyDayBitmap days = studyDaysFor(username);
+            if (!days.set(day)) return;
+            saveStudyDays(username, days);
+            UserData data = loaded.get(username);
+            if (data != null) data.version++;   // The streak may have grown
+        });
+    }
+
+    /**
+     * Counts a just-finished, scored session towards peak focus and range totals without
+     * waiting for the next load. Ignored if nothing has been loaded yet, or if the last
+     * load already included it (by sessionDocId); the next load will include it either way.
+     */
+    public static void recordSession(String username, String sessionDocId, String date,
+                                     long startedAtMs, long endedAtMs, double focusScore) {
+        int day = SessionColumns.parseEpochDay(date);
+        executor.execute(() -> {
+            UserData data = loaded.get(username);
+            // The histogram knows every document id it has counted, loaded or live
+            if (data == null || !data.hours.add(sessionDocId, startedAtMs, endedAtMs, focusScore)) return;
+            if (day != SessionColumns.NO_DAY) {
+                int durationSec = (int) ((endedAtMs - startedAtMs + 500) / 1000);
+                data.index.add(day, durationSec, (float) focusScore);
+                data.sketches.add(day, durationSec, (float) focusScore);
+            }
+            data.version++;   // Cached results no longer match
+        });
+    }
+
+    private static StudyDayBitmap studyDaysFor(String username) {
+        StudyDayBitmap days = studyDays.get(username);
+        if (days == null) {
+            StudyDayBitmap.Store store = dayStore;
+            days = StudyDayBitmap.decode(store != null ? store.load(username) : null);
+            studyDays.put(username, days);
+        }
+        return days;
+    }
+
+    private static void saveStudyDays(String username, StudyDayBitmap days) {
+        StudyDayBitmap.Store store = dayStore;
+        if (store != null) store.save(username, days.encode());
+    }
+
+    /**
+     * Marks every session's day in studyDays, which back-fills days saved on other
+     * devices. Days are sorted, so only the first session of each day touches the bitmap.
+     */
+    static void markStudyDays(SessionColumns sessions, StudyDayBitmap studyDays) {
+        int[] days = sessions.epochDay;
+        int lastMarked = SessionColumns.NO_DAY;
+        for (int i = 0; i < sessions.size; i++) {
+            if (days[i] != lastMarked) studyDays.set(lastMarked = days[i]);
+        }
+    }
+
+    /**
+     * Totals and the trend for firstDay..lastDay come from index, distributions from
+     * merged daily sketches and the distraction breakdown from the per-type rollups;
+     * streaks run up to today.
+     */
+    public static Result compute(DayIndex index, DaySketches sketches, DistractionRollup distractions,
+                                 HourHistogram hours,
+                                 StudyDayBitmap studyDays, Period period,
+                                 int firstDay, int lastDay, int todayEpochDay) {
+        DayIndex.Totals totals = index.query(firstDay, lastDay);
+
+        double[] hourMinutes = new double[HourHistogram.HOURS];
+        double[] hourWeighted = new double[HourHistogram.HOURS];
+        hours.query(firstDay, lastDay, hourMinutes, hourWeighted);
+
+        return new Result(period, firstDay, lastDay, totals.sessions, totals.seconds, totals.scoredSessions,
+                totals.averageFocus(), studyDays.currentStreak(todayEpochDay), studyDays.longestStreak(),
+                sketches.query(firstDay, lastDay), Trend.build(index, firstDay, lastDay),
+                distractions.query(firstDay, lastDay), hourMinutes, hourWeighted);
+    }
+
+    /** Immutable; safe to hand from the analytics thread to the UI. */
+    public static final class Result {
+        public final Period period;
+        /** The range the numbers cover, epoch days inclusive. */
+        public final int firstDay;
+        public final int lastDay;
+        public final int sessionCount;
+        public final long totalSeconds;
+        public final int scoredSessions;
+        /** 0..100, NaN if no session in the period has a score. */
+        public final double averageFocus;
+        public final int streakDays;
+        public final int longestStreakDays;
+        /** Session length and focus percentiles over the range. */
+        public final DaySketches.Distribution distribution;
+        /** Minutes and focus per day, week or month, ending at lastDay. */
+        public final Trend trend;
+        /** Distraction episodes and time per type over the range. */
+        public final DistractionRollup.Breakdown distractions;
+        private final double[] hourMinutes;
+        private final double[] hourWeighted;
+
+        Result(Period period, int firstDay, int lastDay, int sessionCount, long totalSeconds,
+               int scoredSessions, double averageFocus, int streakDays, int longestStreakDays,
+               DaySketches.Distribution distribution, Trend trend, DistractionRollup.Breakdown distractions,
+               double[] hourMinutes, double[] hourWeighted) {
+            this.period = period;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            this.sessionCount = sessionCount;
+            this.totalSeconds = totalSeconds;
+            this.scoredSessions = scoredSessions;
+            this.averageFocus = averageFocus;
+            this.streakDays = streakDays;
+            this.longestStreakDays = longestStreakDays;
+            this.distribution = distribution;
+            this.trend = trend;
+            this.distractions = distractions;
+            this.hourMinutes = hourMinutes;
+            this.hourWeighted = hourWeighted;
+        }
+
+        public long totalHours() {
+            return totalSeconds / 3600;
+        }
+
+        /** Minutes studied (scored sessions only) during local hour 0..23. */
+        public double hourMinutes(int hour) {
+            return hourMinutes[hour];
+        }
+
+        /** Minute-weighted focus 0..100 during local hour 0..23, NaN if none studied. */
+        public float hourFocus(int hour) {
+            return focus(hour, 1);
+        }
+
+        /** Minute-weighted focus 0..100 over 4-hour block 0..5, NaN if none studied. */
+        public float hourGroupFocus(int group) {
+            return focus(group * HOURS_PER_GROUP, HOURS_PER_GROUP);
+        }
+
+        private float focus(int firstHour, int hours) {
+            double mins = 0, weighted = 0;
+            for (int h = firstHour; h < firstHour + hours; h++) {
+                mins += hourMinutes[h];
+                weighted += hourWeighted[h];
+            }
+            return mins < 1e-9 ? Float.NaN : (float) (100 * weighted / mins);
+        }
+
+        /** False until scored sessions with start/end times fall in the period. */
+        public boolean hasHourData() {
+            for (double m : hourMinutes) if (m > 0) return true;
+            return false;
+        }
+    }
+}
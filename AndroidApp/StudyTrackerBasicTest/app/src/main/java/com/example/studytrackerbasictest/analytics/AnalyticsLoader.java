@@ -0,0 +1,128 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One stats screen's connection to {@link AnalyticsEngine}. Tab switches only query the
+ * data already loaded, never Firestore, and the last few results are cached until that
+ * data changes, so flipping back to a tab is instant.
+ *
+ * Every request takes a new generation number. A request that was superseded before it
+ * ran is skipped, and a result is only delivered if its request is still the newest when
+ * it reaches the UI executor, so a slow answer can never overwrite a newer tab.
+ */
+public final class AnalyticsLoader {
+
+    private static final int CACHE_SIZE = 8;
+
+    private final String username;
+    private final Executor uiExecutor;
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile Request latest;
+
+    // Analytics thread only
+    private final Map<String, AnalyticsEngine.Result> cache =
+            new LinkedHashMap<String, AnalyticsEngine.Result>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AnalyticsEngine.Result> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    private int cachedVersion = -1;
+    private Request waitingForData;
+
+    private static final class Request {
+        final int generation;
+        final AnalyticsEngine.Period period;
+        final int firstDay;
+        final int lastDay;
+        final Consumer<AnalyticsEngine.Result> onResult;
+
+        Request(int generation, AnalyticsEngine.Period period, int firstDay, int lastDay,
+                Consumer<AnalyticsEngine.Result> onResult) {
+            this.generation = generation;
+            this.period = period;
+            this.firstDay = firstDay;
+            this.lastDay = lastDay;
+            this.onResult = onResult;
+        }
+
+        // Today is part of the key: after midnight "Today" is a different range
+        String key(int today) {
+            return period == AnalyticsEngine.Period.CUSTOM
+                    ? period.name() + ':' + firstDay + ':' + lastDay + ':' + today
+                    : period.name() + ':' + today;
+        }
+    }
+
+    /** @param uiExecutor where results are delivered, e.g. the activity's runOnUiThread */
+    public AnalyticsLoader(String username, Executor uiExecutor) {
+        this.username = username;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * Hands over freshly fetched documents. If they changed anything, or the newest
+     * request was waiting for data, that request is answered again.
+     */
+    public void setSessions(List<Map<String, Object>> sessions) {
+        AnalyticsEngine.execute(() -> {
+            boolean changed = AnalyticsEngine.load(username, sessions);
+            Request request = latest;
+            if (request != null && (changed || request == waitingForData)) run(request);
+        });
+    }
+
+    /** Shows a preset period; supersedes every earlier request. */
+    public void request(AnalyticsEngine.Period period, Consumer<AnalyticsEngine.Result> onResult) {
+        request(period, 0, 0, onResult);
+    }
+
+    /** For CUSTOM, firstDay..lastDay are epoch days, inclusive; ignored otherwise. */
+    public void request(AnalyticsEngine.Period period, int firstDay, int lastDay,
+                        Consumer<AnalyticsEngine.Result> onResult) {
+        Request request = new Request(generation.incrementAndGet(), period, firstDay, lastDay, onResult);
+        latest = request;
+        AnalyticsEngine.execute(() -> run(request));
+    }
+
+    /** Drops every pending result, e.g. when the screen goes away. */
+    public void cancel() {
+        generation.incrementAndGet();
+        latest = null;
+    }
+
+    // Analytics thread
+    private void run(Request request) {
+        if (request.generation != generation.get()) return;   // Superseded while queued
+
+        int version = AnalyticsEngine.dataVersion(username);
+        if (version < 0) {
+            waitingForData = request;   // Answered by setSessions
+            return;
+        }
+        waitingForData = null;
+        if (version != cachedVersion) {
+            cache.clear();
+            cachedVersion = version;
+        }
+
+        int today = AnalyticsEngine.today();
+        String key = request.key(today);
+        AnalyticsEngine.Result result = cache.get(key);
+        if (result == null) {
+            result = AnalyticsEngine.query(username, request.period, request.firstDay, request.lastDay, today);
+            cache.put(key, result);
+        }
+
+        AnalyticsEngine.Result answer = result;
+        uiExecutor.execute(() -> {
+            if (request.generation == generation.get()) request.onResult.accept(answer);
+        });
+    }
+}
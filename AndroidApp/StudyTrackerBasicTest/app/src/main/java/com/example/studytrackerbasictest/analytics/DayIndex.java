@@ -0,0 +1,198 @@
+package com.example.studytrackerbasictest.analytics;
+
+/**
+ * Per-day Fenwick trees of session count, study seconds, scored sessions and focus sum,
+ * so totals for any day range come back in O(log days) and a session is added or
+ * removed in O(log days). Built from {@link SessionColumns} in O(sessions + days).
+ *
+ * Not thread-safe; AnalyticsEngine confines it to the analytics thread.
+ */
+public final class DayIndex {
+
+    private static final int MAX_DAYS = 100 * 366;   // A bad date must not allocate forever
+
+    /** Sums over a day range. */
+    public static final class Totals {
+        public final int sessions;
+        public final long seconds;
+        public final int scoredSessions;
+        /** Sum of focus scores of the scored sessions; divide by scoredSessions for the mean. */
+        public final double focusSum;
+
+        Totals(int sessions, long seconds, int scoredSessions, double focusSum) {
+            this.sessions = sessions;
+            this.seconds = seconds;
+            this.scoredSessions = scoredSessions;
+            this.focusSum = focusSum;
+        }
+
+        /** 0..100, NaN if nothing in the range was scored. */
+        public double averageFocus() {
+            return scoredSessions == 0 ? Double.NaN : focusSum / scoredSessions;
+        }
+    }
+
+    // Fenwick trees are 1-based: tree[i] covers days (baseDay + i - lowbit(i), baseDay + i - 1]
+    private int baseDay;
+    private int days;
+    private long[] count = new long[1];
+    private long[] seconds = new long[1];
+    private long[] scored = new long[1];
+    private double[] focus = new double[1];
+
+    public static DayIndex build(SessionColumns c) {
+        DayIndex index = new DayIndex();
+        if (c.size == 0) return index;
+
+        // Columns are sorted by day, so the range is the first and last entries
+        int first = c.epochDay[0];
+        int last = c.epochDay[c.size - 1];
+        if ((long) last - first >= MAX_DAYS) first = last - MAX_DAYS + 1;
+        index.allocate(first, last - first + 1);
+
+        for (int i = c.firstIndexOf(first); i < c.size; i++) {
+            int pos = c.epochDay[i] - first + 1;
+            index.count[pos]++;
+            index.seconds[pos] += c.durationSec[i];
+            float score = c.focusScore[i];
+            if (score == score) {   // Not NaN
+                index.scored[pos]++;
+                index.focus[pos] += score;
+            }
+        }
+        index.toTrees();
+        return index;
+    }
+
+    /** An empty index already spanning firstDay..lastDay, so adds inside it never regrow. */
+    static DayIndex covering(int firstDay, int lastDay) {
+        DayIndex index = new DayIndex();
+        if ((long) lastDay - firstDay >= MAX_DAYS) firstDay = lastDay - MAX_DAYS + 1;
+        if (lastDay >= firstDay) index.allocate(firstDay, lastDay - firstDay + 1);   // All-zero trees
+        return index;
+    }
+
+    /** @param focusScore 0..100, NaN if the session wasn't scored */
+    public void add(int epochDay, int durationSec, float focusScore) {
+        update(epochDay, 1, durationSec, focusScore);
+    }
+
+    public void remove(int epochDay, int durationSec, float focusScore) {
+        update(epochDay, -1, -durationSec, focusScore);
+    }
+
+    /** Counts n unscored items lasting seconds in total, e.g. a day's distractions of one type. */
+    void addCount(int epochDay, int n, long seconds) {
+        update(epochDay, n, seconds, Float.NaN);
+    }
+
+    private void update(int epochDay, int sign, long durationSec, float focusScore) {
+        if (!ensure(epochDay)) return;
+        boolean isScored = focusScore == focusScore;
+        for (int i = epochDay - baseDay + 1; i <= days; i += i & -i) {
+            count[i] += sign;
+            seconds[i] += durationSec;
+            if (isScored) {
+                scored[i] += sign;
+                focus[i] += sign * focusScore;
+            }
+        }
+    }
+
+    /** Totals for firstDay..lastDay, epoch days inclusive. */
+    public Totals query(int firstDay, int lastDay) {
+        int hi = prefixEnd(lastDay);
+        int lo = prefixEnd(firstDay - 1);
+        if (hi <= lo) return new Totals(0, 0, 0, 0);
+
+        long n = 0, secs = 0, scoredN = 0;
+        double focusSum = 0;
+        for (int i = hi; i > 0; i -= i & -i) {
+            n += count[i];
+            secs += seconds[i];
+            scoredN += scored[i];
+            focusSum += focus[i];
+        }
+        for (int i = lo; i > 0; i -= i & -i) {
+            n -= count[i];
+            secs -= seconds[i];
+            scoredN -= scored[i];
+            focusSum -= focus[i];
+        }
+        return new Totals((int) n, secs, (int) scoredN, focusSum);
+    }
+
+    public boolean isEmpty() {
+        return days == 0;
+    }
+
+    /** The earliest day the index covers; meaningless while empty. */
+    public int firstDay() {
+        return baseDay;
+    }
+
+    // Number of stored days on or before epochDay
+    private int prefixEnd(int epochDay) {
+        long end = (long) epochDay - baseDay + 1;
+        return (int) Math.max(0, Math.min(days, end));
+    }
+
+    private boolean ensure(int epochDay) {
+        if (days == 0) {
+            allocate(epochDay, 1);
+            return true;
+        }
+        if (epochDay >= baseDay && epochDay < baseDay + days) return true;
+
+        int first = Math.min(baseDay, epochDay);
+        int last = Math.max(baseDay + days - 1, epochDay);
+        if (last - first + 1 > MAX_DAYS) return false;
+
+        // Back to per-day values, shifted into the wider range, then rebuilt: O(days)
+        toValues();
+        int shift = baseDay - first;
+        long[] oldCount = count, oldSeconds = seconds, oldScored = scored;
+        double[] oldFocus = focus;
+        int oldDays = days;
+        allocate(first, last - first + 1);
+        System.arraycopy(oldCount, 1, count, 1 + shift, oldDays);
+        System.arraycopy(oldSeconds, 1, seconds, 1 + shift, oldDays);
+        System.arraycopy(oldScored, 1, scored, 1 + shift, oldDays);
+        System.arraycopy(oldFocus, 1, focus, 1 + shift, oldDays);
+        toTrees();
+        return true;
+    }
+
+    private void allocate(int firstDay, int dayCount) {
+        baseDay = firstDay;
+        days = dayCount;
+        count = new long[dayCount + 1];
+        seconds = new long[dayCount + 1];
+        scored = new long[dayCount + 1];
+        focus = new double[dayCount + 1];
+    }
+
+    // Linear-time Fenwick construction from per-day values, in place
+    private void toTrees() {
+        for (int i = 1; i <= days; i++) {
+            int parent = i + (i & -i);
+            if (parent > days) continue;
+            count[parent] += count[i];
+            seconds[parent] += seconds[i];
+            scored[parent] += scored[i];
+            focus[parent] += focus[i];
+        }
+    }
+
+    // The inverse of toTrees
+    private void toValues() {
+        for (int i = days; i >= 1; i--) {
+            int parent = i + (i & -i);
+            if (parent > days) continue;
+            count[parent] -= count[i];
+            seconds[parent] -= seconds[i];
+            scored[parent] -= scored[i];
+            focus[parent] -= focus[i];
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A {@link KllSketch} of session lengths and one of focus scores for each day, so the
+ * distribution over any week or month is a merge of at most that many small daily
+ * sketches rather than a scan of sessions.
+ *
+ * Memory is bounded per user: only the newest {@link #KEPT_DAYS} days keep their own
+ * sketches, and anything older is folded into one "older" pair. A range reaching back
+ * past the kept days therefore includes all older history.
+ *
+ * Not thread-safe; AnalyticsEngine confines it to the analytics thread.
+ */
+public final class DaySketches {
+
+    public static final int KEPT_DAYS = 400;
+    private static final int DAY_K = 64;   // A day rarely fills even this
+
+    private static final class Day {
+        final KllSketch minutes = new KllSketch(DAY_K);
+        final KllSketch focus = new KllSketch(DAY_K);
+
+        void mergeInto(KllSketch minutesOut, KllSketch focusOut) {
+            minutesOut.merge(minutes);
+            focusOut.merge(focus);
+        }
+    }
+
+    /** Quantiles over a day range; NaN where there was nothing to measure. */
+    public static final class Distribution {
+        public final long sessions;
+        public final float medianMinutes;
+        public final float p90Minutes;
+        public final long scoredSessions;
+        public final float focusP25;
+        public final float focusMedian;
+        public final float focusP75;
+        public final float focusP90;
+
+        Distribution(KllSketch minutes, KllSketch focus) {
+            sessions = minutes.count();
+            medianMinutes = minutes.quantile(0.5);
+            p90Minutes = minutes.quantile(0.9);
+            scoredSessions = focus.count();
+            focusP25 = focus.quantile(0.25);
+            focusMedian = focus.quantile(0.5);
+            focusP75 = focus.quantile(0.75);
+            focusP90 = focus.quantile(0.9);
+        }
+    }
+
+    private final Map<Integer, Day> days = new HashMap<>();
+    private final Day older = new Day();
+    private int newestDay = Integer.MIN_VALUE;
+
+    public static DaySketches build(SessionColumns c) {
+        DaySketches sketches = new DaySketches();
+        if (c.size == 0) return sketches;
+
+        // Sorted columns: start at the first kept day so nothing is added and then evicted
+        sketches.newestDay = c.epochDay[c.size - 1];
+        int firstKept = sketches.firstKeptDay();
+        for (int i = 0; i < c.size; i++) {
+            Day day = c.epochDay[i] < firstKept ? sketches.older : sketches.dayFor(c.epochDay[i]);
+            add(day, c.durationSec[i], c.focusScore[i]);
+        }
+        return sketches;
+    }
+
+    /** @param focusScore 0..100, NaN if the session wasn't scored */
+    public void add(int epochDay, int durationSec, float focusScore) {
+        if (epochDay > newestDay) {
+            newestDay = epochDay;
+            evictOldDays();
+        }
+        add(epochDay < firstKeptDay() ? older : dayFor(epochDay), durationSec, focusScore);
+    }
+
+    private static void add(Day day, int durationSec, float focusScore) {
+        day.minutes.add(durationSec / 60f);
+        day.focus.add(focusScore);   // NaN is skipped
+    }
+
+    /** Merges the daily sketches for firstDay..lastDay (epoch days, inclusive). */
+    public Distribution query(int firstDay, int lastDay) {
+        KllSketch minutes = new KllSketch();
+        KllSketch focus = new KllSketch();
+        int firstKept = firstKeptDay();
+        if (firstDay < firstKept && lastDay >= firstDay) older.mergeInto(minutes, focus);
+
+        // At most KEPT_DAYS lookups, however wide the range
+        for (int d = Math.max(firstDay, firstKept); d <= lastDay && d <= newestDay; d++) {
+            Day day = days.get(d);
+            if (day != null) day.mergeInto(minutes, focus);
+        }
+        return new Distribution(minutes, focus);
+    }
+
+    /** Number of days with their own sketches; never more than KEPT_DAYS. */
+    public int keptDays() {
+        return days.size();
+    }
+
+    private int firstKeptDay() {
+        return newestDay == Integer.MIN_VALUE ? Integer.MIN_VALUE : newestDay - KEPT_DAYS + 1;
+    }
+
+    private Day dayFor(int epochDay) {
+        Day day = days.get(epochDay);
+        if (day == null) {
+            day = new Day();
+            days.put(epochDay, day);
+        }
+        return day;
+    }
+
+    private void evictOldDays() {
+        int firstKept = firstKeptDay();
+        for (Iterator<Map.Entry<Integer, Day>> it = days.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Integer, Day> entry = it.next();
+            if (entry.getKey() < firstKept) {
+                entry.getValue().mergeInto(older.minutes, older.focus);
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A session's distraction episodes. The session screens fill it with {@link #add} from
+ * the intervals the server recorded at its own ON/OFF edges (returned by /session/stop).
+ * {@link #onSample} instead cuts episodes from polled (distracted, activity, severity)
+ * samples: an episode opens at the first poll that says distracted and closes at the
+ * first one that says focused or names another activity, which opens the next, so it is
+ * only as precise as the poll interval. Counts and time per {@link DistractionType} are
+ * kept as episodes close, so the session's breakdown is read in O(types). The phone's own
+ * episodes (PhoneDistractions) are folded in with {@link #merge}.
+ *
+ * Times are whatever clock the caller uses (the server's epoch ms). Not thread-safe.
+ */
+public final class DistractionLog {
+
+    public static final int TYPES = DistractionType.values().length;
+    /** Beyond this the episodes are only counted, so the stored log stays small. */
+    public static final int MAX_EVENTS = 1000;
+
+    public static final class Event {
+        public final DistractionType type;
+        public final long startMs;
+        public final long endMs;
+        /** Highest severity polled during the episode, 0..1. */
+        public final float severity;
+
+        Event(DistractionType type, long startMs, long endMs, float severity) {
+            this.type = type;
+            this.startMs = startMs;
+            this.endMs = endMs;
+            this.severity = severity;
+        }
+    }
+
+    private final List<Event> events = new ArrayList<>();
+    private final int[] counts = new int[TYPES];
+    private final long[] millis = new long[TYPES];
+
+    private DistractionType openType;   // null while focused
+    private long openStartMs;
+    private float openSeverity;
+
+    public void onSample(long timeMs, boolean distracted, DistractionType activity, double severity) {
+        if (openType != null && (!distracted || activity != openType)) close(timeMs);
+        if (!distracted) return;
+        if (openType == null) {
+            openType = activity;
+            openStartMs = timeMs;
+            openSeverity = 0;
+        }
+        openSeverity = Math.max(openSeverity, (float) severity);
+    }
+
+    /** Ends any open episode at timeMs, e.g. when the session is paused or stopped. */
+    public void close(long timeMs) {
+        if (openType == null) return;
+        add(openType, openStartMs, timeMs, openSeverity);
+        openType = null;
+    }
+
+    /** A finished episode, e.g. an interval the server recorded; expected in time order. */
+    public void add(DistractionType type, long startMs, long endMs, double severity) {
+        long end = Math.max(startMs, endMs);
+        counts[type.code]++;
+        millis[type.code] += end - startMs;
+        if (events.size() < MAX_EVENTS) events.add(new Event(type, startMs, end, (float) severity));
+    }
+
+    /**
+     * Both logs' episodes as one log, in time order. Same-type episodes that overlap count
+     * once, e.g. the camera seeing the phone while the phone reports another app in front;
+     * the severity is the higher of the two. Built from the kept episodes, so counts past
+     * MAX_EVENTS are not carried over.
+     */
+    public static DistractionLog merge(DistractionLog a, DistractionLog b) {
+        DistractionLog merged = new DistractionLog();
+        int[] last = new int[TYPES];   // Index in merged.events of each type's latest episode
+        Arrays.fill(last, -1);
+        int i = 0, j = 0;
+        while (i < a.events.size() || j < b.events.size()) {
+            Event e = j == b.events.size()
+                    || (i < a.events.size() && a.events.get(i).startMs <= b.events.get(j).startMs)
+                    ? a.events.get(i++) : b.events.get(j++);
+            int t = e.type.code;
+            Event prev = last[t] >= 0 ? merged.events.get(last[t]) : null;
+            if (prev != null && e.startMs <= prev.endMs) {
+                long end = Math.max(prev.endMs, e.endMs);
+                merged.millis[t] += end - prev.endMs;
+                merged.events.set(last[t], new Event(e.type, prev.startMs, end, Math.max(prev.severity, e.severity)));
+            } else {
+                int kept = merged.events.size();
+                merged.add(e.type, e.startMs, e.endMs, e.severity);
+                last[t] = merged.events.size() > kept ? kept : -1;
+            }
+        }
+        return merged;
+    }
+
+    /** Closed episodes in order, at most MAX_EVENTS. */
+    public List<Event> events() {
+        return Collections.unmodifiableList(events);
+    }
+
+    public int count(DistractionType type) {
+        return counts[type.code];
+    }
+
+    public long millis(DistractionType type) {
+        return millis[type.code];
+    }
+
+    public boolean isEmpty() {
+        for (int n : counts) if (n > 0) return false;
+        return true;
+    }
+
+    /** The type with the most distracted time, null if there were no episodes. */
+    public DistractionType top() {
+        DistractionType top = null;
+        for (DistractionType type : DistractionType.values()) {
+            if (counts[type.code] == 0) continue;
+            if (top == null || millis[type.code] > millis[top.code]) top = type;
+        }
+        return top;
+    }
+}
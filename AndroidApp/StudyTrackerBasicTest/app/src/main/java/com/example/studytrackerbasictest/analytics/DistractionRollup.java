@@ -0,0 +1,83 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+/**
+ * Daily distraction rollups: one {@link DayIndex} per {@link DistractionType}, holding
+ * each day's episode count and distracted seconds, built from the per-session counters
+ * in {@link SessionColumns}. Any day range comes back as a {@link Breakdown} in
+ * O(types * log days), and the chart reads that in O(types).
+ *
+ * Not thread-safe; AnalyticsEngine confines it to the analytics thread.
+ */
+public final class DistractionRollup {
+
+    private static final int TYPES = DistractionLog.TYPES;
+
+    /** Per-type totals over a day range. Immutable. */
+    public static final class Breakdown {
+        private final int[] events;
+        private final long[] seconds;
+
+        Breakdown(int[] events, long[] seconds) {
+            this.events = events;
+            this.seconds = seconds;
+        }
+
+        public int events(DistractionType type) {
+            return events[type.code];
+        }
+
+        public long seconds(DistractionType type) {
+            return seconds[type.code];
+        }
+
+        public int totalEvents() {
+            int n = 0;
+            for (int e : events) n += e;
+            return n;
+        }
+
+        public long totalSeconds() {
+            long n = 0;
+            for (long s : seconds) n += s;
+            return n;
+        }
+    }
+
+    private final DayIndex[] byType = new DayIndex[TYPES];
+
+    public static DistractionRollup build(SessionColumns c) {
+        DistractionRollup rollup = new DistractionRollup();
+        int first = c.size > 0 ? c.epochDay[0] : 0;
+        int last = c.size > 0 ? c.epochDay[c.size - 1] : -1;
+        for (int t = 0; t < TYPES; t++) rollup.byType[t] = DayIndex.covering(first, last);
+
+        for (int i = 0; i < c.size; i++) {
+            int base = i * TYPES;
+            for (int t = 0; t < TYPES; t++) {
+                int n = c.distractionEvents[base + t];
+                int secs = c.distractionSec[base + t];
+                if (n > 0 || secs > 0) rollup.byType[t].addCount(c.epochDay[i], n, secs);
+            }
+        }
+        return rollup;
+    }
+
+    /** Folds one session's counters into its day, e.g. a session saved since the last load. */
+    public void add(int epochDay, DistractionType type, int events, long seconds) {
+        byType[type.code].addCount(epochDay, events, seconds);
+    }
+
+    /** Totals for firstDay..lastDay, epoch days inclusive. */
+    public Breakdown query(int firstDay, int lastDay) {
+        int[] events = new int[TYPES];
+        long[] seconds = new long[TYPES];
+        for (int t = 0; t < TYPES; t++) {
+            DayIndex.Totals totals = byType[t].query(firstDay, lastDay);
+            events[t] = totals.sessions;
+            seconds[t] = totals.seconds;
+        }
+        return new Breakdown(events, seconds);
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A session's focus samples (time, focus score, distracted flag, activity) packed
+ * Gorilla-style (Pelkonen et al. 2015), so a whole session fits in a small blob.
+ *
+ * <pre>
+ *   u8      version (1)
+ *   u32     sample count, big-endian
+ *   bits    first sample: i64 time, f32 score, u1 distracted, u4 activity
+ *   bits    each later sample:
+ *             time      delta-of-delta, signed: '0' | '10'+7 | '110'+9 | '1110'+12 | '1111'+64 bits
+ *             score     XOR with the previous: '0' same | '10' inside the previous
+ *                       leading/trailing-zero window | '11'+5 leading+5 length-1, then the bits
+ *             state     '0' unchanged | '1'+u1 distracted+u4 activity
+ * </pre>
+ * Times are epoch ms. Scores are kept in tenths (the telemetry's own resolution), as
+ * whole-number floats, whose few significant bits keep the XOR windows narrow. A steady
+ * poll costs a couple of bits for time and state, so a sample is typically 1-3 bytes.
+ *
+ * Decoded timelines are immutable.
+ */
+public final class FocusTimeline {
+
+    static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5;
+    private static final float SCORE_SCALE = 10f;
+    private static final int ACTIVITY_BITS = 4;
+
+    private final int size;
+    private final long[] timeMs;
+    private final float[] score;
+    private final boolean[] distracted;
+    private final DistractionType[] activity;
+
+    private FocusTimeline(int size, long[] timeMs, float[] score, boolean[] distracted, DistractionType[] activity) {
+        this.size = size;
+        this.timeMs = timeMs;
+        this.score = score;
+        this.distracted = distracted;
+        this.activity = activity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long timeMs(int i) {
+        return timeMs[i];
+    }
+
+    /** 0..100, to 0.1. */
+    public float score(int i) {
+        return score[i];
+    }
+
+    public boolean distracted(int i) {
+        return distracted[i];
+    }
+
+    public DistractionType activity(int i) {
+        return activity[i];
+    }
+
+    /** Collects samples as they are polled; not thread-safe. */
+    public static final class Encoder {
+        private final BitWriter out = new BitWriter();
+        private int count;
+        private long prevTime;
+        private long prevDelta;
+        private int prevBits;
+        private int prevLeading = -1;
+        private int prevTrailing;
+        private boolean prevDistracted;
+        private int prevActivity;
+
+        public int count() {
+            return count;
+        }
+
+        /** @param timeMs epoch ms; samples are expected in time order */
+        public void add(long timeMs, double focusScore, boolean distracted, DistractionType activity) {
+            int bits = Float.floatToIntBits(Math.round(focusScore * SCORE_SCALE));
+            int code = activity.code & ((1 << ACTIVITY_BITS) - 1);
+
+            if (count == 0) {
+                out.write(timeMs, 64);
+                out.write(bits, 32);
+                out.write(distracted ? 1 : 0, 1);
+                out.write(code, ACTIVITY_BITS);
+            } else {
+                long delta = timeMs - prevTime;
+                writeDeltaOfDelta(delta - prevDelta);
+                prevDelta = delta;
+                writeScore(bits);
+                if (distracted == prevDistracted && code == prevActivity) {
+                    out.write(0, 1);
+                } else {
+                    out.write(1, 1);
+                    out.write(distracted ? 1 : 0, 1);
+                    out.write(code, ACTIVITY_BITS);
+                }
+            }
+            prevTime = timeMs;
+            prevBits = bits;
+            prevDistracted = distracted;
+            prevActivity = code;
+            count++;
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                out.write(0, 1);
+            } else if (dod >= -64 && dod <= 63) {
+                out.write(0b10, 2);
+                out.write(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                out.write(0b110, 3);
+                out.write(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                out.write(0b1110, 4);
+                out.write(dod, 12);
+            } else {   // A gap or clock jump
+                out.write(0b1111, 4);
+                out.write(dod, 64);
+            }
+        }
+
+        private void writeScore(int bits) {
+            int xor = bits ^ prevBits;
+            if (xor == 0) {
+                out.write(0, 1);
+                return;
+            }
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (prevLeading >= 0 && leading >= prevLeading && trailing >= prevTrailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> prevTrailing, 32 - prevLeading - prevTrailing);
+            } else {
+                int length = 32 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(length - 1, 5);
+                out.write(xor >>> trailing, length);
+                prevLeading = leading;
+                prevTrailing = trailing;
+            }
+        }
+
+        public byte[] toByteArray() {
+            byte[] bits = out.bytes();
+            byte[] blob = new byte[HEADER_BYTES + bits.length];
+            blob[0] = VERSION;
+            blob[1] = (byte) (count >>> 24);
+            blob[2] = (byte) (count >>> 16);
+            blob[3] = (byte) (count >>> 8);
+            blob[4] = (byte) count;
+            System.arraycopy(bits, 0, blob, HEADER_BYTES, bits.length);
+            return blob;
+        }
+    }
+
+    public static FocusTimeline decode(byte[] blob) throws IOException {
+        if (blob.length < HEADER_BYTES) throw new IOException("Timeline too short: " + blob.length);
+        if (blob[0] != VERSION) throw new IOException("Unsupported timeline version " + blob[0]);
+        int count = ((blob[1] & 0xFF) << 24) | ((blob[2] & 0xFF) << 16) | ((blob[3] & 0xFF) << 8) | (blob[4] & 0xFF);
+        // Every sample takes at least 3 bits, so a bad count can't make us allocate much
+        if (count < 0 || (long) count * 3 > 8L * (blob.length - HEADER_BYTES) + 64) {
+            throw new IOException("Bad timeline sample count " + count);
+        }
+
+        long[] times = new long[count];
+        float[] scores = new float[count];
+        boolean[] flags = new boolean[count];
+        DistractionType[] activities = new DistractionType[count];
+
+        BitReader in = new BitReader(blob, HEADER_BYTES);
+        long time = 0, delta = 0;
+        int bits = 0, leading = 0, trailing = 0;
+        boolean distracted = false;
+        DistractionType activity = DistractionType.UNKNOWN;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                time = in.read(64);
+                bits = (int) in.read(32);
+                distracted = in.read(1) == 1;
+                activity = DistractionType.fromCode((int) in.read(ACTIVITY_BITS));
+            } else {
+                delta += readDeltaOfDelta(in);
+                time += delta;
+
+                if (in.read(1) == 1) {
+                    if (in.read(1) == 1) {
+                        leading = (int) in.read(5);
+                        int length = (int) in.read(5) + 1;
+                        trailing = 32 - leading - length;
+                        if (trailing < 0) throw new IOException("Bad score window at sample " + i);
+                    }
+                    bits ^= (int) (in.read(32 - leading - trailing) << trailing);
+                }
+
+                if (in.read(1) == 1) {
+                    distracted = in.read(1) == 1;
+                    activity = DistractionType.fromCode((int) in.read(ACTIVITY_BITS));
+                }
+            }
+            times[i] = time;
+            scores[i] = Float.intBitsToFloat(bits) / SCORE_SCALE;
+            flags[i] = distracted;
+            activities[i] = activity;
+        }
+        return new FocusTimeline(count, times, scores, flags, activities);
+    }
+
+    private static long readDeltaOfDelta(BitReader in) throws IOException {
+        if (in.read(1) == 0) return 0;
+        if (in.read(1) == 0) return in.readSigned(7);
+        if (in.read(1) == 0) return in.readSigned(9);
+        if (in.read(1) == 0) return in.readSigned(12);
+        return in.read(64);
+    }
+
+    // MSB-first bit packing
+    private static final class BitWriter {
+        private byte[] buf = new byte[64];
+        private int bitPos;
+
+        /** The low n bits of value, n <= 64. */
+        void write(long value, int n) {
+            if (bitPos + n > 8L * buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, (bitPos + n) / 8 + 1));
+            for (int i = n - 1; i >= 0; ) {
+                // As many bits as fit in the current byte
+                int free = 8 - (bitPos & 7);
+                int take = Math.min(free, i + 1);
+                int chunk = (int) (value >>> (i + 1 - take)) & ((1 << take) - 1);
+                buf[bitPos >>> 3] |= (byte) (chunk << (free - take));
+                bitPos += take;
+                i -= take;
+            }
+        }
+
+        byte[] bytes() {
+            return Arrays.copyOf(buf, (bitPos + 7) >>> 3);
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] buf;
+        private long bitPos;
+
+        BitReader(byte[] buf, int offset) {
+            this.buf = buf;
+            this.bitPos = 8L * offset;
+        }
+
+        long read(int n) throws IOException {
+            if (bitPos + n > 8L * buf.length) throw new IOException("Timeline truncated");
+            long value = 0;
+            for (int i = n; i > 0; ) {
+                int avail = 8 - (int) (bitPos & 7);
+                int take = Math.min(avail, i);
+                int b = buf[(int) (bitPos >>> 3)] & 0xFF;
+                int chunk = (b >>> (avail - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                bitPos += take;
+                i -= take;
+            }
+            return value;
+        }
+
+        long readSigned(int n) throws IOException {
+            long raw = read(n);
+            return (raw << (64 - n)) >> (64 - n);   // Sign-extend
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Studied minutes and focus-weighted minutes (minutes x score / 100) per local hour of
+ * day, kept in per-day Fenwick trees of 24 hours each, like {@link DayIndex}: any day
+ * range -- a whole month -- is read in O(24 log days), and a session is added in
+ * O(log days) per hour it covers.
+ *
+ * Sessions are split at hour (and midnight) boundaries, so a 10:40-12:15 session adds
+ * 20 minutes to 10h, 60 to 11h and 15 to 12h. {@link #build} places every session in
+ * its day's row first and turns the rows into trees in one pass, O(sessions + days).
+ *
+ * Not thread-safe; AnalyticsEngine confines it to the analytics thread.
+ */
+public final class HourHistogram {
+
+    public static final int HOURS = 24;
+    private static final long HOUR_MS = 3_600_000L;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    private static final long MAX_SESSION_MS = DAY_MS;   // Anything longer is a bad timestamp
+    private static final int MAX_DAYS = 100 * 366;       // A bad timestamp must not allocate forever
+
+    private final ZoneRules zone;
+
+    // Fenwick trees are 1-based: node i covers days (baseDay + i - lowbit(i), baseDay + i - 1],
+    // and entry [i * 24 + h] holds that span's sum for hour h
+    private int baseDay;
+    private int days;
+    private double[] minutes = new double[HOURS];
+    private double[] weighted = new double[HOURS];
+
+    // Document ids counted, so a session recorded live and then loaded counts once
+    private final Set<String> counted = new HashSet<>();
+
+    public HourHistogram(ZoneId zone) {
+        this.zone = zone.getRules();
+    }
+
+    /** Every session in c that has start/end times and a focus score. */
+    public static HourHistogram build(SessionColumns c, ZoneId zone) {
+        HourHistogram h = new HourHistogram(zone);
+        int first = Integer.MAX_VALUE, last = Integer.MIN_VALUE;
+        for (int i = 0; i < c.size; i++) {
+            if (!h.countable(c.startedAt[i], c.endedAt[i], c.focusScore[i])) continue;
+            first = Math.min(first, h.localDay(c.startedAt[i]));
+            last = Math.max(last, h.localDay(c.endedAt[i]));
+        }
+        if (first > last) return h;
+        if ((long) last - first >= MAX_DAYS) first = last - MAX_DAYS + 1;
+        h.allocate(first, last - first + 1);
+
+        // Per-day rows first, then one pass to trees
+        for (int i = 0; i < c.size; i++) {
+            if (!h.countable(c.startedAt[i], c.endedAt[i], c.focusScore[i])) continue;
+            if (c.docId[i] != null && !h.counted.add(c.docId[i])) continue;
+            h.place(c.startedAt[i], c.endedAt[i], c.focusScore[i], false);
+        }
+        h.toTrees();
+        return h;
+    }
+
+    /**
+     * @param sessionId  the session's document id; null if unknown, which is never deduplicated
+     * @param startMs    epoch ms
+     * @param endMs      epoch ms
+     * @param focusScore 0..100; NaN (unscored) sessions are not counted
+     * @return false if the session was ignored (no times, unscored or already counted)
+     */
+    public boolean add(String sessionId, long startMs, long endMs, double focusScore) {
+        if (!countable(startMs, endMs, focusScore)) return false;
+        if (!ensure(localDay(startMs)) || !ensure(localDay(endMs))) return false;
+        if (sessionId != null && !counted.add(sessionId)) return false;
+        place(startMs, endMs, focusScore, true);
+        return true;
+    }
+
+    private boolean countable(long startMs, long endMs, double focusScore) {
+        return startMs > 0 && endMs > startMs && endMs - startMs <= MAX_SESSION_MS && !Double.isNaN(focusScore);
+    }
+
+    /** Splits the session into hours, into the trees or (while building) the per-day rows. */
+    private void place(long startMs, long endMs, double focusScore, boolean asTree) {
+        double weight = Math.max(0, Math.min(100, focusScore)) / 100.0;
+        long t = startMs;
+        while (t < endMs) {
+            long offsetMs = zone.getOffset(Instant.ofEpochMilli(t)).getTotalSeconds() * 1000L;
+            long local = t + offsetMs;
+            int day = (int) Math.floorDiv(local, DAY_MS);
+            int hour = (int) (Math.floorMod(local, DAY_MS) / HOUR_MS);
+            long next = Math.min(endMs, t + (HOUR_MS - Math.floorMod(local, HOUR_MS)));
+
+            double mins = (next - t) / 60_000.0;
+            int pos = day - baseDay + 1;
+            if (pos >= 1 && pos <= days) {   // Only a build clamped to MAX_DAYS drops anything
+                if (asTree) {
+                    for (int i = pos; i <= days; i += i & -i) addAt(i, hour, mins, mins * weight);
+                } else {
+                    addAt(pos, hour, mins, mins * weight);
+                }
+            }
+            t = next;
+        }
+    }
+
+    private void addAt(int node, int hour, double mins, double weightedMins) {
+        minutes[node * HOURS + hour] += mins;
+        weighted[node * HOURS + hour] += weightedMins;
+    }
+
+    private int localDay(long epochMs) {
+        long offsetMs = zone.getOffset(Instant.ofEpochMilli(epochMs)).getTotalSeconds() * 1000L;
+        return (int) Math.floorDiv(epochMs + offsetMs, DAY_MS);
+    }
+
+    /**
+     * Sums for days firstDay..lastDay (epoch days, inclusive) into the two 24-entry arrays.
+     */
+    public void query(int firstDay, int lastDay, double[] minutesOut, double[] weightedOut) {
+        Arrays.fill(minutesOut, 0);
+        Arrays.fill(weightedOut, 0);
+        int hi = prefixEnd(lastDay);
+        int lo = prefixEnd(firstDay - 1);
+        if (hi <= lo) return;
+
+        for (int i = hi; i > 0; i -= i & -i) {
+            for (int h = 0; h < HOURS; h++) {
+                minutesOut[h] += minutes[i * HOURS + h];
+                weightedOut[h] += weighted[i * HOURS + h];
+            }
+        }
+        for (int i = lo; i > 0; i -= i & -i) {
+            for (int h = 0; h < HOURS; h++) {
+                minutesOut[h] -= minutes[i * HOURS + h];
+                weightedOut[h] -= weighted[i * HOURS + h];
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return days == 0;
+    }
+
+    // Number of stored days on or before epochDay
+    private int prefixEnd(int epochDay) {
+        long end = (long) epochDay - baseDay + 1;
+        return (int) Math.max(0, Math.min(days, end));
+    }
+
+    private boolean ensure(int epochDay) {
+        if (days == 0) {
+            allocate(epochDay, 1);
+            return true;
+        }
+        if (epochDay >= baseDay && epochDay < baseDay + days) return true;
+
+        int first = Math.min(baseDay, epochDay);
+        int last = Math.max(baseDay + days - 1, epochDay);
+        if (last - first + 1 > MAX_DAYS) return false;
+
+        // Back to per-day rows, shifted into the wider range, then rebuilt: O(days)
+        toValues();
+        int shift = baseDay - first;
+        double[] oldMinutes = minutes, oldWeighted = weighted;
+        int oldDays = days;
+        allocate(first, last - first + 1);
+        System.arraycopy(oldMinutes, HOURS, minutes, (1 + shift) * HOURS, oldDays * HOURS);
+        System.arraycopy(oldWeighted, HOURS, weighted, (1 + shift) * HOURS, oldDays * HOURS);
+        toTrees();
+        return true;
+    }
+
+    private void allocate(int firstDay, int dayCount) {
+        baseDay = firstDay;
+        days = dayCount;
+        minutes = new double[(dayCount + 1) * HOURS];
+        weighted = new double[(dayCount + 1) * HOURS];
+    }
+
+    // Linear-time Fenwick construction from per-day rows, in place
+    private void toTrees() {
+        for (int i = 1; i <= days; i++) {
+            int parent = i + (i & -i);
+            if (parent > days) continue;
+            for (int h = 0; h < HOURS; h++) {
+                minutes[parent * HOURS + h] += minutes[i * HOURS + h];
+                weighted[parent * HOURS + h] += weighted[i * HOURS + h];
+            }
+        }
+    }
+
+    // The inverse of toTrees
+    private void toValues() {
+        for (int i = days; i >= 1; i--) {
+            int parent = i + (i & -i);
+            if (parent > days) continue;
+            for (int h = 0; h < HOURS; h++) {
+                minutes[parent * HOURS + h] -= minutes[i * HOURS + h];
+                weighted[parent * HOURS + h] -= weighted[i * HOURS + h];
+            }
+        }
+    }
+}
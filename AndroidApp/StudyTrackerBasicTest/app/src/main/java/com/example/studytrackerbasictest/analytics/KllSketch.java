@@ -0,0 +1,192 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.util.Arrays;
+
+/**
+ * KLL quantile sketch (Karnin, Lang, Liberty 2016) over float values. Items live in
+ * levels of compactors; an item on level h stands for 2^h inputs. When the sketch is
+ * full, a level is sorted and every other item (odd or even, at random) moves up one
+ * level, so memory stays around 3k floats however many values are added. Rank error is
+ * roughly 1.7 / k; with the default k = 128 that is about 1.5% of the count.
+ *
+ * Sketches merge, which is what lets daily sketches be combined into weekly and monthly
+ * distributions without seeing the sessions again. Until it fills, a sketch is exact.
+ *
+ * Not thread-safe.
+ */
+public final class KllSketch {
+
+    public static final int DEFAULT_K = 128;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 2;
+
+    private final int k;
+    private float[][] levels = {new float[4]};
+    private int[] sizes = new int[1];
+    private long count;
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+    private long coin;   // Deterministic per sketch; only needs to be unbiased
+
+    public KllSketch() {
+        this(DEFAULT_K);
+    }
+
+    public KllSketch(int k) {
+        if (k < 8) throw new IllegalArgumentException("k too small: " + k);
+        this.k = k;
+        this.coin = k * 0x9E3779B97F4A7C15L;
+    }
+
+    /** NaN is ignored. */
+    public void add(float value) {
+        if (value != value) return;
+        if (count == 0 || value < min) min = value;
+        if (count == 0 || value > max) max = value;
+        count++;
+        append(0, value);
+        compressIfFull();
+    }
+
+    /** Adds everything other has seen; other is unchanged. */
+    public void merge(KllSketch other) {
+        if (other.count == 0) return;
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        count += other.count;
+        for (int h = 0; h < other.sizes.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) append(h, other.levels[h][i]);
+        }
+        compressIfFull();
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** Number of floats retained, for checking the memory bound. */
+    public int retained() {
+        int n = 0;
+        for (int size : sizes) n += size;
+        return n;
+    }
+
+    /**
+     * Approximate value at quantile q in [0, 1] (0.5 is the median); NaN if empty.
+     * q = 0 and q = 1 are the exact min and max.
+     */
+    public float quantile(double q) {
+        if (count == 0) return Float.NaN;
+        if (q <= 0) return min;
+        if (q >= 1) return max;
+
+        // Every retained item with its weight, sorted by value
+        int n = retained();
+        long[] packed = new long[n];
+        int j = 0;
+        for (int h = 0; h < sizes.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                packed[j++] = ((long) sortableBits(levels[h][i]) << 32) | h;
+            }
+        }
+        Arrays.sort(packed);
+
+        double target = q * count;
+        long cumulative = 0;
+        for (long p : packed) {
+            cumulative += 1L << (int) (p & 0xFF);
+            if (cumulative >= target) return fromSortableBits((int) (p >>> 32));
+        }
+        return max;
+    }
+
+    /** Approximate fraction of values <= value. */
+    public double rank(float value) {
+        if (count == 0) return Double.NaN;
+        long weight = 0;
+        for (int h = 0; h < sizes.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                if (levels[h][i] <= value) weight += 1L << h;
+            }
+        }
+        return (double) weight / count;
+    }
+
+    private void append(int level, float value) {
+        if (level >= sizes.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            for (int h = 0; h <= level; h++) if (levels[h] == null) levels[h] = new float[4];
+        }
+        float[] items = levels[level];
+        if (sizes[level] == items.length) levels[level] = items = Arrays.copyOf(items, items.length * 2);
+        items[sizes[level]++] = value;
+    }
+
+    // Top level holds k, each level below 2/3 of the one above it
+    private int capacity(int level) {
+        int depth = sizes.length - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private int maxRetained() {
+        int total = 0;
+        for (int h = 0; h < sizes.length; h++) total += capacity(h);
+        return total;
+    }
+
+    private void compressIfFull() {
+        while (retained() >= maxRetained()) {
+            boolean compacted = false;
+            for (int h = 0; h < sizes.length; h++) {
+                if (sizes[h] >= capacity(h)) {
+                    compact(h);
+                    compacted = true;
+                    break;
+                }
+            }
+            if (!compacted) break;
+        }
+    }
+
+    // Sorts the level and promotes every other item; an odd one out stays behind
+    private void compact(int level) {
+        float[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+
+        int keep = size % 2 == 1 ? 1 : 0;   // Leave the largest item if the count is odd
+        int pairs = size - keep;
+        int offset = nextCoin() ? 1 : 0;
+        float leftover = items[size - 1];
+
+        // Promoting may grow the level array list, so read before appending
+        float[] promoted = new float[pairs / 2];
+        for (int i = 0; i < promoted.length; i++) promoted[i] = items[2 * i + offset];
+        sizes[level] = 0;
+        if (keep == 1) items[sizes[level]++] = leftover;
+        for (float value : promoted) append(level + 1, value);
+    }
+
+    private boolean nextCoin() {
+        // xorshift64
+        coin ^= coin << 13;
+        coin ^= coin >>> 7;
+        coin ^= coin << 17;
+        return (coin & 1) != 0;
+    }
+
+    // Float bits mapped so that signed int order matches float order
+    private static int sortableBits(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits >= 0 ? bits : bits ^ 0x7FFFFFFF;
+    }
+
+    private static float fromSortableBits(int bits) {
+        return Float.intBitsToFloat(bits >= 0 ? bits : bits ^ 0x7FFFFFFF);
+    }
+}
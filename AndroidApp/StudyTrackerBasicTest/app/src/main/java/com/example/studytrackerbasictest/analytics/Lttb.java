@@ -0,0 +1,70 @@
+package com.example.studytrackerbasictest.analytics;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson 2013). Keeps the first and
+ * last points and, from each of threshold - 2 equal buckets in between, the point that
+ * makes the largest triangle with the point kept before it and the mean of the next
+ * bucket. Peaks and dips survive, which plain averaging or striding would flatten.
+ *
+ * O(n) with no allocation beyond the returned indices, so a long series costs the chart
+ * only as many points as it has room to draw.
+ */
+public final class Lttb {
+
+    private Lttb() {}
+
+    /**
+     * Indices of the points to keep, ascending, out of the first length points of x and y.
+     * x must be ascending. Everything is kept if length <= threshold or threshold < 3.
+     */
+    public static int[] select(float[] x, float[] y, int length, int threshold) {
+        if (length <= threshold || threshold < 3) {
+            int[] all = new int[length];
+            for (int i = 0; i < length; i++) all[i] = i;
+            return all;
+        }
+
+        int[] kept = new int[threshold];
+        int n = 0;
+        kept[n++] = 0;
+
+        // Interior points split into threshold - 2 buckets
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Mean of the next bucket; the last point stands in after the final bucket
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, length);
+            if (nextStart >= length - 1) {
+                nextStart = length - 1;
+                nextEnd = length;
+            }
+            double meanX = 0, meanY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                meanX += x[i];
+                meanY += y[i];
+            }
+            meanX /= nextEnd - nextStart;
+            meanY /= nextEnd - nextStart;
+
+            double ax = x[a], ay = y[a];
+            double bestArea = -1;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; the factor doesn't change which is largest
+                double area = Math.abs((ax - meanX) * (y[i] - ay) - (ax - x[i]) * (meanY - ay));
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = i;
+                }
+            }
+            kept[n++] = a = best;
+        }
+
+        kept[n] = length - 1;
+        return kept;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Session documents as a column store: parallel primitive arrays sorted by day and start
+ * time, about 70 bytes a session instead of a HashMap with boxed and String values. Day
+ * ranges are found by binary search ({@link #firstIndexOf}, {@link #endIndexOf}), and
+ * scans over a slice are plain loops over one or two arrays.
+ *
+ * Built once per Firestore load; documents without a readable "date" are dropped.
+ */
+public final class SessionColumns {
+
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    public static final short NO_MINUTE = -1;
+    public static final byte NO_DISTRACTION = -1;
+    private static final int TYPES = DistractionLog.TYPES;
+
+    // A session's index rides in the low bits of its sort key
+    private static final int INDEX_BITS = 21;
+    private static final int MAX_SESSIONS = 1 << INDEX_BITS;
+
+    public final int size;
+    final int[] epochDay;        // "date" as days since 1970-01-01, ascending
+    final short[] startMinute;   // Local minute of day 0..1439 from "startedAt", NO_MINUTE if unknown
+    final int[] durationSec;     // "duration" (mm:ss), 0 if missing
+    final float[] focusScore;    // "focusScore" 0..100, NaN if the session wasn't scored
+    final byte[] distraction;    // DistractionType code of "topDistraction", NO_DISTRACTION if none
+    final long[] startedAt;      // Epoch ms, 0 for sessions saved before start/end were recorded
+    final long[] endedAt;
+    // Per session, TYPES entries each, indexed by DistractionType code; 0 when not recorded
+    final int[] distractionEvents;   // "distractionEvents" {wireName: count}
+    final int[] distractionSec;      // "distractionSeconds" {wireName: seconds}
+    final String[] docId;        // Firestore document id ("id"), null if the map didn't carry one
+
+    private SessionColumns(int size) {
+        this.size = size;
+        epochDay = new int[size];
+        startMinute = new short[size];
+        durationSec = new int[size];
+        focusScore = new float[size];
+        distraction = new byte[size];
+        startedAt = new long[size];
+        endedAt = new long[size];
+        distractionEvents = new int[size * TYPES];
+        distractionSec = new int[size * TYPES];
+        docId = new String[size];
+    }
+
+    /** Start minutes in the device's current time zone. */
+    public static SessionColumns from(List<Map<String, Object>> sessions) {
+        return from(sessions, ZoneId.systemDefault());
+    }
+
+    public static SessionColumns from(List<Map<String, Object>> sessions, ZoneId zone) {
+        int n = Math.min(sessions.size(), MAX_SESSIONS);
+        ZoneRules rules = zone.getRules();
+
+        // Read each document once into unsorted scratch columns
+        SessionColumns raw = new SessionColumns(n);
+        int kept = 0;
+        int minDay = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Map<String, Object> s = sessions.get(i);
+            Object date = s.get("date");
+            int day = date instanceof String ? parseEpochDay((String) date) : NO_DAY;
+            if (day == NO_DAY) continue;
+
+            raw.epochDay[kept] = day;
+            minDay = Math.min(minDay, day);
+
+            Object duration = s.get("duration");
+            raw.durationSec[kept] = duration instanceof String ? parseDurationSeconds((String) duration) : 0;
+
+            Object fs = s.get("focusScore");
+            raw.focusScore[kept] = fs instanceof Number ? ((Number) fs).floatValue() : Float.NaN;
+
+            Object top = s.get("topDistraction");
+            raw.distraction[kept] = top instanceof String
+                    ? (byte) DistractionType.fromWireName((String) top).code : NO_DISTRACTION;
+
+            raw.startMinute[kept] = NO_MINUTE;
+            Object startedAt = s.get("startedAt");
+            Object endedAt = s.get("endedAt");
+            if (startedAt instanceof Number && endedAt instanceof Number) {
+                long start = ((Number) startedAt).longValue();
+                raw.startedAt[kept] = start;
+                raw.endedAt[kept] = ((Number) endedAt).longValue();
+                if (start > 0) raw.startMinute[kept] = localMinute(start, rules);
+            }
+
+            Object id = s.get("id");
+            raw.docId[kept] = id instanceof String ? (String) id : null;
+
+            readPerType(s.get("distractionEvents"), raw.distractionEvents, kept * TYPES);
+            readPerType(s.get("distractionSeconds"), raw.distractionSec, kept * TYPES);
+            kept++;
+        }
+
+        // Sort on one primitive key per session: day, then start minute (unknown first), then index
+        long[] keys = new long[kept];
+        for (int i = 0; i < kept; i++) {
+            keys[i] = ((long) (raw.epochDay[i] - minDay) << 32)
+                    | ((long) (raw.startMinute[i] + 1) << INDEX_BITS)
+                    | i;
+        }
+        Arrays.sort(keys);
+
+        SessionColumns c = new SessionColumns(kept);
+        for (int to = 0; to < kept; to++) {
+            int from = (int) (keys[to] & (MAX_SESSIONS - 1));
+            c.epochDay[to] = raw.epochDay[from];
+            c.startMinute[to] = raw.startMinute[from];
+            c.durationSec[to] = raw.durationSec[from];
+            c.focusScore[to] = raw.focusScore[from];
+            c.distraction[to] = raw.distraction[from];
+            c.startedAt[to] = raw.startedAt[from];
+            c.endedAt[to] = raw.endedAt[from];
+            c.docId[to] = raw.docId[from];
+            System.arraycopy(raw.distractionEvents, from * TYPES, c.distractionEvents, to * TYPES, TYPES);
+            System.arraycopy(raw.distractionSec, from * TYPES, c.distractionSec, to * TYPES, TYPES);
+        }
+        return c;
+    }
+
+    // {wireName: number} into out[offset + code]; anything unreadable counts as 0
+    private static void readPerType(Object map, int[] out, int offset) {
+        if (!(map instanceof Map)) return;
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) map).entrySet()) {
+            if (!(e.getKey() instanceof String) || !(e.getValue() instanceof Number)) continue;
+            int value = ((Number) e.getValue()).intValue();
+            if (value > 0) out[offset + DistractionType.fromWireName((String) e.getKey()).code] += value;
+        }
+    }
+
+    /**
+     * A hash of every column, to tell whether a reload brought anything new. Columns are
+     * sorted, so the same documents fetched in another order (almost always) hash the same.
+     */
+    public long fingerprint() {
+        long h = size;
+        for (int i = 0; i < size; i++) {
+            h = h * 31 + epochDay[i];
+            h = h * 31 + durationSec[i];
+            h = h * 31 + Float.floatToIntBits(focusScore[i]);
+            h = h * 31 + distraction[i];
+            h = h * 31 + startedAt[i];
+            h = h * 31 + endedAt[i];
+        }
+        for (int i = 0; i < distractionEvents.length; i++) {
+            h = h * 31 + distractionEvents[i];
+            h = h * 31 + distractionSec[i];
+        }
+        return h;
+    }
+
+    /** Index of the first session on or after epochDay; size if there is none. */
+    public int firstIndexOf(int epochDay) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.epochDay[mid] < epochDay) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** One past the last session on or before epochDay. */
+    public int endIndexOf(int epochDay) {
+        return epochDay == Integer.MAX_VALUE ? size : firstIndexOf(epochDay + 1);
+    }
+
+    public int epochDay(int index) {
+        return epochDay[index];
+    }
+
+    public int durationSeconds(int index) {
+        return durationSec[index];
+    }
+
+    /** 0..100, NaN if not scored. */
+    public float focusScore(int index) {
+        return focusScore[index];
+    }
+
+    /** Local minute of day the session started, or NO_MINUTE. */
+    public int startMinute(int index) {
+        return startMinute[index];
+    }
+
+    /** DistractionType code, or NO_DISTRACTION. */
+    public int distraction(int index) {
+        return distraction[index];
+    }
+
+    /** Distraction episodes of one type recorded for the session. */
+    public int distractionEvents(int index, DistractionType type) {
+        return distractionEvents[index * TYPES + type.code];
+    }
+
+    /** Seconds spent in distraction episodes of one type. */
+    public int distractionSeconds(int index, DistractionType type) {
+        return distractionSec[index * TYPES + type.code];
+    }
+
+    private static short localMinute(long epochMs, ZoneRules rules) {
+        long local = epochMs + rules.getOffset(Instant.ofEpochMilli(epochMs)).getTotalSeconds() * 1000L;
+        return (short) (Math.floorMod(local, 86_400_000L) / 60_000L);
+    }
+
+    /** "yyyy-MM-dd" to epoch day without SimpleDateFormat; NO_DAY if malformed. */
+    static int parseEpochDay(String date) {
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') return NO_DAY;
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) return NO_DAY;
+        return daysFromCivil(year, month, day);
+    }
+
+    /** "mm:ss" (minutes may exceed 59) to seconds; 0 if malformed. */
+    static int parseDurationSeconds(String duration) {
+        int colon = duration.indexOf(':');
+        if (colon <= 0 || colon == duration.length() - 1) return 0;
+        int mins = digits(duration, 0, colon);
+        int secs = digits(duration, colon + 1, duration.length());
+        return mins < 0 || secs < 0 ? 0 : mins * 60 + secs;
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') return -1;
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    // Proleptic Gregorian date to days since 1970-01-01 (H. Hinnant's days_from_civil)
+    static int daysFromCivil(int y, int m, int d) {
+        y -= m <= 2 ? 1 : 0;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * One bit per local calendar day (epoch day) on which the user studied. Ten years fit in
+ * 58 longs, and the current and longest streaks are found with word-level bit scans
+ * (runs of 64 days at a time) rather than by walking sessions.
+ *
+ * Days are the session's local "date" at the time it was saved, so moving to another
+ * time zone never rewrites history. It can make the newest recorded day tomorrow's date
+ * locally, which {@link #currentStreak} treats as today.
+ *
+ * Not thread-safe; AnalyticsEngine confines it to the analytics thread.
+ */
+public final class StudyDayBitmap {
+
+    /** Where the encoded bitmap lives between app runs, per user. */
+    public interface Store {
+        /** The last saved encoding, or null if there is none. */
+        String load(String username);
+
+        void save(String username, String encoded);
+    }
+
+    private static final int MAX_WORDS = 100 * 366 / 64;   // A bad date must not allocate forever
+    private static final String VERSION = "1";
+
+    // Bit b of words[i] is day (baseDay + i * 64 + b); baseDay is a multiple of 64
+    private int baseDay;
+    private long[] words = new long[0];
+    private int version;
+
+    /** Marks day as studied; false if it already was (or is absurdly far from the rest). */
+    public boolean set(int epochDay) {
+        if (!ensure(epochDay)) return false;
+        int offset = epochDay - baseDay;
+        long mask = 1L << offset;   // Shift distance is taken mod 64
+        long word = words[offset >>> 6];
+        if ((word & mask) != 0) return false;
+        words[offset >>> 6] = word | mask;
+        version++;
+        return true;
+    }
+
+    public boolean contains(int epochDay) {
+        long offset = (long) epochDay - baseDay;
+        if (offset < 0 || offset >= (long) words.length * 64) return false;
+        return (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    /** Bumped by every {@link #set} that changed something, so callers know when to save. */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Consecutive studied days ending today, or yesterday if nothing is recorded for today
+     * yet (the streak isn't broken until the day is over).
+     */
+    public int currentStreak(int todayEpochDay) {
+        if (contains(todayEpochDay + 1)) return runEndingAt(todayEpochDay + 1);
+        return runEndingAt(contains(todayEpochDay) ? todayEpochDay : todayEpochDay - 1);
+    }
+
+    /** Length of the longest run of consecutive studied days ever recorded. */
+    public int longestStreak() {
+        int best = 0;
+        int run = 0;   // Ones carried over from the top of the previous word
+        for (long w : words) {
+            if (w == -1L) {
+                run += 64;
+                continue;
+            }
+            run += Long.numberOfTrailingZeros(~w);   // Continues the previous word's run
+            best = Math.max(best, Math.max(run, longestRunIn(w)));
+            run = Long.numberOfLeadingZeros(~w);     // Carries into the next word
+        }
+        return Math.max(best, run);
+    }
+
+    private int runEndingAt(int epochDay) {
+        if (!contains(epochDay)) return 0;
+        int offset = epochDay - baseDay;
+        int index = offset >>> 6;
+        int bit = offset & 63;
+        int run = 0;
+        while (index >= 0) {
+            // Bring the day's bit to the top; the bits shifted in below are zeros
+            int ones = Long.numberOfLeadingZeros(~(words[index] << (63 - bit)));
+            run += ones;
+            if (ones <= bit) break;
+            index--;
+            bit = 63;
+        }
+        return run;
+    }
+
+    // Each step shortens every run of ones by one, so the step count is the longest run
+    private static int longestRunIn(long w) {
+        int steps = 0;
+        while (w != 0) {
+            w &= w >>> 1;
+            steps++;
+        }
+        return steps;
+    }
+
+    private boolean ensure(int epochDay) {
+        int wordDay = Math.floorDiv(epochDay, 64) * 64;
+        if (words.length == 0) {
+            baseDay = wordDay;
+            words = new long[1];
+            return true;
+        }
+        int first = Math.min(baseDay, wordDay);
+        int last = Math.max(baseDay + words.length * 64, wordDay + 64);
+        int needed = (last - first) / 64;
+        if (needed == words.length) return true;
+        if (needed > MAX_WORDS) return false;
+
+        long[] grown = new long[needed];
+        System.arraycopy(words, 0, grown, (baseDay - first) / 64, words.length);
+        words = grown;
+        baseDay = first;
+        return true;
+    }
+
+    /** Compact text form for {@link Store}: version, first day and Base64 words. */
+    public String encode() {
+        ByteBuffer bytes = ByteBuffer.allocate(words.length * 8);
+        for (long w : words) bytes.putLong(w);
+        return VERSION + ':' + baseDay + ':' + Base64.getEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    /** Empty if encoded is null or unreadable, so a corrupt value just gets rebuilt from sessions. */
+    public static StudyDayBitmap decode(String encoded) {
+        StudyDayBitmap bitmap = new StudyDayBitmap();
+        if (encoded == null) return bitmap;
+        String[] parts = encoded.split(":", -1);
+        if (parts.length != 3 || !VERSION.equals(parts[0])) return bitmap;
+        try {
+            int baseDay = Integer.parseInt(parts[1]);
+            byte[] raw = Base64.getDecoder().decode(parts[2]);
+            if (baseDay % 64 != 0 || raw.length % 8 != 0 || raw.length / 8 > MAX_WORDS) return bitmap;
+            ByteBuffer bytes = ByteBuffer.wrap(raw);
+            long[] words = new long[raw.length / 8];
+            for (int i = 0; i < words.length; i++) words[i] = bytes.getLong();
+            bitmap.baseDay = baseDay;
+            bitmap.words = words;
+        } catch (IllegalArgumentException e) {
+            // Bad number or Base64: start over
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.studytrackerbasictest.analytics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Study minutes and average focus per day, week or month over a day range, read from a
+ * {@link DayIndex} with one range query per bucket. The bucket size follows the range:
+ * days up to a year, Monday-based weeks up to five years, then calendar months.
+ *
+ * {@link #minutesPoints} and {@link #focusPoints} are the render prep: they hand the
+ * chart at most as many points as it can draw, chosen by {@link Lttb}.
+ *
+ * Immutable; built on the analytics thread and read on the UI thread.
+ */
+public final class Trend {
+
+    public enum Granularity { DAY, WEEK, MONTH }
+
+    /** Today and Week still get a month of context. */
+    public static final int MIN_DAYS = 30;
+    private static final int MAX_DAILY_DAYS = 366;
+    private static final int MAX_WEEKLY_DAYS = 5 * 366;
+
+    public final Granularity granularity;
+    private final int size;
+    private final float[] bucketStart;   // Epoch day, as the chart's x
+    private final float[] minutes;
+    private final float[] focus;         // NaN where nothing was scored
+
+    private Trend(Granularity granularity, int size, float[] bucketStart, float[] minutes, float[] focus) {
+        this.granularity = granularity;
+        this.size = size;
+        this.bucketStart = bucketStart;
+        this.minutes = minutes;
+        this.focus = focus;
+    }
+
+    /**
+     * Buckets covering firstDay..lastDay (epoch days, inclusive), widened to at least
+     * MIN_DAYS and trimmed to start no earlier than the index's first day.
+     */
+    public static Trend build(DayIndex index, int firstDay, int lastDay) {
+        firstDay = Math.min(firstDay, lastDay - MIN_DAYS + 1);
+        if (!index.isEmpty()) firstDay = Math.max(firstDay, Math.min(index.firstDay(), lastDay - MIN_DAYS + 1));
+
+        long days = (long) lastDay - firstDay + 1;
+        Granularity granularity = days <= MAX_DAILY_DAYS ? Granularity.DAY
+                : days <= MAX_WEEKLY_DAYS ? Granularity.WEEK : Granularity.MONTH;
+
+        int capacity = granularity == Granularity.DAY ? (int) days
+                : granularity == Granularity.WEEK ? (int) (days / 7) + 2 : (int) (days / 28) + 2;
+        float[] starts = new float[capacity];
+        float[] minutes = new float[capacity];
+        float[] focus = new float[capacity];
+
+        int n = 0;
+        for (int start = firstDay; start <= lastDay; n++) {
+            int next = nextBucket(granularity, start);
+            DayIndex.Totals totals = index.query(start, Math.min(next - 1, lastDay));
+            starts[n] = start;
+            minutes[n] = totals.seconds / 60f;
+            focus[n] = (float) totals.averageFocus();
+            start = next;
+        }
+        return new Trend(granularity, n, starts, minutes, focus);
+    }
+
+    // First day of the bucket after the one holding day; weeks and months align to the calendar
+    private static int nextBucket(Granularity granularity, int day) {
+        switch (granularity) {
+            case WEEK:
+                return (int) LocalDate.ofEpochDay(day).with(TemporalAdjusters.next(DayOfWeek.MONDAY)).toEpochDay();
+            case MONTH:
+                return (int) LocalDate.ofEpochDay(day).with(TemporalAdjusters.firstDayOfNextMonth()).toEpochDay();
+            default:
+                return day + 1;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** First epoch day of bucket i; the first bucket may start mid-week or mid-month. */
+    public int bucketStart(int i) {
+        return (int) bucketStart[i];
+    }
+
+    public float minutes(int i) {
+        return minutes[i];
+    }
+
+    /** 0..100, NaN if nothing in the bucket was scored. */
+    public float focus(int i) {
+        return focus[i];
+    }
+
+    /** (x = epoch day, y = minutes) pairs, interleaved, at most maxPoints of them. */
+    public float[] minutesPoints(int maxPoints) {
+        return points(bucketStart, minutes, size, maxPoints);
+    }
+
+    /** (x = epoch day, y = focus) pairs for scored buckets only, at most maxPoints of them. */
+    public float[] focusPoints(int maxPoints) {
+        float[] x = new float[size];
+        float[] y = new float[size];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (focus[i] == focus[i]) {   // Not NaN
+                x[n] = bucketStart[i];
+                y[n++] = focus[i];
+            }
+        }
+        return points(x, y, n, maxPoints);
+    }
+
+    /** Downsamples the first length points of a series with ascending x; pairs interleaved. */
+    public static float[] points(float[] x, float[] y, int length, int maxPoints) {
+        int[] kept = Lttb.select(x, y, length, maxPoints);
+        float[] pairs = new float[2 * kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            pairs[2 * i] = x[kept[i]];
+            pairs[2 * i + 1] = y[kept[i]];
+        }
+        return pairs;
+    }
+}
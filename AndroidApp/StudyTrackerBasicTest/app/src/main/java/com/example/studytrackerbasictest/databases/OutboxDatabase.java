@@ -0,0 +1,122 @@
+package com.example.studytrackerbasictest.databases;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local, durable queue of detection-server commands that could not be delivered.
+ * Rows survive process death and are drained by OutboxWorker.
+ */
+public class OutboxDatabase extends SQLiteOpenHelper {
+
+    private static final String DATABASE_NAME = "outbox.db";
+    private static final int DATABASE_VERSION = 1;
+
+    public static final String TABLE_OUTBOX = "outbox";
+    public static final String COLUMN_ID = "id";
+    public static final String COLUMN_ENDPOINT = "endpoint";
+    public static final String COLUMN_BODY = "body";
+    public static final String COLUMN_IDEMPOTENCY_KEY = "idempotency_key";
+    public static final String COLUMN_SESSION_DOC_ID = "session_doc_id";
+    public static final String COLUMN_CREATED_AT = "created_at";
+    public static final String COLUMN_ATTEMPTS = "attempts";
+
+    public OutboxDatabase(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // Idempotency key is UNIQUE so enqueueing the same command twice is a no-op
+        String CREATE_OUTBOX_TABLE = "CREATE TABLE " + TABLE_OUTBOX + " ("
+                + COLUMN_ID + " INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + COLUMN_ENDPOINT + " TEXT NOT NULL, "
+                + COLUMN_BODY + " TEXT NOT NULL, "
+                + COLUMN_IDEMPOTENCY_KEY + " TEXT UNIQUE, "
+                + COLUMN_SESSION_DOC_ID + " TEXT, "
+                + COLUMN_CREATED_AT + " INTEGER, "
+                + COLUMN_ATTEMPTS + " INTEGER DEFAULT 0)";
+        db.execSQL(CREATE_OUTBOX_TABLE);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_OUTBOX);
+        onCreate(db);
+    }
+
+    public boolean add(String endpoint, String body, String idempotencyKey, @Nullable String sessionDocId) {
+        SQLiteDatabase db = getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_ENDPOINT, endpoint);
+        values.put(COLUMN_BODY, body);
+        values.put(COLUMN_IDEMPOTENCY_KEY, idempotencyKey);
+        values.put(COLUMN_SESSION_DOC_ID, sessionDocId);
+        values.put(COLUMN_CREATED_AT, System.currentTimeMillis());
+
+        long result = db.insertWithOnConflict(TABLE_OUTBOX, null, values, SQLiteDatabase.CONFLICT_IGNORE);
+        return result != -1;
+    }
+
+    // Oldest first, so /session/stop is always retried before the /stop that followed it
+    public List<Command> pending() {
+        List<Command> commands = new ArrayList<>();
+        SQLiteDatabase db = getReadableDatabase();
+        try (Cursor cursor = db.query(TABLE_OUTBOX, null, null, null, null, null, COLUMN_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                commands.add(new Command(
+                        cursor.getLong(cursor.getColumnIndexOrThrow(COLUMN_ID)),
+                        cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_ENDPOINT)),
+                        cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_BODY)),
+                        cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_IDEMPOTENCY_KEY)),
+                        cursor.getString(cursor.getColumnIndexOrThrow(COLUMN_SESSION_DOC_ID)),
+                        cursor.getInt(cursor.getColumnIndexOrThrow(COLUMN_ATTEMPTS))));
+            }
+        }
+        return commands;
+    }
+
+    public void remove(long id) {
+        getWritableDatabase().delete(TABLE_OUTBOX, COLUMN_ID + "=?", new String[]{String.valueOf(id)});
+    }
+
+    /** Removes every queued /session/stop and /stop; returns how many there were. */
+    public int removeStops() {
+        return getWritableDatabase().delete(TABLE_OUTBOX, COLUMN_ENDPOINT + " IN (?, ?)",
+                new String[]{"/session/stop", "/stop"});
+    }
+
+    public void recordAttempt(long id) {
+        getWritableDatabase().execSQL(
+                "UPDATE " + TABLE_OUTBOX + " SET " + COLUMN_ATTEMPTS + " = " + COLUMN_ATTEMPTS + " + 1"
+                        + " WHERE " + COLUMN_ID + " = ?",
+                new Object[]{id});
+    }
+
+    public static class Command {
+        public final long id;
+        public final String endpoint;
+        public final String body;
+        public final String idempotencyKey;
+        @Nullable public final String sessionDocId;
+        public final int attempts;
+
+        Command(long id, String endpoint, String body, String idempotencyKey,
+                @Nullable String sessionDocId, int attempts) {
+            this.id = id;
+            this.endpoint = endpoint;
+            this.body = body;
+            this.idempotencyKey = idempotencyKey;
+            this.sessionDocId = sessionDocId;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -1,15 +1,27 @@
 package com.example.studytrackerbasictest.databases;
 
 import androidx.annotation.Nullable;
+
+import com.example.studytrackerbasictest.DistractionType;
+import com.example.studytrackerbasictest.SessionHistoryPager;
+import com.example.studytrackerbasictest.SessionRow;
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+import com.example.studytrackerbasictest.analytics.FocusTimeline;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.SetOptions;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
-public class SessionDatabase {
+public class SessionDatabase implements SessionHistoryPager.PageSource {
 
     private final FirebaseFirestore db;
 
@@ -28,41 +40,179 @@ public class SessionDatabase {
                 });
     }
 
-    // Unified save method for Home + Countdown
-    public void saveSession(String sessionId,
+    // Document id a session is saved under: the server session id, or a local one
+    public static String documentIdFor(@Nullable String sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return "local_" + System.currentTimeMillis();
+        }
+        return sessionId;
+    }
+
+    // Unified save method for Home + Countdown; returns the document id used
+    public String saveSession(String sessionId,
                             String date,
                             String duration,
                             String username,
                             @Nullable Double focusScore) {
+        return saveSession(sessionId, date, duration, username, focusScore, 0, 0);
+    }
 
-        if (sessionId == null || sessionId.isEmpty()) {
-            sessionId = "local_" + System.currentTimeMillis();
+    // Same, with the session's wall-clock start and end (epoch ms, 0 if unknown)
+    public String saveSession(String sessionId,
+                            String date,
+                            String duration,
+                            String username,
+                            @Nullable Double focusScore,
+                            long startedAt,
+                            long endedAt) {
+
+        String finalSessionId = documentIdFor(sessionId);
+
+        getNextSessionNumber(username, nextIndex ->
+                saveSession(finalSessionId, date, duration, username, focusScore, nextIndex, startedAt, endedAt));
+
+        return finalSessionId;
+    }
+
+    // Save when the caller already knows the session number (skips the count query)
+    public void saveSession(String docId,
+                            String date,
+                            String duration,
+                            String username,
+                            @Nullable Double focusScore,
+                            int sessionNumber,
+                            long startedAt,
+                            long endedAt) {
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("user", username);
+        data.put("date", date);
+        data.put("duration", duration);
+        data.put("name", "Session " + sessionNumber);
+
+        // Lets analytics place the session on the hours it actually covered
+        if (startedAt > 0 && endedAt > startedAt) {
+            data.put("startedAt", startedAt);
+            data.put("endedAt", endedAt);
+        }
+
+        if (focusScore != null) {
+            data.put("focusScore", focusScore);
         }
 
-        String finalSessionId = sessionId;
-
-        getNextSessionNumber(username, nextIndex -> {
-
-            Map<String, Object> data = new HashMap<>();
-            data.put("user", username);
-            data.put("date", date);
-            data.put("duration", duration);
-            data.put("name", "Session " + nextIndex);
-
-            if (focusScore != null) {
-                data.put("focusScore", focusScore);
-            }
-
-            db.collection("sessions")
-                    .document(finalSessionId)
-                    .set(data, SetOptions.merge())
-                    .addOnSuccessListener(aVoid -> {
-                        android.util.Log.d("SessionDatabase", "✅ Session saved to Firebase: " + finalSessionId);
-                    })
-                    .addOnFailureListener(e -> {
-                        android.util.Log.e("SessionDatabase", "❌ Failed to save session: " + e.getMessage());
-                    });
-        });
+        db.collection("sessions")
+                .document(docId)
+                .set(data, SetOptions.merge())
+                .addOnSuccessListener(aVoid -> {
+                    android.util.Log.d("SessionDatabase", "✅ Session saved to Firebase: " + docId);
+                })
+                .addOnFailureListener(e -> {
+                    android.util.Log.e("SessionDatabase", "❌ Failed to save session: " + e.getMessage());
+                });
+    }
+
+    // Back-fill the server's score once a queued /session/stop is finally delivered
+    public void updateFocusScore(String sessionDocId, double focusScore) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("focusScore", focusScore);
+
+        db.collection("sessions")
+                .document(sessionDocId)
+                .set(data, SetOptions.merge())
+                .addOnSuccessListener(aVoid -> {
+                    android.util.Log.d("SessionDatabase", "✅ Focus score back-filled: " + sessionDocId);
+                })
+                .addOnFailureListener(e -> {
+                    android.util.Log.e("SessionDatabase", "❌ Failed to back-fill focus score: " + e.getMessage());
+                });
+    }
+
+    // A session's focus timeline lives in a child document, so listing sessions never downloads it
+    private DocumentReference timelineDoc(String sessionDocId) {
+        return db.collection("sessions").document(sessionDocId).collection("timeline").document("focus");
+    }
+
+    // Attach the compressed per-poll timeline (FocusTimeline) to a session
+    public void saveTimeline(String sessionDocId, byte[] timeline, int samples) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("samples", samples);
+        data.put("data", Blob.fromBytes(timeline));
+
+        timelineDoc(sessionDocId)
+                .set(data)
+                .addOnSuccessListener(aVoid -> {
+                    android.util.Log.d("SessionDatabase", "✅ Timeline saved: " + sessionDocId
+                            + " (" + samples + " samples, " + timeline.length + " bytes)");
+                })
+                .addOnFailureListener(e -> {
+                    android.util.Log.e("SessionDatabase", "❌ Failed to save timeline: " + e.getMessage());
+                });
+    }
+
+    // Per-type distraction counters on the session itself, for the analytics rollups, and
+    // the episodes in a child document next to the timeline
+    public void saveDistractions(String sessionDocId, DistractionLog log) {
+        Map<String, Object> events = new HashMap<>();
+        Map<String, Object> seconds = new HashMap<>();
+        for (DistractionType type : DistractionType.values()) {
+            if (log.count(type) == 0) continue;
+            events.put(type.wireName, log.count(type));
+            seconds.put(type.wireName, (log.millis(type) + 500) / 1000);
+        }
+        Map<String, Object> counters = new HashMap<>();
+        counters.put("distractionEvents", events);
+        counters.put("distractionSeconds", seconds);
+        DistractionType top = log.top();
+        if (top != null) counters.put("topDistraction", top.wireName);
+
+        db.collection("sessions")
+                .document(sessionDocId)
+                .set(counters, SetOptions.merge())
+                .addOnFailureListener(e -> {
+                    android.util.Log.e("SessionDatabase", "❌ Failed to save distraction counters: " + e.getMessage());
+                });
+
+        List<Map<String, Object>> episodes = new ArrayList<>();
+        for (DistractionLog.Event event : log.events()) {
+            Map<String, Object> e = new HashMap<>();
+            e.put("type", event.type.wireName);
+            e.put("startedAt", event.startMs);
+            e.put("endedAt", event.endMs);
+            e.put("severity", event.severity);
+            episodes.add(e);
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("events", episodes);
+
+        db.collection("sessions").document(sessionDocId).collection("timeline").document("distractions")
+                .set(data)
+                .addOnSuccessListener(aVoid -> {
+                    android.util.Log.d("SessionDatabase", "✅ Distractions saved: " + sessionDocId
+                            + " (" + episodes.size() + " episodes)");
+                })
+                .addOnFailureListener(e -> {
+                    android.util.Log.e("SessionDatabase", "❌ Failed to save distractions: " + e.getMessage());
+                });
+    }
+
+    // Replay a session's timeline; null if it has none or it can't be read
+    public void getTimeline(String sessionDocId, Consumer<FocusTimeline> listener) {
+        timelineDoc(sessionDocId)
+                .get()
+                .addOnSuccessListener(doc -> {
+                    Blob blob = doc.getBlob("data");
+                    if (blob == null) {
+                        listener.accept(null);
+                        return;
+                    }
+                    try {
+                        listener.accept(FocusTimeline.decode(blob.toBytes()));
+                    } catch (IOException e) {
+                        android.util.Log.e("SessionDatabase", "❌ Unreadable timeline " + sessionDocId + ": " + e.getMessage());
+                        listener.accept(null);
+                    }
+                })
+                .addOnFailureListener(e -> listener.accept(null));
     }
 
     // Get all sessions for AnalyticsFragment
@@ -73,12 +223,45 @@ public class SessionDatabase {
                 .addOnSuccessListener(qs -> {
                     List<Map<String, Object>> list = new ArrayList<>();
                     for (var doc : qs.getDocuments()) {
-                        list.add(doc.getData());
+                        Map<String, Object> data = doc.getData();
+                        data.put("id", doc.getId());   // Analytics counts each session once by it
+                        list.add(data);
                     }
                     listener.onSessionsLoaded(list);
                 });
     }
 
+    /**
+     * One page of the history list, newest first. Dates are "yyyy-MM-dd", so ordering the
+     * strings orders the days; the document id breaks ties and makes the cursor unique.
+     * Needs the composite index (user asc, date desc, __name__ desc); until it exists
+     * Firestore fails the query with a link that creates it.
+     */
+    @Override
+    public void loadPage(String username, @Nullable SessionRow after, int limit,
+                         Consumer<List<SessionRow>> onLoaded) {
+        Query query = db.collection("sessions")
+                .whereEqualTo("user", username)
+                .orderBy("date", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(limit);
+        if (after != null) {
+            query = query.startAfter(after.date, after.id);
+        }
+        query.get()
+                .addOnSuccessListener(qs -> {
+                    List<SessionRow> rows = new ArrayList<>(qs.size());
+                    for (var doc : qs) {   // Query results always have data
+                        rows.add(SessionRow.from(doc.getId(), doc.getData()));
+                    }
+                    onLoaded.accept(rows);
+                })
+                .addOnFailureListener(e -> {
+                    android.util.Log.e("SessionDatabase", "❌ Failed to load session page: " + e.getMessage());
+                    onLoaded.accept(null);
+                });
+    }
+
     public interface OnSessionsLoadedListener {
         void onSessionsLoaded(List<Map<String, Object>> sessions);
     }
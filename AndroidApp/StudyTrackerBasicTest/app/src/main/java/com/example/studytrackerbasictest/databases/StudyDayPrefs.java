@@ -0,0 +1,31 @@
+package com.example.studytrackerbasictest.databases;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.studytrackerbasictest.analytics.StudyDayBitmap;
+
+/**
+ * Keeps each user's study-day bitmap in its own small prefs file, so the streak is
+ * available before (and without) a Firestore load.
+ */
+public class StudyDayPrefs implements StudyDayBitmap.Store {
+
+    private static final String PREFS_NAME = "StudyDays";
+
+    private final SharedPreferences prefs;
+
+    public StudyDayPrefs(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public String load(String username) {
+        return prefs.getString(username, null);
+    }
+
+    @Override
+    public void save(String username, String encoded) {
+        prefs.edit().putString(username, encoded).apply();
+    }
+}
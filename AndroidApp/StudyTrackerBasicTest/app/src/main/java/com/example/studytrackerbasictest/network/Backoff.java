@@ -0,0 +1,47 @@
+package com.example.studytrackerbasictest.network;
+
+import java.util.Random;
+
+/**
+ * Exponential backoff with "equal jitter": each delay is half the current
+ * exponential step plus a random share of the other half, so clients that fail
+ * together spread out but never retry with a zero delay.
+ */
+public class Backoff {
+
+    private final long baseMs;
+    private final long maxMs;
+    private final double multiplier;
+    private final Random random;
+
+    private int attempt = 0;
+
+    public Backoff(long baseMs, long maxMs) {
+        this(baseMs, maxMs, 2.0, new Random());
+    }
+
+    Backoff(long baseMs, long maxMs, double multiplier, Random random) {
+        this.baseMs = baseMs;
+        this.maxMs = maxMs;
+        this.multiplier = multiplier;
+        this.random = random;
+    }
+
+    /**
+     * Delay before the next attempt; advances the attempt counter.
+     */
+    public long nextDelayMs() {
+        double step = Math.min(maxMs, baseMs * Math.pow(multiplier, attempt));
+        if (attempt < 32) attempt++;
+        long half = (long) (step / 2);
+        return half + (long) (random.nextDouble() * (step - half));
+    }
+
+    public void reset() {
+        attempt = 0;
+    }
+
+    public int attempts() {
+        return attempt;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.studytrackerbasictest.network;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+/**
+ * Trips after a run of consecutive failures so callers stop waiting on timeouts
+ * against a server that is down. Once the cooldown has passed the next request is let
+ * through as a trial (HALF_OPEN): its success closes the breaker, its failure opens it
+ * for another cooldown. HealthProber makes sure a trial happens even with no traffic.
+ *
+ * Listeners hear CLOSED and OPEN only; a trial that fails leaves the breaker open, so
+ * it is not reported again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public interface Listener {
+        void onStateChanged(State state);
+    }
+
+    public static final long DEFAULT_COOLDOWN_MS = 1000;
+
+    private final int failureThreshold;
+    private final long cooldownMs;
+    private final LongSupplier clockMs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAtMs;   // When it opened, or when the current trial went out
+
+    public CircuitBreaker(int failureThreshold) {
+        this(failureThreshold, DEFAULT_COOLDOWN_MS, () -> System.nanoTime() / 1_000_000);
+    }
+
+    /** clockMs is any monotonic millisecond clock, e.g. SystemClock::elapsedRealtime. */
+    public CircuitBreaker(int failureThreshold, long cooldownMs, LongSupplier clockMs) {
+        this.failureThreshold = failureThreshold;
+        this.cooldownMs = cooldownMs;
+        this.clockMs = clockMs;
+    }
+
+    /**
+     * Whether a request may go out now. While open, the first call after the cooldown
+     * returns true and makes that request the trial; everyone else is refused until it
+     * reports back. A trial that never does (cancelled call) is replaced after another
+     * cooldown.
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) return true;
+        long now = clockMs.getAsLong();
+        if (now - openedAtMs < cooldownMs) return false;
+        state = State.HALF_OPEN;
+        openedAtMs = now;
+        return true;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** How long until a trial may go out; 0 when closed or already due. */
+    public synchronized long msUntilTrial() {
+        if (state == State.CLOSED) return 0;
+        return Math.max(0, openedAtMs + cooldownMs - clockMs.getAsLong());
+    }
+
+    public void recordSuccess() {
+        synchronized (this) {
+            consecutiveFailures = 0;
+            if (state == State.CLOSED) return;
+            state = State.CLOSED;
+        }
+        notifyListeners(State.CLOSED);
+    }
+
+    public void recordFailure() {
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                // Trial failed: wait out another cooldown, still open as far as listeners know
+                state = State.OPEN;
+                openedAtMs = clockMs.getAsLong();
+                return;
+            }
+            if (state == State.OPEN || consecutiveFailures < failureThreshold) return;
+            state = State.OPEN;
+            openedAtMs = clockMs.getAsLong();
+        }
+        notifyListeners(State.OPEN);
+    }
+
+    /** Forget past failures, e.g. after the server address changed. */
+    public void reset() {
+        recordSuccess();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void notifyListeners(State newState) {
+        for (Listener listener : listeners) listener.onStateChanged(newState);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.studytrackerbasictest.network;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Fails requests immediately while the breaker is open and feeds every outcome back
+ * into it. Health probes go through the same gate, so the request that reaches a
+ * recovering server is the breaker's single HALF_OPEN trial.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private final CircuitBreaker breaker;
+
+    public CircuitBreakerInterceptor(CircuitBreaker breaker) {
+        this.breaker = breaker;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        if (!breaker.allowRequest()) {
+            throw new ServerUnavailableException();
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException e) {
+            // Calls cancelled by their owner say nothing about the server's health
+            if (!chain.call().isCanceled()) breaker.recordFailure();
+            throw e;
+        }
+
+        if (response.code() >= 500) breaker.recordFailure();
+        else breaker.recordSuccess();
+        return response;
+    }
+
+    /** Thrown without touching the network while the circuit is open. */
+    public static class ServerUnavailableException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public ServerUnavailableException() {
+            super("Detection server unavailable (circuit open)");
+        }
+    }
+}
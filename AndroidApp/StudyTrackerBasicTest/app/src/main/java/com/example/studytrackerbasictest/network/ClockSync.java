@@ -0,0 +1,143 @@
+package com.example.studytrackerbasictest.network;
+
+/**
+ * NTP-style estimate of the detection server's clock, built from ordinary request/response
+ * round trips (see ClockSyncInterceptor) instead of a dedicated time protocol.
+ *
+ * Each exchange gives four timestamps: local send t0, server receive t1, server send t2,
+ * local receive t3. Its offset estimate is ((t1 - t0) + (t2 - t3)) / 2 and its error is
+ * bounded by half the network round trip, so only the lowest-RTT exchange of every small
+ * group is kept. A least-squares line through those points, weighted towards the fastest
+ * ones, gives offset and drift.
+ *
+ * Local time is a monotonic millisecond clock (SystemClock.elapsedRealtime() on device).
+ */
+public final class ClockSync {
+
+    private static final int CAPACITY = 128;
+    private static final int GROUP = 4;
+    private static final int MIN_GROUPS_FOR_DRIFT = 3;
+    private static final double RTT_FLOOR_MS = 4;    // Below this, RTT differences are just jitter
+    private static final double MAX_DRIFT = 500e-6;  // Crystal drift beyond 500 ppm means bad data
+
+    // Ring buffer of raw exchanges, oldest at head
+    private final long[] localMid = new long[CAPACITY];
+    private final double[] offsets = new double[CAPACITY];
+    private final long[] rtts = new long[CAPACITY];
+    private int head;
+    private int size;
+
+    // Current fit: offset(t) = intercept + drift * (t - reference)
+    private long reference;
+    private double intercept;
+    private double drift;
+    private long bestRtt = Long.MAX_VALUE;
+
+    /**
+     * @param localSend     t0, local clock
+     * @param serverReceive t1, server clock
+     * @param serverSend    t2, server clock
+     * @param localReceive  t3, local clock
+     */
+    public synchronized void addSample(long localSend, long serverReceive, long serverSend, long localReceive) {
+        long rtt = (localReceive - localSend) - (serverSend - serverReceive);
+        if (rtt < 0 || localReceive < localSend) return;
+
+        int slot = (head + size) % CAPACITY;
+        if (size == CAPACITY) head = (head + 1) % CAPACITY;
+        else size++;
+
+        localMid[slot] = localSend + (localReceive - localSend) / 2;
+        offsets[slot] = ((serverReceive - localSend) + (serverSend - localReceive)) / 2.0;
+        rtts[slot] = rtt;
+        refit();
+    }
+
+    public synchronized boolean isSynced() {
+        return size > 0;
+    }
+
+    /** Server clock reading corresponding to a local monotonic time. */
+    public synchronized long toServerTime(long localMs) {
+        return localMs + Math.round(offsetAt(localMs));
+    }
+
+    /** Local monotonic time corresponding to a server clock reading. */
+    public synchronized long toLocalTime(long serverMs) {
+        // Offset barely moves between the guess and the answer, so one refinement is exact enough
+        long guess = serverMs - Math.round(intercept);
+        return serverMs - Math.round(offsetAt(guess));
+    }
+
+    public synchronized double offsetMs(long localMs) {
+        return offsetAt(localMs);
+    }
+
+    public synchronized double driftPpm() {
+        return drift * 1e6;
+    }
+
+    /** Half the best round trip seen: the worst-case error of the current estimate. */
+    public synchronized long uncertaintyMs() {
+        return size == 0 ? Long.MAX_VALUE : (bestRtt + 1) / 2;
+    }
+
+    public synchronized void reset() {
+        head = 0;
+        size = 0;
+        intercept = 0;
+        drift = 0;
+        bestRtt = Long.MAX_VALUE;
+    }
+
+    private double offsetAt(long localMs) {
+        return intercept + drift * (localMs - reference);
+    }
+
+    private void refit() {
+        // Min-RTT filter: from each group of consecutive exchanges keep the fastest
+        int groups = (size + GROUP - 1) / GROUP;
+        long[] t = new long[groups];
+        double[] o = new double[groups];
+        long[] r = new long[groups];
+        bestRtt = Long.MAX_VALUE;
+
+        for (int g = 0; g < groups; g++) {
+            int best = -1;
+            for (int i = g * GROUP; i < Math.min(size, (g + 1) * GROUP); i++) {
+                int slot = (head + i) % CAPACITY;
+                if (best < 0 || rtts[slot] < rtts[best]) best = slot;
+            }
+            t[g] = localMid[best];
+            o[g] = offsets[best];
+            r[g] = rtts[best];
+            bestRtt = Math.min(bestRtt, r[g]);
+        }
+
+        // Weighted least squares; a group whose best exchange still hit a stall (all four
+        // slow) has a wide error bound and should barely move the line
+        reference = t[groups - 1];
+        double sw = 0, meanT = 0, meanO = 0;
+        double[] w = new double[groups];
+        for (int g = 0; g < groups; g++) {
+            double excess = r[g] - bestRtt + RTT_FLOOR_MS;
+            w[g] = 1.0 / (excess * excess);
+            sw += w[g];
+            meanT += w[g] * (t[g] - reference);
+            meanO += w[g] * o[g];
+        }
+        meanT /= sw;
+        meanO /= sw;
+
+        double sxx = 0, sxy = 0;
+        if (groups >= MIN_GROUPS_FOR_DRIFT) {
+            for (int g = 0; g < groups; g++) {
+                double dx = (t[g] - reference) - meanT;
+                sxx += w[g] * dx * dx;
+                sxy += w[g] * dx * (o[g] - meanO);
+            }
+        }
+        drift = sxx == 0 ? 0 : Math.max(-MAX_DRIFT, Math.min(MAX_DRIFT, sxy / sxx));
+        intercept = meanO - drift * meanT;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.studytrackerbasictest.network;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Network interceptor that turns every detection-server round trip into a {@link ClockSync}
+ * sample, using the X-Server-Received / X-Server-Sent headers the server adds.
+ *
+ * Installed as a network interceptor so the local timestamps bracket only the exchange on
+ * the wire, not queueing in the dispatcher or the circuit breaker.
+ */
+public class ClockSyncInterceptor implements Interceptor {
+
+    static final String RECEIVED_HEADER = "X-Server-Received";
+    static final String SENT_HEADER = "X-Server-Sent";
+
+    private final ClockSync clock;
+
+    public ClockSyncInterceptor(ClockSync clock) {
+        this.clock = clock;
+    }
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        long localSend = SystemClock.elapsedRealtime();
+        Response response = chain.proceed(chain.request());
+        long localReceive = SystemClock.elapsedRealtime();
+
+        String received = response.header(RECEIVED_HEADER);
+        String sent = response.header(SENT_HEADER);
+        if (received != null && sent != null) {
+            try {
+                clock.addSample(localSend, Long.parseLong(received), Long.parseLong(sent), localReceive);
+            } catch (NumberFormatException ignored) {
+                // Older server or a proxy mangling headers: just no sample
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.studytrackerbasictest.network;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.studytrackerbasictest.databases.OutboxDatabase;
+
+import org.json.JSONObject;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point for detection-server commands that must not be lost.
+ *
+ * Commands are written to OutboxDatabase and delivered by OutboxWorker once the
+ * network is available, retrying with exponential backoff. Every command carries an
+ * idempotency key so the server answers a retry with the original response.
+ */
+public class CommandOutbox {
+
+    private static final String TAG = "CommandOutbox";
+    private static final String WORK_NAME = "detection-outbox";
+    private static final long BACKOFF_SECONDS = 15;
+    private static final long MAX_JITTER_MS = 5000;
+
+    private static final Random random = new Random();
+
+    public static String newIdempotencyKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Body for /session/stop and /stop. The server answers 409 to a stop that names a
+     * session other than its current one, so a late delivery can't end a newer session.
+     */
+    public static String stopBody(@Nullable String sessionId) {
+        JSONObject obj = new JSONObject();
+        try { obj.put("sessionId", sessionId); } catch (Exception ignored) {}
+        return obj.toString();
+    }
+
+    /**
+     * Persist a command and schedule delivery.
+     *
+     * @param sessionDocId Firestore session document to back-fill with the server's
+     *                     focus score once a /session/stop finally succeeds
+     */
+    public static void enqueue(Context context, String endpoint, String body,
+                               String idempotencyKey, @Nullable String sessionDocId) {
+        Context appContext = context.getApplicationContext();
+        OutboxDatabase db = new OutboxDatabase(appContext);
+        if (db.add(endpoint, body, idempotencyKey, sessionDocId)) {
+            Log.d(TAG, "Queued " + endpoint + " (" + idempotencyKey + ")");
+        }
+        db.close();
+        schedule(appContext);
+    }
+
+    /**
+     * Drop every queued /session/stop and /stop. Called once a new session has started:
+     * anything still queued belongs to an earlier one and would only end the new session.
+     * Does database I/O; call off the main thread.
+     */
+    public static void discardStops(Context context) {
+        OutboxDatabase db = new OutboxDatabase(context.getApplicationContext());
+        int dropped = db.removeStops();
+        db.close();
+        if (dropped > 0) Log.d(TAG, "Dropped " + dropped + " queued stop(s) for an earlier session");
+    }
+
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+
+        // WorkManager's own backoff has no jitter; a random initial delay keeps
+        // several devices from hammering a recovering server in lockstep
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OutboxWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(random.nextInt((int) MAX_JITTER_MS), TimeUnit.MILLISECONDS)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+}
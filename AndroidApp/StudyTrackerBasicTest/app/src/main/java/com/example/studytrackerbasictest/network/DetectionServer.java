@@ -0,0 +1,131 @@
+package com.example.studytrackerbasictest.network;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+/**
+ * Shared access to the detection server: one OkHttpClient (and so one connection
+ * pool) for the whole app, the base URL configured in Settings, and a circuit
+ * breaker that gives screens a single connectivity state instead of per-request errors.
+ */
+public class DetectionServer {
+
+    public static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+    public static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+
+    static final String PREFS_NAME = "AppPrefs";
+    static final String KEY_IP = "server_ip";
+    static final String DEFAULT_HOST = "10.0.2.2";
+    static final int PORT = 3000;
+
+    private static final int FAILURE_THRESHOLD = 3;
+
+    /** Connectivity callbacks, always delivered on the main thread. */
+    public interface ConnectivityListener {
+        void onConnectivityChanged(boolean reachable);
+    }
+
+    private static final CircuitBreaker breaker =
+            new CircuitBreaker(FAILURE_THRESHOLD, CircuitBreaker.DEFAULT_COOLDOWN_MS, SystemClock::elapsedRealtime);
+    private static final ClockSync clock = new ClockSync();
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static Context appContext;
+    private static OkHttpClient client;
+
+    /** Called once from StudyTrackerApplication. */
+    public static synchronized void init(Context context) {
+        if (appContext != null) return;
+        appContext = context.getApplicationContext();
+        breaker.addListener(new HealthProber(breaker, DetectionServer::client, () -> baseUrl(appContext)));
+    }
+
+    public static synchronized OkHttpClient client() {
+        if (client == null) {
+            client = new OkHttpClient.Builder()
+                    .addInterceptor(new CircuitBreakerInterceptor(breaker))
+                    .addNetworkInterceptor(new ClockSyncInterceptor(clock))
+                    .eventListenerFactory(NetworkMetrics.FACTORY)
+                    .build();
+        }
+        return client;
+    }
+
+    public static String baseUrl(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String savedIp = prefs.getString(KEY_IP, "");
+        return "http://" + (savedIp.isEmpty() ? DEFAULT_HOST : savedIp) + ":" + PORT;
+    }
+
+    /**
+     * Offset/drift estimate of the server clock, refined by every request on {@link #client()}.
+     */
+    public static ClockSync clock() {
+        return clock;
+    }
+
+    /**
+     * Convert a SystemClock.elapsedRealtime() reading to the server's clock (epoch ms), the
+     * common timebase for phone and camera events. Falls back to this device's wall clock
+     * until the first round trip has been measured.
+     */
+    public static long toServerTime(long elapsedRealtimeMs) {
+        if (clock.isSynced()) return clock.toServerTime(elapsedRealtimeMs);
+        return System.currentTimeMillis() - SystemClock.elapsedRealtime() + elapsedRealtimeMs;
+    }
+
+    public static long serverTimeNow() {
+        return toServerTime(SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * When the server produced this response, as a SystemClock.elapsedRealtime() value: its
+     * send stamp mapped back through {@link #clock()}, or the arrival time if it has none.
+     */
+    public static long producedAt(Response response) {
+        String sent = response.header(ClockSyncInterceptor.SENT_HEADER);
+        if (sent != null && clock.isSynced()) {
+            try {
+                return Math.min(clock.toLocalTime(Long.parseLong(sent)), SystemClock.elapsedRealtime());
+            } catch (NumberFormatException ignored) {}
+        }
+        return SystemClock.elapsedRealtime();
+    }
+
+    /** False while the breaker is open or its trial request is still out. */
+    public static boolean isReachable() {
+        return breaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    /** Forget past failures, e.g. after the user entered a new server address. */
+    public static void resetConnectivity() {
+        breaker.reset();
+    }
+
+    /**
+     * Register for connectivity changes; the returned Connection can be handed to a
+     * LifecycleSubscriptionManager so the listener is only attached while visible.
+     */
+    public static LifecycleSubscriptionManager.Connection connectivity(ConnectivityListener listener) {
+        CircuitBreaker.Listener bridge = state ->
+                mainHandler.post(() -> listener.onConnectivityChanged(state == CircuitBreaker.State.CLOSED));
+
+        return new LifecycleSubscriptionManager.Connection() {
+            @Override
+            public void open() {
+                breaker.addListener(bridge);
+            }
+
+            @Override
+            public void close(String reason) {
+                breaker.removeListener(bridge);
+            }
+        };
+    }
+}
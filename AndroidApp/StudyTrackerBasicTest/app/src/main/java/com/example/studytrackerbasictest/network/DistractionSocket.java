@@ -0,0 +1,211 @@
+package com.example.studytrackerbasictest.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+
+/**
+ * Self-healing client for the detection server's /ws distraction channel.
+ *
+ * - Reconnects with jittered exponential backoff whenever the socket drops.
+ * - Uses WebSocket pings; a missed pong fails the socket and triggers a reconnect.
+ * - Speaks protocol v2 ({"seq":N,"state":"ON"}), remembering the last sequence
+ *   number so the server can replay anything missed while disconnected.
+ * - Asks for compact binary event frames (see TelemetryCodec); servers that don't
+ *   support them keep sending JSON text.
+ *   Bare "ON"/"OFF" frames from older servers are still understood.
+ *
+ * All state is confined to the main thread; OkHttp callbacks are posted there.
+ */
+public class DistractionSocket extends WebSocketListener implements LifecycleSubscriptionManager.Connection {
+
+    private static final String TAG = "DistractionSocket";
+    private static final long PING_INTERVAL_MS = 10000;
+    private static final long RECONNECT_BASE_MS = 500;
+    private static final long RECONNECT_MAX_MS = 30000;
+
+    public interface Listener {
+        void onDistractionChanged(boolean distracted);
+
+        default void onConnectionChanged(boolean connected) {}
+    }
+
+    private final OkHttpClient client;
+    private final String wsUrl;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Backoff backoff = new Backoff(RECONNECT_BASE_MS, RECONNECT_MAX_MS);
+    private final Runnable reconnect = this::connect;
+
+    private WebSocket webSocket;
+    private boolean wanted = false;
+    private long lastSeq = 0;
+    @Nullable private String epoch;
+    private long droppedAtMs = 0;
+    private int reconnectCount = 0;
+
+    /**
+     * @param baseUrl detection server base URL, e.g. "http://192.168.1.20:3000"
+     */
+    public DistractionSocket(OkHttpClient client, String baseUrl, Listener listener) {
+        this.client = client.newBuilder()
+                .pingInterval(PING_INTERVAL_MS, TimeUnit.MILLISECONDS)
+                .build();
+        this.wsUrl = baseUrl.replace("http://", "ws://") + "/ws";
+        this.listener = listener;
+    }
+
+    @Override
+    public void open() {
+        if (wanted) return;
+        wanted = true;
+        connect();
+    }
+
+    @Override
+    public void close(String reason) {
+        wanted = false;
+        handler.removeCallbacks(reconnect);
+        if (webSocket != null) {
+            webSocket.close(1000, reason);
+            webSocket = null;
+        }
+    }
+
+    public int getReconnectCount() {
+        return reconnectCount;
+    }
+
+    private void connect() {
+        if (!wanted || webSocket != null) return;
+
+        String url = wsUrl + "?proto=2&enc=bin&since=" + lastSeq + (epoch != null ? "&epoch=" + epoch : "");
+        Request request = new Request.Builder().url(url).build();
+        webSocket = client.newWebSocket(request, this);
+    }
+
+    private void scheduleReconnect() {
+        webSocket = null;
+        if (!wanted) return;
+
+        if (droppedAtMs == 0) {
+            droppedAtMs = SystemClock.elapsedRealtime();
+            listener.onConnectionChanged(false);
+        }
+        long delay = backoff.nextDelayMs();
+        Log.d(TAG, "Reconnecting in " + delay + "ms (attempt " + backoff.attempts() + ")");
+        handler.postDelayed(reconnect, delay);
+    }
+
+    private void handleMessage(String text) {
+        // Legacy servers broadcast bare strings without sequence numbers
+        if ("ON".equals(text) || "OFF".equals(text)) {
+            listener.onDistractionChanged("ON".equals(text));
+            return;
+        }
+
+        try {
+            JSONObject json = new JSONObject(text);
+            if ("hello".equals(json.optString("type"))) {
+                String serverEpoch = json.optString("epoch", null);
+                if (serverEpoch != null && !serverEpoch.equals(epoch)) {
+                    // First connect, or the server restarted: nothing is replayed, and alerts
+                    // count from its current position so the backlog never fires as new
+                    epoch = serverEpoch;
+                    lastSeq = json.optLong("seq", 0);
+                }
+                return;
+            }
+
+            deliver(json.optLong("seq", 0), "ON".equals(json.optString("state")));
+        } catch (Exception e) {
+            Log.e(TAG, "Ignoring malformed frame: " + e.getMessage());
+        }
+    }
+
+    private void handleMessage(byte[] frame) {
+        if (!TelemetryCodec.isEventFrame(frame)) return;
+        try {
+            deliver(TelemetryCodec.eventSeq(frame), TelemetryCodec.eventState(frame));
+        } catch (IOException e) {
+            Log.e(TAG, "Ignoring malformed frame: " + e.getMessage());
+        }
+    }
+
+    private void deliver(long seq, boolean distracted) {
+        if (seq <= lastSeq) return; // Already delivered before the reconnect
+        if (lastSeq > 0 && seq > lastSeq + 1) {
+            Log.w(TAG, "Missed events " + (lastSeq + 1) + ".." + (seq - 1) + " (outside replay window)");
+        }
+        lastSeq = seq;
+        listener.onDistractionChanged(distracted);
+    }
+
+    // ---------- WebSocketListener (OkHttp threads) ----------
+
+    @Override
+    public void onOpen(@NonNull WebSocket ws, @NonNull Response response) {
+        handler.post(() -> {
+            if (ws != webSocket) return;
+            backoff.reset();
+            if (droppedAtMs != 0) {
+                reconnectCount++;
+                Log.d(TAG, "Reconnected after " + (SystemClock.elapsedRealtime() - droppedAtMs) + "ms");
+                droppedAtMs = 0;
+            }
+            listener.onConnectionChanged(true);
+        });
+    }
+
+    @Override
+    public void onMessage(@NonNull WebSocket ws, @NonNull String text) {
+        handler.post(() -> {
+            if (ws == webSocket) handleMessage(text);
+        });
+    }
+
+    @Override
+    public void onMessage(@NonNull WebSocket ws, @NonNull ByteString bytes) {
+        byte[] frame = bytes.toByteArray();
+        handler.post(() -> {
+            if (ws == webSocket) handleMessage(frame);
+        });
+    }
+
+    @Override
+    public void onClosing(@NonNull WebSocket ws, int code, @NonNull String reason) {
+        ws.close(1000, null);
+    }
+
+    @Override
+    public void onClosed(@NonNull WebSocket ws, int code, @NonNull String reason) {
+        handler.post(() -> {
+            if (ws == webSocket) scheduleReconnect();
+        });
+    }
+
+    @Override
+    public void onFailure(@NonNull WebSocket ws, @NonNull Throwable t, @Nullable Response response) {
+        handler.post(() -> {
+            if (ws != webSocket) return;
+            Log.w(TAG, "Socket failed: " + t.getMessage());
+            scheduleReconnect();
+        });
+    }
+}
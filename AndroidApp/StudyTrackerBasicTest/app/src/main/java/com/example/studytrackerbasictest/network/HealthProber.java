@@ -0,0 +1,90 @@
+package com.example.studytrackerbasictest.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * While the breaker is open, polls the server's /status endpoint with backoff so a
+ * trial request goes out even when nothing else is calling. Probes use the breaker's
+ * own client: the interceptor makes each one the HALF_OPEN trial and records its
+ * outcome, closing the breaker on the first healthy answer.
+ */
+class HealthProber implements CircuitBreaker.Listener {
+
+    private static final String TAG = "HealthProber";
+
+    private final CircuitBreaker breaker;
+    private final Supplier<OkHttpClient> client;
+    private final Supplier<String> baseUrl;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Backoff backoff = new Backoff(1000, 30000);
+    private final Runnable probe = this::probe;
+
+    HealthProber(CircuitBreaker breaker, Supplier<OkHttpClient> client, Supplier<String> baseUrl) {
+        this.breaker = breaker;
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public void onStateChanged(CircuitBreaker.State state) {
+        handler.post(() -> {
+            handler.removeCallbacks(probe);
+            if (state == CircuitBreaker.State.OPEN) {
+                backoff.reset();
+                scheduleProbe();
+            }
+        });
+    }
+
+    private void scheduleProbe() {
+        handler.removeCallbacks(probe);
+        // No sooner than the breaker will accept a trial, or the probe is refused locally
+        handler.postDelayed(probe, Math.max(backoff.nextDelayMs(), breaker.msUntilTrial()));
+    }
+
+    /** Probe again unless this one (or another trial) closed the breaker. */
+    private void probeAgainIfOpen() {
+        handler.post(() -> {
+            if (breaker.getState() != CircuitBreaker.State.CLOSED) scheduleProbe();
+        });
+    }
+
+    private void probe() {
+        if (breaker.getState() == CircuitBreaker.State.CLOSED) return;
+
+        Request request = new Request.Builder()
+                .url(baseUrl.get() + "/status")
+                .get()
+                .build();
+
+        client.get().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                probeAgainIfOpen();
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+                if (breaker.getState() == CircuitBreaker.State.CLOSED) {
+                    Log.d(TAG, "✅ Detection server reachable again");
+                } else {
+                    probeAgainIfOpen();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.studytrackerbasictest.network;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory latency histogram with HDR-style log-linear buckets.
+ *
+ * Values (microseconds) below 32 get exact buckets; above that every power of two is
+ * split into 16 linear sub-buckets, so any reported percentile is within 1/16 (~6%)
+ * of the true value. 544 counters cover up to ~19 hours; larger values are clamped.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;      // 16 per power of two
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;           // exact below 32
+    private static final int MAX_EXPONENT = 36;
+    static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long valueUs) {
+        long value = Math.max(0, Math.min(valueUs, MAX_VALUE));
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile 0..100
+     * @return upper bound of the bucket holding that rank, capped at the exact max
+     */
+    public long percentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(highestEquivalent(i), max);
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static long lowestEquivalent(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        int sub = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << shift;
+    }
+
+    static long highestEquivalent(int index) {
+        return index + 1 < BUCKETS ? lowestEquivalent(index + 1) - 1 : MAX_VALUE;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.studytrackerbasictest.network;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+
+/**
+ * Scopes polling loops, in-flight OkHttp calls and long-lived connections (such as
+ * DistractionSocket) to a LifecycleOwner.
+ *
+ * While the owner is STARTED polls run at their foreground rate. After onStop they
+ * drop to their background rate (0 = suspended until onStart), connections are closed,
+ * and in onDestroy every outstanding call is cancelled.
+ */
+public class LifecycleSubscriptionManager implements DefaultLifecycleObserver {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final List<Poll> polls = new ArrayList<>();
+    private final List<Connection> connections = new ArrayList<>();
+    private final Set<Call> inFlight = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    private boolean foreground;
+    private volatile boolean destroyed;
+
+    public LifecycleSubscriptionManager(LifecycleOwner owner) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        foreground = lifecycle.getCurrentState().isAtLeast(Lifecycle.State.STARTED);
+        lifecycle.addObserver(this);
+    }
+
+    /**
+     * Register a repeating task. It first runs when the owner reaches STARTED
+     * (immediately if it already has).
+     */
+    public Poll poll(Runnable task, long foregroundIntervalMs, long backgroundIntervalMs) {
+        Poll poll = new Poll(task, foregroundIntervalMs, backgroundIntervalMs);
+        polls.add(poll);
+        if (foreground) poll.schedule(0);
+        return poll;
+    }
+
+    /**
+     * Register a long-lived connection that is open only while the owner is STARTED.
+     */
+    public <T extends Connection> T connect(T connection) {
+        connections.add(connection);
+        if (foreground) connection.open();
+        return connection;
+    }
+
+    /**
+     * Enqueue a call that is cancelled if the owner is destroyed before it completes.
+     */
+    public void enqueue(Call call, Callback callback) {
+        if (destroyed) {
+            call.cancel();
+            return;
+        }
+        inFlight.add(call);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call c, @NonNull IOException e) {
+                inFlight.remove(c);
+                if (!destroyed) callback.onFailure(c, e);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call c, @NonNull Response response) throws IOException {
+                inFlight.remove(c);
+                if (destroyed) {
+                    response.close();
+                    return;
+                }
+                callback.onResponse(c, response);
+            }
+        });
+    }
+
+    public boolean isForeground() {
+        return foreground;
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        foreground = true;
+        for (Poll poll : polls) poll.schedule(0);
+        for (Connection connection : connections) connection.open();
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        foreground = false;
+        for (Poll poll : polls) poll.schedule(poll.backgroundIntervalMs);
+        for (Connection connection : connections) connection.close("Owner stopped");
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        destroyed = true;
+        owner.getLifecycle().removeObserver(this);
+        handler.removeCallbacksAndMessages(null);
+        for (Connection connection : connections) connection.close("Owner destroyed");
+        for (Call call : inFlight) call.cancel();
+        inFlight.clear();
+        polls.clear();
+        connections.clear();
+    }
+
+    /**
+     * A repeating task whose rate follows the owner's visibility.
+     */
+    public class Poll implements Runnable {
+        private final Runnable task;
+        private final long foregroundIntervalMs;
+        private final long backgroundIntervalMs;
+        private boolean paused = false;
+
+        Poll(Runnable task, long foregroundIntervalMs, long backgroundIntervalMs) {
+            this.task = task;
+            this.foregroundIntervalMs = foregroundIntervalMs;
+            this.backgroundIntervalMs = backgroundIntervalMs;
+        }
+
+        @Override
+        public void run() {
+            if (paused || destroyed) return;
+            task.run();
+            schedule(foreground ? foregroundIntervalMs : backgroundIntervalMs);
+        }
+
+        /** Stop running until {@link #resume()}, regardless of lifecycle. */
+        public void pause() {
+            paused = true;
+            handler.removeCallbacks(this);
+        }
+
+        public void resume() {
+            paused = false;
+            schedule(foreground ? 0 : backgroundIntervalMs);
+        }
+
+        void schedule(long delayMs) {
+            handler.removeCallbacks(this);
+            if (paused || destroyed) return;
+            if (!foreground && backgroundIntervalMs <= 0) return;
+            handler.postDelayed(this, delayMs);
+        }
+    }
+
+    /**
+     * Something that can be opened on onStart and closed on onStop.
+     */
+    public interface Connection {
+        void open();
+        void close(String reason);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.studytrackerbasictest.network;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/**
+ * Per-endpoint latency for every call on DetectionServer.client(), fed by an OkHttp
+ * EventListener: DNS, TCP connect, TLS, time to first byte (request sent to response
+ * headers) and total call time, each in a fixed-size {@link LatencyHistogram}, plus
+ * error and connection-reuse counters.
+ *
+ * Read it with {@link #dump()} (logcat / NetworkDebugActivity).
+ */
+public final class NetworkMetrics {
+
+    /** Installed on the shared client; WebSocket upgrades are left out (they never "end"). */
+    public static final EventListener.Factory FACTORY = call -> {
+        String path = call.request().url().encodedPath();
+        return "/ws".equals(path) ? EventListener.NONE : new CallTimer(path);
+    };
+
+    private static final Map<String, EndpointStats> endpoints = new TreeMap<>();
+
+    private NetworkMetrics() {}
+
+    private static EndpointStats statsFor(String endpoint) {
+        synchronized (endpoints) {
+            EndpointStats stats = endpoints.get(endpoint);
+            if (stats == null) {
+                stats = new EndpointStats();
+                endpoints.put(endpoint, stats);
+            }
+            return stats;
+        }
+    }
+
+    public static void reset() {
+        synchronized (endpoints) {
+            endpoints.clear();
+        }
+    }
+
+    /** Human-readable p50/p95/p99 per endpoint and phase, error rate and connection reuse. */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        synchronized (endpoints) {
+            if (endpoints.isEmpty()) return "No requests recorded yet\n";
+            for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+                entry.getValue().appendTo(sb, entry.getKey());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static final class EndpointStats {
+        final LatencyHistogram total = new LatencyHistogram();
+        final LatencyHistogram ttfb = new LatencyHistogram();
+        final LatencyHistogram dns = new LatencyHistogram();
+        final LatencyHistogram connect = new LatencyHistogram();
+        final LatencyHistogram tls = new LatencyHistogram();
+        long calls;
+        long failures;
+        long rejected;
+        long reused;
+        long acquired;
+
+        synchronized void record(CallTimer t, boolean failed, boolean shortCircuited) {
+            calls++;
+            if (shortCircuited) {
+                // Breaker open: no network was touched, so no timings either
+                rejected++;
+                return;
+            }
+            if (failed) failures++;
+            total.record(t.totalUs);
+            if (t.ttfbUs >= 0) ttfb.record(t.ttfbUs);
+            if (t.dnsUs >= 0) dns.record(t.dnsUs);
+            if (t.connectUs >= 0) connect.record(t.connectUs);
+            if (t.tlsUs >= 0) tls.record(t.tlsUs);
+            if (t.acquired) {
+                acquired++;
+                if (t.connectStartNs == 0) reused++;
+            }
+        }
+
+        synchronized void appendTo(StringBuilder sb, String endpoint) {
+            long attempted = calls - rejected;
+            sb.append(endpoint).append('\n');
+            sb.append(String.format(Locale.US, "  calls=%d  errors=%.1f%%  rejected=%d  reuse=%.0f%%%n",
+                    calls,
+                    attempted == 0 ? 0.0 : 100.0 * failures / attempted,
+                    rejected,
+                    acquired == 0 ? 0.0 : 100.0 * reused / acquired));
+            appendPhase(sb, "total", total);
+            appendPhase(sb, "ttfb", ttfb);
+            appendPhase(sb, "dns", dns);
+            appendPhase(sb, "connect", connect);
+            appendPhase(sb, "tls", tls);
+        }
+
+        private static void appendPhase(StringBuilder sb, String name, LatencyHistogram h) {
+            if (h.count() == 0) return;
+            sb.append(String.format(Locale.US, "  %-8s n=%-5d p50=%s p95=%s p99=%s max=%s%n",
+                    name, h.count(),
+                    ms(h.percentile(50)), ms(h.percentile(95)), ms(h.percentile(99)), ms(h.max())));
+        }
+
+        private static String ms(long us) {
+            return String.format(Locale.US, "%.1fms", us / 1000.0);
+        }
+    }
+
+    /** One per call; OkHttp delivers a call's events sequentially. */
+    private static final class CallTimer extends EventListener {
+        private final String endpoint;
+
+        long callStartNs;
+        long dnsStartNs;
+        long connectStartNs;
+        long tlsStartNs;
+        long requestStartNs;
+        long dnsUs = -1;
+        long connectUs = -1;
+        long tlsUs = -1;
+        long ttfbUs = -1;
+        long totalUs;
+        boolean acquired;
+
+        CallTimer(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        private static long sinceUs(long startNs) {
+            return (System.nanoTime() - startNs) / 1000;
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            callStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+            dnsStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> addresses) {
+            dnsUs = sinceUs(dnsStartNs);
+        }
+
+        @Override
+        public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+            connectStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectStart(@NonNull Call call) {
+            tlsStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(@NonNull Call call, @Nullable Handshake handshake) {
+            tlsUs = sinceUs(tlsStartNs);
+        }
+
+        @Override
+        public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address,
+                               @NonNull Proxy proxy, @Nullable Protocol protocol) {
+            connectUs = sinceUs(connectStartNs);
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            acquired = true;
+        }
+
+        @Override
+        public void requestHeadersStart(@NonNull Call call) {
+            requestStartNs = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(@NonNull Call call) {
+            if (requestStartNs != 0) ttfbUs = sinceUs(requestStartNs);
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            finish(false, false);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException e) {
+            finish(true, e instanceof CircuitBreakerInterceptor.ServerUnavailableException);
+        }
+
+        private void finish(boolean failed, boolean shortCircuited) {
+            totalUs = sinceUs(callStartNs);
+            statsFor(endpoint).record(this, failed, shortCircuited);
+        }
+    }
+}
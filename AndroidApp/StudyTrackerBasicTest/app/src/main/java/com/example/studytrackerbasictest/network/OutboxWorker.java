@@ -0,0 +1,108 @@
+package com.example.studytrackerbasictest.network;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.studytrackerbasictest.PhoneDistractions;
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+import com.example.studytrackerbasictest.databases.OutboxDatabase;
+import com.example.studytrackerbasictest.databases.SessionDatabase;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Drains OutboxDatabase in order. Delivered commands are removed; if the server is
+ * still unreachable the worker asks WorkManager to retry with backoff.
+ */
+public class OutboxWorker extends Worker {
+
+    private static final String TAG = "OutboxWorker";
+    private static final int MAX_ATTEMPTS = 20;
+
+    public OutboxWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        OutboxDatabase db = new OutboxDatabase(getApplicationContext());
+        String baseUrl = DetectionServer.baseUrl(getApplicationContext());
+        boolean retry = false;
+
+        try {
+            List<OutboxDatabase.Command> commands = db.pending();
+            for (OutboxDatabase.Command command : commands) {
+                if (command.attempts >= MAX_ATTEMPTS) {
+                    Log.w(TAG, "Giving up on " + command.endpoint + " after " + command.attempts + " attempts");
+                    db.remove(command.id);
+                    continue;
+                }
+
+                db.recordAttempt(command.id);
+                Request request = new Request.Builder()
+                        .url(baseUrl + command.endpoint)
+                        .header(DetectionServer.IDEMPOTENCY_HEADER, command.idempotencyKey)
+                        .post(RequestBody.create(command.body, DetectionServer.JSON))
+                        .build();
+
+                try (Response response = DetectionServer.client().newCall(request).execute()) {
+                    if (response.code() >= 500) {
+                        retry = true;
+                        // Keep order: later commands (e.g. /stop) wait for this one
+                        break;
+                    }
+                    if (response.isSuccessful()) {
+                        onDelivered(command, response.body().string());
+                    } else if (response.code() == 409) {
+                        Log.d(TAG, command.endpoint + " was for a session that is no longer current, dropping");
+                    } else {
+                        Log.w(TAG, command.endpoint + " rejected with HTTP " + response.code() + ", dropping");
+                    }
+                    db.remove(command.id);
+                } catch (IOException e) {
+                    Log.d(TAG, command.endpoint + " still unreachable: " + e.getMessage());
+                    retry = true;
+                    break;
+                }
+            }
+        } finally {
+            db.close();
+        }
+
+        return retry ? Result.retry() : Result.success();
+    }
+
+    private void onDelivered(OutboxDatabase.Command command, String body) {
+        Log.d(TAG, "✅ Delivered " + command.endpoint + " (" + command.idempotencyKey + ")");
+        if (command.sessionDocId == null) return;
+
+        try {
+            JSONObject json = new JSONObject(body);
+            SessionDatabase db = new SessionDatabase();
+            if (json.has("focusScore")) {
+                double focusScore = json.getDouble("focusScore");
+                db.updateFocusScore(command.sessionDocId, focusScore);
+            }
+            DistractionLog distractions = SessionPipeline.distractionsFrom(json);
+            DistractionLog phone = PhoneDistractions.unpark(command.sessionDocId);
+            if (distractions != null) {
+                db.saveDistractions(command.sessionDocId,
+                        phone != null ? DistractionLog.merge(distractions, phone) : distractions);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Could not back-fill session results: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.studytrackerbasictest.network;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.studytrackerbasictest.IPHelper;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Finds the detection server on the local network by probing port 3000 /status on
+ * every host of the phone's /24 concurrently. The last server found is asked first and
+ * kept while it answers; otherwise the first host that answers like a detection server
+ * wins. The result is saved as the server IP and revalidated on next launch.
+ */
+public class ServerDiscovery {
+
+    private static final String TAG = "ServerDiscovery";
+    static final String KEY_AUTO_DISCOVER = "server_auto_discover";
+
+    // 64 probes in flight with a 300ms connect timeout sweeps a /24 in ~4 rounds
+    private static final int PARALLELISM = 64;
+    private static final long CONNECT_TIMEOUT_MS = 300;
+    private static final long CALL_TIMEOUT_MS = 600;
+
+    public interface Callback {
+        void onServerFound(String host);
+
+        void onNotFound();
+    }
+
+    /** Sweeps the phone's subnet, saving what it finds; results are delivered on the main thread. */
+    public static void discover(Context context, Callback callback) {
+        Context appContext = context.getApplicationContext();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        SharedPreferences prefs = appContext.getSharedPreferences(DetectionServer.PREFS_NAME, Context.MODE_PRIVATE);
+
+        List<String> hosts = IPHelper.subnetHosts(IPHelper.getIPAddress());
+        String cached = prefs.getString(DetectionServer.KEY_IP, "");
+        int hostCount = hosts.size();
+        long startedAt = SystemClock.elapsedRealtime();
+
+        scan(newScanner(), cached, hosts, DetectionServer.PORT, new Callback() {
+            @Override
+            public void onServerFound(String host) {
+                save(appContext, host);
+                Log.d(TAG, "✅ Found detection server at " + host + " in "
+                        + (SystemClock.elapsedRealtime() - startedAt) + "ms");
+                mainHandler.post(() -> callback.onServerFound(host));
+            }
+
+            @Override
+            public void onNotFound() {
+                Log.d(TAG, "No detection server among " + hostCount + " hosts ("
+                        + (SystemClock.elapsedRealtime() - startedAt) + "ms)");
+                mainHandler.post(callback::onNotFound);
+            }
+        });
+    }
+
+    /**
+     * Looks for a detection server on port among hosts. The preferred host (the last one
+     * found) is asked on its own first and wins whenever it answers, so a second server on
+     * the network can't take over just by answering sooner; only if it doesn't are the
+     * others swept concurrently, first answer winning. Exactly one callback, on an OkHttp
+     * thread; the scanner is shut down afterwards.
+     */
+    static void scan(OkHttpClient scanner, String preferred, List<String> hosts, int port, Callback callback) {
+        List<String> others = new ArrayList<>(hosts);
+        if (preferred != null && others.remove(preferred)) {
+            probe(scanner, preferred, port, isServer -> {
+                if (isServer) {
+                    scanner.dispatcher().executorService().shutdown();
+                    callback.onServerFound(preferred);
+                } else {
+                    sweep(scanner, others, port, callback);
+                }
+            });
+        } else {
+            sweep(scanner, others, port, callback);
+        }
+    }
+
+    private static void sweep(OkHttpClient scanner, List<String> hosts, int port, Callback callback) {
+        if (hosts.isEmpty()) {
+            scanner.dispatcher().executorService().shutdown();
+            callback.onNotFound();
+            return;
+        }
+
+        AtomicBoolean done = new AtomicBoolean(false);
+        AtomicInteger remaining = new AtomicInteger(hosts.size());
+        for (String host : hosts) {
+            probe(scanner, host, port, isServer -> {
+                if (isServer && done.compareAndSet(false, true)) {
+                    scanner.dispatcher().cancelAll();
+                    scanner.dispatcher().executorService().shutdown();
+                    callback.onServerFound(host);
+                } else if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                    scanner.dispatcher().executorService().shutdown();
+                    callback.onNotFound();
+                }
+            });
+        }
+    }
+
+    /**
+     * On startup: if the saved address came from discovery, check it still answers
+     * and rediscover if not. Manually entered addresses are left alone.
+     */
+    public static void revalidate(Context context) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences prefs = appContext.getSharedPreferences(DetectionServer.PREFS_NAME, Context.MODE_PRIVATE);
+        String cached = prefs.getString(DetectionServer.KEY_IP, "");
+        if (!prefs.getBoolean(KEY_AUTO_DISCOVER, false) || cached.isEmpty()) return;
+
+        probe(newScanner(), cached, DetectionServer.PORT, isServer -> {
+            if (isServer) return;
+            Log.d(TAG, "Cached server " + cached + " stopped answering, rediscovering");
+            discover(appContext, new Callback() {
+                @Override
+                public void onServerFound(String host) {}
+
+                @Override
+                public void onNotFound() {}
+            });
+        });
+    }
+
+    /** Remember that the current address was entered by hand. */
+    public static void markManual(Context context) {
+        context.getSharedPreferences(DetectionServer.PREFS_NAME, Context.MODE_PRIVATE)
+                .edit().putBoolean(KEY_AUTO_DISCOVER, false).apply();
+    }
+
+    private interface ProbeResult {
+        void onResult(boolean isServer);
+    }
+
+    static OkHttpClient newScanner() {
+        // Separate from DetectionServer.client(): scan failures must not trip the breaker
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(PARALLELISM);
+        dispatcher.setMaxRequestsPerHost(1);
+
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectTimeout(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .callTimeout(CALL_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    private static void probe(OkHttpClient scanner, String host, int port, ProbeResult result) {
+        Request request = new Request.Builder()
+                .url("http://" + host + ":" + port + "/status")
+                .get()
+                .build();
+
+        scanner.newCall(request).enqueue(new okhttp3.Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                result.onResult(false);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                boolean isServer = false;
+                try (Response r = response) {
+                    // Our /status always reports whether the vision process is running
+                    isServer = r.isSuccessful() && new JSONObject(r.body().string()).has("running");
+                } catch (Exception ignored) {}
+                result.onResult(isServer);
+            }
+        });
+    }
+
+    private static void save(Context context, String host) {
+        context.getSharedPreferences(DetectionServer.PREFS_NAME, Context.MODE_PRIVATE)
+                .edit()
+                .putString(DetectionServer.KEY_IP, host)
+                .putBoolean(KEY_AUTO_DISCOVER, true)
+                .apply();
+        DetectionServer.resetConnectivity();
+    }
+}
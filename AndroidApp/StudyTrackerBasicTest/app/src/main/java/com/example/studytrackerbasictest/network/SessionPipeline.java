@@ -0,0 +1,323 @@
+package com.example.studytrackerbasictest.network;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.studytrackerbasictest.DistractionType;
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Starts and stops a focus session as one ordered request chain on the shared client.
+ *
+ * Start: /session/start -> /start (time to start is logged from the Start tap; the time
+ * to the first stats on screen is logged by SessionStatsPoller). A start that fails or
+ * times out once the server session exists is stopped again, so no session or camera is
+ * left running that the caller doesn't know about. Stop: /session/stop -> /stop, with
+ * whatever didn't get through handed to CommandOutbox in the same order. Each chain runs
+ * under one deadline and reports exactly once.
+ *
+ * {@link #prewarm(Context)} opens a pooled connection while the session screen is
+ * shown, so the Start tap doesn't pay for TCP setup.
+ */
+public class SessionPipeline {
+
+    private static final String TAG = "SessionPipeline";
+    private static final long START_TIMEOUT_MS = 8000;
+    private static final long STOP_TIMEOUT_MS = 8000;
+
+    /** Called once on the main thread. */
+    public interface StartCallback {
+        /**
+         * @param ok        false if a step failed or the chain timed out
+         * @param sessionId server session id, if the server created one
+         */
+        void onStarted(boolean ok, @Nullable String sessionId);
+    }
+
+    public interface StopCallback {
+        /**
+         * Called on the main thread as the chain begins, so saving can start right away.
+         *
+         * @param sessionId server session id from the matching start, if any
+         * @return Firestore doc id the session is saved under, used to back-fill the
+         *         score if /session/stop has to be retried from the outbox; may be null
+         */
+        @Nullable String onStopping(@Nullable String sessionId);
+
+        /**
+         * Called once on a background thread.
+         *
+         * @param focusScore   final score from /session/stop, or null if it didn't arrive
+         * @param distractions the intervals the server recorded, or null if they didn't arrive
+         */
+        void onStopped(@Nullable Double focusScore, @Nullable DistractionLog distractions);
+    }
+
+    private final Context appContext;
+    private final OkHttpClient client = DetectionServer.client();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Main thread only: a Stop tapped while the start chain is in flight waits for it
+    private boolean starting = false;
+    @Nullable private Runnable deferredStop;
+    @Nullable private String sessionId;
+
+    public SessionPipeline(Context context) {
+        this.appContext = context.getApplicationContext();
+    }
+
+    /**
+     * Open (or keep alive) a pooled connection to the detection server.
+     */
+    public static void prewarm(Context context) {
+        if (!DetectionServer.isReachable()) return;
+        Request request = new Request.Builder()
+                .url(DetectionServer.baseUrl(context) + "/status")
+                .get()
+                .build();
+
+        DetectionServer.client().newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {}
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                response.close();
+            }
+        });
+    }
+
+    // ---------- Start ----------
+
+    /**
+     * Must be called on the main thread.
+     *
+     * @param tapUptimeMs SystemClock.elapsedRealtime() of the Start tap
+     */
+    public void start(String username, long tapUptimeMs, StartCallback callback) {
+        starting = true;
+        String baseUrl = DetectionServer.baseUrl(appContext);
+        String body = usernameBody(username);
+        long deadline = SystemClock.elapsedRealtime() + START_TIMEOUT_MS;
+        AtomicBoolean done = new AtomicBoolean(false);
+
+        Runnable fail = () -> {
+            if (done.compareAndSet(false, true)) mainHandler.post(() -> finishStart(callback, false, null));
+        };
+        mainHandler.postDelayed(fail, START_TIMEOUT_MS);
+
+        // The session must exist before the vision process starts reporting edges
+        post(baseUrl + "/session/start", body, CommandOutbox.newIdempotencyKey(), deadline, new Step() {
+            @Override
+            void onResult(@Nullable Response response) throws IOException {
+                if (response == null || !response.isSuccessful()) {
+                    fail.run();
+                    return;
+                }
+                SessionStats result = new SessionStats();
+                new SessionStatsDecoder().decode(response.body().source(), result);
+                String sessionId = result.sessionId;
+                if (done.get()) {
+                    // Timed out meanwhile: the caller was told nothing started
+                    abandon(baseUrl, sessionId);
+                    return;
+                }
+
+                post(baseUrl + "/start", body, CommandOutbox.newIdempotencyKey(), deadline, new Step() {
+                    @Override
+                    void onResult(@Nullable Response response) {
+                        if (response == null || !response.isSuccessful() || !done.compareAndSet(false, true)) {
+                            fail.run();
+                            abandon(baseUrl, sessionId);
+                            return;
+                        }
+                        mainHandler.removeCallbacks(fail);
+                        // A stop still queued from an earlier session would end this one
+                        CommandOutbox.discardStops(appContext);
+                        mainHandler.post(() -> finishStart(callback, true, sessionId));
+                        Log.d(TAG, "✅ Session started in " + (SystemClock.elapsedRealtime() - tapUptimeMs) + "ms");
+                    }
+                });
+            }
+        });
+    }
+
+    private void finishStart(StartCallback callback, boolean ok, @Nullable String sessionId) {
+        starting = false;
+        this.sessionId = sessionId;
+        callback.onStarted(ok, sessionId);
+        if (deferredStop != null) {
+            Runnable stop = deferredStop;
+            deferredStop = null;
+            stop.run();
+        }
+    }
+
+    /**
+     * Stop a session whose start failed after the server created it. /stop goes too: a
+     * /start that timed out may still have switched the camera on, and stopping a camera
+     * that isn't running is harmless.
+     */
+    private void abandon(String baseUrl, @Nullable String sessionId) {
+        Log.w(TAG, "Start failed after the server created session " + sessionId + ", stopping it");
+        stopChain(baseUrl, sessionId, null, null);
+    }
+
+    // ---------- Stop ----------
+
+    /** Must be called on the main thread. */
+    public void stop(StopCallback callback) {
+        if (starting) {
+            deferredStop = () -> stop(callback);
+            return;
+        }
+        String docId = callback.onStopping(sessionId);
+        String stopping = sessionId;
+        sessionId = null;
+        stopChain(DetectionServer.baseUrl(appContext), stopping, docId, callback);
+    }
+
+    /** /session/stop -> /stop for sessionId; callback, if any, hears the score. */
+    private void stopChain(String baseUrl, @Nullable String sessionId, @Nullable String docId,
+                           @Nullable StopCallback callback) {
+        // Both stops name the session, so a late retry can't end a newer one
+        String stopBody = CommandOutbox.stopBody(sessionId);
+        long deadline = SystemClock.elapsedRealtime() + STOP_TIMEOUT_MS;
+        String sessionStopKey = CommandOutbox.newIdempotencyKey();
+        String stopKey = CommandOutbox.newIdempotencyKey();
+
+        post(baseUrl + "/session/stop", stopBody, sessionStopKey, deadline, new Step() {
+            @Override
+            void onResult(@Nullable Response response) {
+                Double focusScore = null;
+                DistractionLog distractions = null;
+                if (response != null && response.isSuccessful()) {
+                    try {
+                        JSONObject json = new JSONObject(response.body().string());
+                        if (json.has("focusScore")) focusScore = json.getDouble("focusScore");
+                        distractions = distractionsFrom(json);
+                    } catch (Exception e) {
+                        Log.e(TAG, "❌ Failed to parse stop response: " + e.getMessage());
+                    }
+                }
+                boolean sessionStopped = response != null && response.isSuccessful();
+                if (callback != null) callback.onStopped(focusScore, distractions);
+
+                if (response != null && response.code() == 409) {
+                    // The server has moved on to another session; neither stop applies to it
+                    Log.w(TAG, "Session already replaced on the server, not stopping");
+                    return;
+                }
+                if (!sessionStopped) {
+                    // Keep the order: the score is computed before the camera goes off
+                    CommandOutbox.enqueue(appContext, "/session/stop", stopBody, sessionStopKey, docId);
+                    CommandOutbox.enqueue(appContext, "/stop", stopBody, stopKey, null);
+                    return;
+                }
+
+                post(baseUrl + "/stop", stopBody, stopKey, deadline, new Step() {
+                    @Override
+                    void onResult(@Nullable Response response) {
+                        if (response == null || (!response.isSuccessful() && response.code() != 409)) {
+                            CommandOutbox.enqueue(appContext, "/stop", stopBody, stopKey, null);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    // ---------- Plumbing ----------
+
+    /** One link of a chain; response is null on network failure or timeout. */
+    private abstract static class Step {
+        abstract void onResult(@Nullable Response response) throws IOException;
+    }
+
+    private void post(String url, String body, String idempotencyKey, long deadline, Step step) {
+        long remaining = deadline - SystemClock.elapsedRealtime();
+        if (remaining <= 0) {
+            runStep(step, null);
+            return;
+        }
+
+        Request request = new Request.Builder()
+                .url(url)
+                .header(DetectionServer.IDEMPOTENCY_HEADER, idempotencyKey)
+                .post(RequestBody.create(body, DetectionServer.JSON))
+                .build();
+
+        Call call = client.newCall(request);
+        call.timeout().timeout(remaining, TimeUnit.MILLISECONDS);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.w(TAG, url + " failed: " + e.getMessage());
+                runStep(step, null);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                try (Response r = response) {
+                    runStep(step, r);
+                }
+            }
+        });
+    }
+
+    private static void runStep(Step step, @Nullable Response response) {
+        try {
+            step.onResult(response);
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Pipeline step failed: " + e.getMessage());
+            try {
+                step.onResult(null);
+            } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * The distracted intervals in a /session/stop response, as the server recorded them at
+     * its ON/OFF edges; null if the response has none (older server, or listing failed).
+     */
+    @Nullable
+    static DistractionLog distractionsFrom(JSONObject stopResponse) {
+        JSONArray intervals = stopResponse.optJSONArray("distractions");
+        if (intervals == null) return null;
+        DistractionLog log = new DistractionLog();
+        for (int i = 0; i < intervals.length(); i++) {
+            JSONObject interval = intervals.optJSONObject(i);
+            if (interval == null || !interval.has("startMs") || !interval.has("endMs")) continue;
+            log.add(DistractionType.fromWireName(interval.optString("activity")),
+                    interval.optLong("startMs"), interval.optLong("endMs"),
+                    interval.optDouble("severity", 0));
+        }
+        return log;
+    }
+
+    private static String usernameBody(String username) {
+        JSONObject obj = new JSONObject();
+        try { obj.put("username", username); } catch (Exception ignored) {}
+        return obj.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.studytrackerbasictest.network;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+/**
+ * Mutable holder for the detection server's session responses (/session/stats,
+ * /session/start and /session/stop). One instance is reused for every poll so
+ * decoding allocates nothing per message.
+ */
+public final class SessionStats {
+
+    public static final int STATUS_MISSING = 0;
+    public static final int STATUS_OK = 1;
+    public static final int STATUS_NO_SESSION = 2;
+    public static final int STATUS_OTHER = 3;
+
+    public int status;
+    public String sessionId;
+    public long elapsedMs;
+    public long focusedMs;
+    public double currentFocusScore;
+    public boolean isDistracted;
+    public DistractionType currentActivity;
+    public double currentSeverity;
+    /** Final score from /session/stop; NaN when absent. */
+    public double focusScore;
+
+    public SessionStats() {
+        reset();
+    }
+
+    /** Defaults match the opt* fallbacks the screens used with JSONObject. */
+    public void reset() {
+        status = STATUS_MISSING;
+        sessionId = null;
+        elapsedMs = 0;
+        focusedMs = 0;
+        currentFocusScore = 100.0;
+        isDistracted = false;
+        currentActivity = DistractionType.UNKNOWN;
+        currentSeverity = 0.5;
+        focusScore = Double.NaN;
+    }
+
+    /** Copies every field, so a decoded message can be handed over without allocating. */
+    public void copyFrom(SessionStats other) {
+        status = other.status;
+        sessionId = other.sessionId;
+        elapsedMs = other.elapsedMs;
+        focusedMs = other.focusedMs;
+        currentFocusScore = other.currentFocusScore;
+        isDistracted = other.isDistracted;
+        currentActivity = other.currentActivity;
+        currentSeverity = other.currentSeverity;
+        focusScore = other.focusScore;
+    }
+
+    public boolean hasFocusScore() {
+        return !Double.isNaN(focusScore);
+    }
+}
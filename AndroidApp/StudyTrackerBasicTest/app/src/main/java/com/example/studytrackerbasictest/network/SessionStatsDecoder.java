@@ -0,0 +1,328 @@
+package com.example.studytrackerbasictest.network;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import okio.BufferedSource;
+
+/**
+ * Streaming decoder for the detection server's flat JSON session objects.
+ *
+ * Reads straight from the response's BufferedSource into a reused {@link SessionStats}:
+ * keys and string values go through one scratch byte buffer, numbers are accumulated
+ * without text, and unknown keys (including nested values) are skipped. The only
+ * allocation is a new sessionId String when the id actually changes.
+ *
+ * Not thread-safe; keep one instance per poller.
+ */
+public final class SessionStatsDecoder {
+
+    private static final int FIELD_STATUS = 0;
+    private static final int FIELD_SESSION_ID = 1;
+    private static final int FIELD_ELAPSED_MS = 2;
+    private static final int FIELD_FOCUSED_MS = 3;
+    private static final int FIELD_CURRENT_FOCUS_SCORE = 4;
+    private static final int FIELD_IS_DISTRACTED = 5;
+    private static final int FIELD_CURRENT_ACTIVITY = 6;
+    private static final int FIELD_CURRENT_SEVERITY = 7;
+    private static final int FIELD_FOCUS_SCORE = 8;
+
+    private static final byte[][] KEYS = {
+            ascii("status"),
+            ascii("sessionId"),
+            ascii("elapsedMs"),
+            ascii("focusedMs"),
+            ascii("currentFocusScore"),
+            ascii("isDistracted"),
+            ascii("currentActivity"),
+            ascii("currentSeverity"),
+            ascii("focusScore"),
+    };
+
+    private static final byte[] STATUS_OK = ascii("ok");
+    private static final byte[] STATUS_NO_SESSION = ascii("no_active_session");
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private BufferedSource source;
+    private int pushback = -1;
+    private byte[] scratch = new byte[64];
+    private int scratchLength;
+    private double number;
+
+    public void decode(BufferedSource source, SessionStats out) throws IOException {
+        String previousSessionId = out.sessionId;
+        out.reset();
+        this.source = source;
+        this.pushback = -1;
+
+        try {
+            if (nextNonWhitespace() != '{') throw syntaxError("expected '{'");
+            int c = nextNonWhitespace();
+            if (c == '}') return;
+
+            while (true) {
+                if (c != '"') throw syntaxError("expected key");
+                readString();
+                int field = field();
+                if (nextNonWhitespace() != ':') throw syntaxError("expected ':'");
+                readValue(field, out, previousSessionId);
+
+                c = nextNonWhitespace();
+                if (c == '}') return;
+                if (c != ',') throw syntaxError("expected ',' or '}'");
+                c = nextNonWhitespace();
+            }
+        } finally {
+            this.source = null;
+        }
+    }
+
+    private void readValue(int field, SessionStats out, String previousSessionId) throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '"':
+                readString();
+                assignString(field, out, previousSessionId);
+                break;
+            case 't':
+                expect('r', 'u', 'e');
+                if (field == FIELD_IS_DISTRACTED) out.isDistracted = true;
+                break;
+            case 'f':
+                expect('a', 'l', 's', 'e');
+                if (field == FIELD_IS_DISTRACTED) out.isDistracted = false;
+                break;
+            case 'n':
+                expect('u', 'l', 'l');
+                break;
+            case '{':
+            case '[':
+                skipContainer();
+                break;
+            default:
+                if (c != '-' && (c < '0' || c > '9')) throw syntaxError("unexpected value");
+                readNumber(c);
+                assignNumber(field, out);
+                break;
+        }
+    }
+
+    private void assignString(int field, SessionStats out, String previousSessionId) {
+        switch (field) {
+            case FIELD_STATUS:
+                if (scratchEquals(STATUS_OK)) out.status = SessionStats.STATUS_OK;
+                else if (scratchEquals(STATUS_NO_SESSION)) out.status = SessionStats.STATUS_NO_SESSION;
+                else out.status = SessionStats.STATUS_OTHER;
+                break;
+            case FIELD_SESSION_ID:
+                // Same session every poll: keep the existing String instead of building a new one
+                out.sessionId = previousSessionId != null && scratchEquals(previousSessionId)
+                        ? previousSessionId
+                        : new String(scratch, 0, scratchLength, StandardCharsets.UTF_8);
+                break;
+            case FIELD_CURRENT_ACTIVITY:
+                out.currentActivity = DistractionType.fromWireBytes(scratch, scratchLength);
+                break;
+        }
+    }
+
+    private void assignNumber(int field, SessionStats out) {
+        switch (field) {
+            case FIELD_ELAPSED_MS: out.elapsedMs = (long) number; break;
+            case FIELD_FOCUSED_MS: out.focusedMs = (long) number; break;
+            case FIELD_CURRENT_FOCUS_SCORE: out.currentFocusScore = number; break;
+            case FIELD_CURRENT_SEVERITY: out.currentSeverity = number; break;
+            case FIELD_FOCUS_SCORE: out.focusScore = number; break;
+        }
+    }
+
+    // ---------- Lexing ----------
+
+    private int read() throws IOException {
+        if (pushback >= 0) {
+            int c = pushback;
+            pushback = -1;
+            return c;
+        }
+        if (source.exhausted()) return -1;
+        return source.readByte() & 0xff;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private void expect(char... rest) throws IOException {
+        for (char expected : rest) {
+            if (read() != expected) throw syntaxError("bad literal");
+        }
+    }
+
+    /** Reads a string body (opening quote already consumed) into scratch as UTF-8. */
+    private void readString() throws IOException {
+        scratchLength = 0;
+        while (true) {
+            int c = read();
+            if (c == -1) throw syntaxError("unterminated string");
+            if (c == '"') return;
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'b': c = '\b'; break;
+                    case 'f': c = '\f'; break;
+                    case 'n': c = '\n'; break;
+                    case 'r': c = '\r'; break;
+                    case 't': c = '\t'; break;
+                    case 'u':
+                        appendCodePoint(readHex4());
+                        continue;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        break;
+                    default:
+                        throw syntaxError("bad escape");
+                }
+            }
+            append(c);
+        }
+    }
+
+    private int readHex4() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int c = read();
+            int digit = Character.digit(c, 16);
+            if (c == -1 || digit < 0) throw syntaxError("bad \\u escape");
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private void appendCodePoint(int cp) {
+        if (cp < 0x80) {
+            append(cp);
+        } else if (cp < 0x800) {
+            append(0xc0 | (cp >> 6));
+            append(0x80 | (cp & 0x3f));
+        } else {
+            append(0xe0 | (cp >> 12));
+            append(0x80 | ((cp >> 6) & 0x3f));
+            append(0x80 | (cp & 0x3f));
+        }
+    }
+
+    private void append(int b) {
+        if (scratchLength == scratch.length) scratch = Arrays.copyOf(scratch, scratch.length * 2);
+        scratch[scratchLength++] = (byte) b;
+    }
+
+    private void readNumber(int first) throws IOException {
+        boolean negative = first == '-';
+        int c = negative ? read() : first;
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        while (c >= '0' && c <= '9') {
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+            } else {
+                scale++;
+            }
+            c = read();
+        }
+        if (c == '.') {
+            c = read();
+            while (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    scale--;
+                }
+                c = read();
+            }
+        }
+        if (c == 'e' || c == 'E') {
+            c = read();
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') c = read();
+            int exponent = 0;
+            while (c >= '0' && c <= '9') {
+                exponent = Math.min(exponent * 10 + (c - '0'), 1000);
+                c = read();
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        pushback = c;
+
+        // Exact for the common case (mantissa < 2^53, |scale| <= 22): one correctly rounded op
+        double value = mantissa;
+        if (scale < 0) {
+            value = -scale < POW10.length ? value / POW10[-scale] : value / Math.pow(10, -scale);
+        } else if (scale > 0) {
+            value = scale < POW10.length ? value * POW10[scale] : value * Math.pow(10, scale);
+        }
+        number = negative ? -value : value;
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            if (c == -1) throw syntaxError("unterminated container");
+            if (c == '"') {
+                readString();
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+            }
+        }
+    }
+
+    // ---------- Matching ----------
+
+    private int field() {
+        for (int i = 0; i < KEYS.length; i++) {
+            if (scratchEquals(KEYS[i])) return i;
+        }
+        return -1;
+    }
+
+    private boolean scratchEquals(byte[] expected) {
+        if (expected.length != scratchLength) return false;
+        for (int i = 0; i < scratchLength; i++) {
+            if (scratch[i] != expected[i]) return false;
+        }
+        return true;
+    }
+
+    private boolean scratchEquals(String expected) {
+        if (expected.length() != scratchLength) return false;
+        for (int i = 0; i < scratchLength; i++) {
+            if (scratch[i] != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static IOException syntaxError(String message) {
+        return new IOException("Malformed session JSON: " + message);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.studytrackerbasictest.network;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Polls /session/stats for a running session through a LifecycleSubscriptionManager,
+ * so it runs at full rate while the screen is visible, at a trickle after onStop, and
+ * is cancelled with the screen.
+ *
+ * At most one poll is in flight. It decodes into a holder of its own with no lock held;
+ * only the finished message is copied across under a short lock, and the listener gets
+ * a third, main-thread-only copy. Each sample is delivered once, on the main thread.
+ */
+public class SessionStatsPoller {
+
+    private static final String TAG = "SessionStatsPoller";
+
+    public static final long FOREGROUND_INTERVAL_MS = 5000;
+    public static final long BACKGROUND_INTERVAL_MS = 30000;
+
+    public interface Listener {
+        /**
+         * A new STATUS_OK sample. stats belongs to the poller and is only valid during
+         * the call; producedAt is a SystemClock.elapsedRealtime() value.
+         */
+        void onStats(SessionStats stats, long producedAt);
+    }
+
+    private final LifecycleSubscriptionManager subscriptions;
+    private final OkHttpClient client;
+    private final Request request;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable deliver = this::deliver;
+
+    private final SessionStatsDecoder decoder = new SessionStatsDecoder();
+    private final SessionStats polled = new SessionStats();   // In-flight poll only
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private final SessionStats latest = new SessionStats();   // Guarded by itself
+    private long latestProducedAt = -1;
+    private final SessionStats delivered = new SessionStats();   // Main thread only
+    private long deliveredProducedAt = -1;
+
+    private LifecycleSubscriptionManager.Poll poll;
+    private boolean running;
+    private long firstStatsFrom = -1;   // Start tap still waiting for its first sample
+
+    public SessionStatsPoller(LifecycleSubscriptionManager subscriptions, OkHttpClient client,
+                              String baseUrl, Listener listener) {
+        this.subscriptions = subscriptions;
+        this.client = client;
+        this.listener = listener;
+        this.request = new Request.Builder()
+                .url(baseUrl + "/session/stats")
+                .header("Accept", TelemetryCodec.ACCEPT)
+                .get()
+                .build();
+    }
+
+    /** Start (or resume) polling; the first poll goes out as soon as the owner is visible. */
+    public void start() {
+        running = true;
+        if (poll == null) {
+            poll = subscriptions.poll(this::pollNow, FOREGROUND_INTERVAL_MS, BACKGROUND_INTERVAL_MS);
+        } else {
+            poll.resume();
+        }
+    }
+
+    /**
+     * start() for a session begun at tappedAt (SystemClock.elapsedRealtime()); the time
+     * from the tap until the listener has shown the first sample is logged.
+     */
+    public void start(long tappedAt) {
+        firstStatsFrom = tappedAt;
+        start();
+    }
+
+    public void stop() {
+        running = false;
+        firstStatsFrom = -1;
+        if (poll != null) poll.pause();
+        mainHandler.removeCallbacks(deliver);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void pollNow() {
+        // Circuit open: the health prober is watching /status, don't queue doomed calls
+        if (!DetectionServer.isReachable()) return;
+        // A slow body must not overlap the next poll, which would share the decode holder
+        if (!inFlight.compareAndSet(false, true)) return;
+
+        subscriptions.enqueue(client.newCall(request), new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                // Reported once through DetectionServer.connectivity when the breaker trips
+                inFlight.set(false);
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                try (Response r = response) {
+                    if (!r.isSuccessful()) return;
+                    // Binary when the server supports it, otherwise stream the JSON
+                    if (TelemetryCodec.isBinary(r.body().contentType())) {
+                        TelemetryCodec.decodeStats(r.body().bytes(), polled);
+                    } else {
+                        decoder.decode(r.body().source(), polled);
+                    }
+                    if (polled.status != SessionStats.STATUS_OK) return;
+                    synchronized (latest) {
+                        latest.copyFrom(polled);
+                        latestProducedAt = DetectionServer.producedAt(r);
+                    }
+                    mainHandler.post(deliver);
+                } catch (IOException e) {
+                    Log.w(TAG, "⚠️ Unreadable stats: " + e.getMessage());
+                } finally {
+                    inFlight.set(false);
+                }
+            }
+        });
+    }
+
+    private void deliver() {
+        long producedAt;
+        synchronized (latest) {
+            delivered.copyFrom(latest);
+            producedAt = latestProducedAt;
+        }
+        // Two polls landing before one delivery would otherwise repeat the same sample
+        if (!running || producedAt == deliveredProducedAt) return;
+        deliveredProducedAt = producedAt;
+        listener.onStats(delivered, producedAt);
+        if (firstStatsFrom >= 0) {
+            Log.d(TAG, "⏱ Time to first stats: " + (SystemClock.elapsedRealtime() - firstStatsFrom) + "ms");
+            firstStatsFrom = -1;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.studytrackerbasictest.network;
+
+import androidx.annotation.Nullable;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okhttp3.MediaType;
+
+/**
+ * Compact binary encoding of live session telemetry, negotiated with the detection
+ * server through the Accept header (poll) and "enc=bin" on /ws (push). JSON stays
+ * the fallback for servers that don't speak it.
+ *
+ * Stats (GET /session/stats), little-endian:
+ * <pre>
+ *   u8      version (1)
+ *   u8      status      SessionStats.STATUS_*
+ *   u8      flags       bit 0 = isDistracted
+ *   u8      activity    DistractionType.code
+ *   u16     currentFocusScore x 10
+ *   u16     currentSeverity x 1000
+ *   varint  elapsedMs
+ *   varint  focusedMs
+ *   varint  sessionId length, then UTF-8 bytes (0 = none)
+ * </pre>
+ * Later versions may append fields; decoders ignore trailing bytes.
+ *
+ * Distraction event (binary /ws frame): u8 type (0x02), u8 state (1 = ON), varint seq.
+ */
+public final class TelemetryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-studytracker-stats";
+    public static final String ACCEPT = MEDIA_TYPE + ", application/json;q=0.5";
+
+    static final int VERSION = 1;
+    static final int FRAME_EVENT = 0x02;
+    private static final int FLAG_DISTRACTED = 1;
+
+    private TelemetryCodec() {}
+
+    public static boolean isBinary(@Nullable MediaType contentType) {
+        return contentType != null
+                && MEDIA_TYPE.equals(contentType.type() + "/" + contentType.subtype());
+    }
+
+    // ---------- Stats ----------
+
+    public static void decodeStats(byte[] in, SessionStats out) throws IOException {
+        // Everything is read into locals first; out is only written once the whole
+        // frame parsed, so a truncated or unknown frame leaves the last good stats intact
+        Reader r = new Reader(in);
+        int version = r.u8();
+        if (version != VERSION) throw new IOException("Unsupported telemetry version " + version);
+
+        int status = r.u8();
+        boolean distracted = (r.u8() & FLAG_DISTRACTED) != 0;
+        DistractionType activity = DistractionType.fromCode(r.u8());
+        double focusScore = r.u16() / 10.0;
+        double severity = r.u16() / 1000.0;
+        long elapsedMs = r.varint();
+        long focusedMs = r.varint();
+
+        String sessionId = null;
+        int idLength = (int) r.varint();
+        if (idLength > 0) {
+            r.require(idLength);
+            sessionId = out.sessionId != null && r.matches(out.sessionId, idLength)
+                    ? out.sessionId
+                    : new String(in, r.pos, idLength, StandardCharsets.UTF_8);
+            r.pos += idLength;
+        }
+
+        out.reset();
+        out.status = status;
+        out.isDistracted = distracted;
+        out.currentActivity = activity;
+        out.currentFocusScore = focusScore;
+        out.currentSeverity = severity;
+        out.elapsedMs = elapsedMs;
+        out.focusedMs = focusedMs;
+        out.sessionId = sessionId;
+    }
+
+    public static byte[] encodeStats(SessionStats stats) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(VERSION);
+        out.write(stats.status);
+        out.write(stats.isDistracted ? FLAG_DISTRACTED : 0);
+        out.write(stats.currentActivity.code);
+        writeU16(out, clampU16(Math.round(stats.currentFocusScore * 10)));
+        writeU16(out, clampU16(Math.round(stats.currentSeverity * 1000)));
+        writeVarint(out, stats.elapsedMs);
+        writeVarint(out, stats.focusedMs);
+
+        byte[] id = stats.sessionId == null ? new byte[0] : stats.sessionId.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, id.length);
+        out.write(id, 0, id.length);
+        return out.toByteArray();
+    }
+
+    // ---------- Distraction events ----------
+
+    static boolean isEventFrame(byte[] frame) {
+        return frame.length >= 3 && (frame[0] & 0xff) == FRAME_EVENT;
+    }
+
+    static boolean eventState(byte[] frame) {
+        return frame[1] == 1;
+    }
+
+    static long eventSeq(byte[] frame) throws IOException {
+        Reader r = new Reader(frame);
+        r.pos = 2;
+        return r.varint();
+    }
+
+    static byte[] encodeEvent(long seq, boolean on) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8);
+        out.write(FRAME_EVENT);
+        out.write(on ? 1 : 0);
+        writeVarint(out, seq);
+        return out.toByteArray();
+    }
+
+    // ---------- Primitives ----------
+
+    private static int clampU16(long value) {
+        return (int) Math.max(0, Math.min(0xffff, value));
+    }
+
+    private static void writeU16(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        value = Math.max(0, value);
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        final byte[] in;
+        int pos;
+
+        Reader(byte[] in) {
+            this.in = in;
+        }
+
+        void require(int n) throws IOException {
+            if (pos + n > in.length) throw new IOException("Truncated telemetry frame");
+        }
+
+        int u8() throws IOException {
+            require(1);
+            return in[pos++] & 0xff;
+        }
+
+        int u16() throws IOException {
+            require(2);
+            int value = (in[pos] & 0xff) | (in[pos + 1] & 0xff) << 8;
+            pos += 2;
+            return value;
+        }
+
+        long varint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = u8();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return value;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        boolean matches(String ascii, int length) {
+            if (ascii.length() != length) return false;
+            for (int i = 0; i < length; i++) {
+                if (in[pos + i] != ascii.charAt(i)) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.studytrackerbasictest;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FocusEstimatorTest {
+
+    private static final long POLL_MS = 5000;
+    private static final long FRAME_MS = 16;
+
+    @Test
+    public void firstSample_isShownAsIs() {
+        FocusEstimator e = new FocusEstimator();
+        assertFalse(e.hasSample());
+
+        e.update(1000, 72, 30_000, false);
+
+        assertTrue(e.hasSample());
+        assertEquals(72, e.score(1000), 1e-9);
+        assertEquals(72, e.score(3000), 1e-9);
+    }
+
+    @Test
+    public void tracksRamp_betweenSparseSamples() {
+        // Score falling 1 point per second, sampled every 5 s with +-1 point of noise
+        FocusEstimator e = new FocusEstimator();
+        Random random = new Random(1);
+        for (long t = 0; t <= 60_000; t += POLL_MS) {
+            e.update(t, 95 - t / 1000.0 + random.nextDouble() * 2 - 1, 0, false);
+        }
+
+        // Mid-interval it extrapolates along the trend instead of holding the last value
+        double truth = 95 - 62.5;
+        assertEquals(truth, e.score(62_500), 3);
+    }
+
+    @Test
+    public void framesStayContinuous_acrossCorrections() {
+        FocusEstimator e = new FocusEstimator();
+        double[] samples = {100, 100, 60, 60, 90, 20, 20};
+        double last = Double.NaN;
+        double maxStep = 0;
+
+        for (int i = 0; i < samples.length; i++) {
+            long sampleAt = i * POLL_MS;
+            e.update(sampleAt, samples[i], 0, false);
+            for (long t = sampleAt; t < sampleAt + POLL_MS; t += FRAME_MS) {
+                double s = e.score(t);
+                assertTrue(s >= 0 && s <= 100);
+                if (!Double.isNaN(last)) maxStep = Math.max(maxStep, Math.abs(s - last));
+                last = s;
+            }
+        }
+
+        // A 70-point swing is eased over several frames rather than drawn in one
+        assertTrue("largest per-frame step " + maxStep, maxStep < 10);
+    }
+
+    @Test
+    public void extrapolation_isBounded() {
+        FocusEstimator e = new FocusEstimator();
+        e.update(0, 100, 0, false);
+        e.update(5000, 60, 0, false);
+
+        // Poll lost: the estimate stops moving after the horizon and never leaves 0..100
+        double atHorizon = e.score(5000 + FocusEstimator.MAX_HORIZON_MS);
+        assertEquals(atHorizon, e.score(5000 + 10 * FocusEstimator.MAX_HORIZON_MS), 1e-9);
+        assertTrue(atHorizon >= 0);
+    }
+
+    @Test
+    public void focusedStreak_countsOnlyWhileFocused() {
+        FocusEstimator e = new FocusEstimator();
+        e.update(0, 90, 120_000, false);
+        assertEquals(123_000, e.focusedMs(3000));
+        assertEquals(120_000 + FocusEstimator.MAX_HORIZON_MS, e.focusedMs(60_000));
+
+        e.update(5000, 50, 0, true);
+        assertEquals(0, e.focusedMs(9000));
+    }
+
+    @Test
+    public void reset_dropsTrend() {
+        FocusEstimator e = new FocusEstimator();
+        e.update(0, 100, 0, false);
+        e.update(5000, 50, 0, false);
+
+        e.reset();
+        e.update(600_000, 80, 0, false);
+
+        assertEquals(80, e.score(605_000), 1e-9);
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.studytrackerbasictest;
+
+import android.app.Application;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.view.View;
+
+import com.github.mikephil.charting.charts.PieChart;
+import com.github.mikephil.charting.data.PieData;
+import com.github.mikephil.charting.data.PieDataSet;
+import com.github.mikephil.charting.data.PieEntry;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * FocusRingView against the PieChart it replaced on the live screen: nothing allocated
+ * per update, and a frame (update + draw) cheaper than the chart's. Drawn with
+ * Robolectric's native graphics into a real bitmap. View.draw itself allocates a little
+ * under Robolectric, so allocations are counted over what a plain View's draw costs.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FocusRingViewTest {
+
+    private static final int SIZE = 240;
+
+    private final Canvas canvas = new Canvas(Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888));
+    private FocusRingView ring;
+    private View plain;
+
+    private interface Frame {
+        void run(int i);
+    }
+
+    @Before
+    public void setUp() {
+        ring = new FocusRingView(RuntimeEnvironment.getApplication());
+        layOut(ring);
+        plain = new View(RuntimeEnvironment.getApplication());
+        layOut(plain);
+    }
+
+    private static void layOut(View view) {
+        int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, SIZE, SIZE);
+    }
+
+    /** A score that sweeps back and forth, so every frame moves the arc. */
+    private static float score(int i) {
+        int t = i % 200;
+        return t < 100 ? t : 200 - t;
+    }
+
+    /** Bytes allocated by this thread over frames, the frames' inputs made up front. */
+    private static long bytesOver(Frame frame, int frames) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < frames; i++) frame.run(i);
+        return threads.getThreadAllocatedBytes(id) - before;
+    }
+
+    private static long nanosPerFrame(Frame frame, int frames) {
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) frame.run(i);
+        return (System.nanoTime() - start) / frames;
+    }
+
+    @Test
+    public void setScore_clampsAndKeepsTheTarget() {
+        ring.setScore(130f, false);
+        assertEquals(100f, ring.getScore(), 0f);
+        ring.setScore(-5f, true);
+        assertEquals(0f, ring.getScore(), 0f);
+        ring.setScore(42.5f, true);
+        assertEquals(42.5f, ring.getScore(), 0f);
+    }
+
+    @Test
+    public void updatesAndDraws_allocateNothing() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        // Per poll (animated) and per frame from the estimator (already eased), then drawn
+        Frame frame = i -> {
+            ring.setScore(score(i), i % 2 == 0);
+            ring.draw(canvas);
+        };
+        Frame baseline = i -> plain.draw(canvas);
+        for (int i = 0; i < 5000; i++) {   // Warm up
+            frame.run(i);
+            baseline.run(i);
+        }
+
+        int frames = 20000;
+        long bytes = bytesOver(frame, frames) - bytesOver(baseline, frames);
+
+        // The only allowance is the measuring itself, far below one byte per frame
+        assertTrue(bytes + " B over a plain View's draw in " + frames + " frames", bytes < frames / 10);
+    }
+
+    @Test
+    public void benchmark_ringFrameBeatsPieChart() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        // The live screen's chart as it was set up before FocusRingView
+        PieChart chart = new PieChart(RuntimeEnvironment.getApplication());
+        chart.setUsePercentValues(false);
+        chart.getDescription().setEnabled(false);
+        chart.setDrawHoleEnabled(true);
+        chart.setHoleRadius(75f);
+        chart.setTransparentCircleRadius(0f);
+        chart.setDrawEntryLabels(false);
+        chart.getLegend().setEnabled(false);
+        chart.setRotationEnabled(false);
+        chart.setHighlightPerTapEnabled(false);
+        chart.setDrawCenterText(false);
+        List<PieEntry> entries = new ArrayList<>();
+        entries.add(new PieEntry(100f, "Focused"));
+        entries.add(new PieEntry(0f, "Distracted"));
+        PieDataSet dataSet = new PieDataSet(entries, "");
+        dataSet.setColors(Color.parseColor("#4CAF50"), Color.parseColor("#FF5252"));
+        dataSet.setDrawValues(false);
+        dataSet.setSliceSpace(2f);
+        PieData data = new PieData(dataSet);
+        chart.setData(data);
+        layOut(chart);
+
+        // Its old updateFocusRing, then the frame's draw
+        Frame pieFrame = i -> {
+            float focusScore = score(i);
+            entries.get(0).setY(focusScore);
+            entries.get(1).setY(100 - focusScore);
+            dataSet.notifyDataSetChanged();
+            data.notifyDataChanged();
+            chart.notifyDataSetChanged();
+            chart.invalidate();
+            chart.draw(canvas);
+        };
+        Frame ringFrame = i -> {
+            ring.setScore(score(i), false);
+            ring.draw(canvas);
+        };
+
+        for (int round = 0; round < 5; round++) {   // Warm up both paths
+            nanosPerFrame(pieFrame, 500);
+            nanosPerFrame(ringFrame, 500);
+        }
+        int frames = 2000;
+        long pieBytes = bytesOver(pieFrame, frames) / frames;
+        long ringBytes = (bytesOver(ringFrame, frames) - bytesOver(i -> plain.draw(canvas), frames)) / frames;
+        long pieNs = nanosPerFrame(pieFrame, frames);
+        long ringNs = nanosPerFrame(ringFrame, frames);
+
+        assertEquals("ring " + ringBytes + " B/frame over a plain View", 0, ringBytes);
+        assertTrue("PieChart " + pieBytes + " B/frame", pieBytes > 0);
+        assertTrue("ring " + ringNs + " ns/frame vs PieChart " + pieNs, ringNs * 2 < pieNs);
+    }
+}
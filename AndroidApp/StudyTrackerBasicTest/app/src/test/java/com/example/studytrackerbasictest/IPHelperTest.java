@@ -0,0 +1,25 @@
+package com.example.studytrackerbasictest;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IPHelperTest {
+
+    @Test
+    public void subnetHosts_coversSlash24ExceptSelf() {
+        List<String> hosts = IPHelper.subnetHosts("192.168.1.45");
+        assertEquals(253, hosts.size());
+        assertEquals("192.168.1.1", hosts.get(0));
+        assertEquals("192.168.1.254", hosts.get(hosts.size() - 1));
+        assertFalse(hosts.contains("192.168.1.45"));
+    }
+
+    @Test
+    public void subnetHosts_emptyForFallbackAddress() {
+        assertTrue(IPHelper.subnetHosts("0.0.0.0").isEmpty());
+        assertTrue(IPHelper.subnetHosts("not-an-ip").isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.studytrackerbasictest;
+
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PhoneDistractionsTest {
+
+    @Before
+    public void forgetEarlierEpisodes() {
+        PhoneDistractions.take(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void take_clipsToTheSessionAndKeepsLaterEpisodes() {
+        PhoneDistractions.record(1_000, 4_000);     // Before the session
+        PhoneDistractions.record(9_000, 12_000);    // Straddles its start
+        PhoneDistractions.record(20_000, 26_000);   // Straddles its end
+        PhoneDistractions.record(40_000, 45_000);   // After it: next session's
+
+        DistractionLog log = PhoneDistractions.take(10_000, 25_000);
+
+        assertEquals(2, log.events().size());
+        assertEquals(10_000, log.events().get(0).startMs);
+        assertEquals(12_000, log.events().get(0).endMs);
+        assertEquals(25_000, log.events().get(1).endMs);
+        assertEquals(2000 + 5000, log.millis(DistractionType.PHONE));
+
+        DistractionLog next = PhoneDistractions.take(30_000, 50_000);
+        assertEquals(1, next.events().size());
+        assertEquals(5000, next.millis(DistractionType.PHONE));
+        assertTrue(PhoneDistractions.take(Long.MIN_VALUE, Long.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void record_dropsTheOldestPastTheCap() {
+        for (int i = 0; i < PhoneDistractions.MAX_EPISODES + 10; i++) {
+            PhoneDistractions.record(i * 10_000L, i * 10_000L + 1000);
+        }
+        DistractionLog log = PhoneDistractions.take(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(PhoneDistractions.MAX_EPISODES, log.count(DistractionType.PHONE));
+        assertEquals(100_000, log.events().get(0).startMs);
+    }
+
+    @Test
+    public void parked_isHandedOutOnce() {
+        DistractionLog log = new DistractionLog();
+        log.add(DistractionType.PHONE, 0, 1000, 1.0);
+        PhoneDistractions.park("s1", log);
+
+        assertSame(log, PhoneDistractions.unpark("s1"));
+        assertNull(PhoneDistractions.unpark("s1"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.studytrackerbasictest;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class SessionHistoryPagerTest {
+
+    // Sorted the way the Firestore query sorts: date desc, then id desc; answers on demand
+    private static class FakeSource implements SessionHistoryPager.PageSource {
+        final List<SessionRow> all = new ArrayList<>();
+        final List<Runnable> pending = new ArrayList<>();
+        final List<Integer> limits = new ArrayList<>();
+        boolean fail;
+
+        void add(SessionRow row) {
+            int i = 0;
+            while (i < all.size() && compare(all.get(i), row) > 0) i++;
+            all.add(i, row);
+        }
+
+        static int compare(SessionRow a, SessionRow b) {
+            int byDate = a.date.compareTo(b.date);
+            return byDate != 0 ? byDate : a.id.compareTo(b.id);
+        }
+
+        @Override
+        public void loadPage(String username, SessionRow after, int limit, Consumer<List<SessionRow>> onLoaded) {
+            limits.add(limit);
+            pending.add(() -> {
+                if (fail) {
+                    onLoaded.accept(null);
+                    return;
+                }
+                List<SessionRow> page = new ArrayList<>();
+                for (SessionRow row : all) {
+                    if (after != null && compare(row, after) >= 0) continue;
+                    if (page.size() == limit) break;
+                    page.add(row);
+                }
+                onLoaded.accept(page);
+            });
+        }
+
+        void answerAll() {
+            List<Runnable> now = new ArrayList<>(pending);
+            pending.clear();
+            for (Runnable r : now) r.run();
+        }
+    }
+
+    private static SessionRow row(int daysAgo, int n, Double focus) {
+        String date = LocalDate.of(2025, 3, 15).minusDays(daysAgo).toString();
+        return new SessionRow(String.format("s%03d", n), date, "25:00", focus);
+    }
+
+    private static FakeSource history(int count) {
+        FakeSource source = new FakeSource();
+        // Inserted oldest first and out of order within days, unlike the list must show
+        for (int i = count - 1; i >= 0; i--) source.add(row(i / 3, i, 50.0));
+        return source;
+    }
+
+    @Test
+    public void pages_areNewestFirstAndPrefetched() {
+        FakeSource source = history(50);
+        List<List<SessionRow>> published = new ArrayList<>();
+        SessionHistoryPager pager = new SessionHistoryPager(source, "u", published::add);
+
+        pager.refresh();
+        source.answerAll();
+        assertEquals(SessionHistoryPager.PAGE_SIZE, pager.rows().size());
+        assertEquals("2025-03-15", pager.rows().get(0).date);
+        for (int i = 1; i < pager.rows().size(); i++) {
+            assertTrue(FakeSource.compare(pager.rows().get(i - 1), pager.rows().get(i)) > 0);
+        }
+
+        // Far from the end: nothing; near the end: one request, however often it is seen
+        pager.onRowShown(5);
+        assertTrue(source.pending.isEmpty());
+        pager.onRowShown(SessionHistoryPager.PAGE_SIZE - SessionHistoryPager.PREFETCH_DISTANCE);
+        pager.onRowShown(SessionHistoryPager.PAGE_SIZE - 1);
+        assertEquals(1, source.pending.size());
+        source.answerAll();
+        assertEquals(2 * SessionHistoryPager.PAGE_SIZE, pager.rows().size());
+
+        pager.onRowShown(pager.rows().size() - 1);
+        source.answerAll();
+        assertEquals(50, pager.rows().size());
+        assertEquals(source.all, pager.rows());
+
+        // The last page was short, so there is nothing more to ask for
+        pager.onRowShown(49);
+        assertTrue(source.pending.isEmpty());
+        assertEquals(3, published.size());
+    }
+
+    @Test
+    public void refresh_reloadsShownRowsAndDropsOlderPages() {
+        FakeSource source = history(60);
+        List<List<SessionRow>> published = new ArrayList<>();
+        SessionHistoryPager pager = new SessionHistoryPager(source, "u", published::add);
+        pager.refresh();
+        source.answerAll();
+        pager.onRowShown(19);
+        source.answerAll();
+        assertEquals(40, pager.rows().size());
+
+        // A new session arrives while the third page is in flight; that page must not land
+        pager.onRowShown(39);
+        source.add(row(-1, 99, null));
+        pager.refresh();
+        assertEquals(Integer.valueOf(40), source.limits.get(source.limits.size() - 1));
+        source.answerAll();
+
+        List<SessionRow> rows = pager.rows();
+        assertEquals(40, rows.size());
+        assertEquals("s099", rows.get(0).id);
+        assertEquals("Focus Score: N/A", rows.get(0).details());
+        assertEquals(published.get(published.size() - 2).subList(0, 39), rows.subList(1, 40));
+
+        // Paging carries on from the refreshed rows
+        pager.onRowShown(39);
+        source.answerAll();
+        pager.onRowShown(59);
+        source.answerAll();
+        assertEquals(61, pager.rows().size());
+        assertEquals(source.all, pager.rows());
+    }
+
+    @Test
+    public void failures_keepRowsAndAllowRetry() {
+        FakeSource source = history(45);
+        SessionHistoryPager pager = new SessionHistoryPager(source, "u", rows -> {});
+        pager.refresh();
+        source.answerAll();
+
+        source.fail = true;
+        pager.onRowShown(19);
+        source.answerAll();
+        pager.refresh();
+        source.answerAll();
+        assertEquals(SessionHistoryPager.PAGE_SIZE, pager.rows().size());
+
+        source.fail = false;
+        pager.onRowShown(19);
+        source.answerAll();
+        assertEquals(2 * SessionHistoryPager.PAGE_SIZE, pager.rows().size());
+    }
+
+    @Test
+    public void rowFromDocument_readsStoredFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("date", "2025-03-15");
+        data.put("duration", "45:10");
+        data.put("focusScore", 82L);
+        SessionRow row = SessionRow.from("abc", data);
+        assertEquals("2025-03-15 - 45:10", row.title());
+        assertEquals(82.0, row.focusScore, 0);
+        assertEquals(row, SessionRow.from("abc", data));
+
+        data.remove("focusScore");
+        assertFalse(row.equals(SessionRow.from("abc", data)));
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.studytrackerbasictest;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import com.example.studytrackerbasictest.analytics.FocusTimeline;
+import com.example.studytrackerbasictest.network.LifecycleSubscriptionManager;
+import com.example.studytrackerbasictest.network.SessionStatsPoller;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * A session as the session screens run it: SessionStatsPoller against a local
+ * /session/stats, each shown sample handed to SessionRecorder, and the recording stored
+ * when the session stops.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class SessionRecorderTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private final Owner owner = new Owner();
+    private final SessionRecorder recorder = new SessionRecorder();
+    private final List<Object[]> stored = new ArrayList<>();   // docId, blob, samples
+    private SessionStatsPoller poller;
+
+    private static class Owner implements LifecycleOwner {
+        final LifecycleRegistry registry = LifecycleRegistry.createUnsafe(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        owner.registry.setCurrentState(Lifecycle.State.STARTED);
+        poller = new SessionStatsPoller(new LifecycleSubscriptionManager(owner), new OkHttpClient(), server.url("").toString().replaceAll("/$", ""), recorder::onStats);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        server.shutdown();
+    }
+
+    private static String stats(double score, boolean distracted, String activity) {
+        return "{\"status\":\"ok\",\"sessionId\":\"s-1\",\"elapsedMs\":5000,\"focusedMs\":4000,"
+                + "\"currentFocusScore\":" + score + ",\"isDistracted\":" + distracted
+                + ",\"currentActivity\":\"" + activity + "\",\"currentSeverity\":0.5}";
+    }
+
+    /** Runs the poller through n polls, waiting for each sample to be delivered. */
+    private void poll(int n) throws InterruptedException {
+        for (int i = 0; i < n; i++) {
+            shadowOf(Looper.getMainLooper()).idleFor(SessionStatsPoller.FOREGROUND_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+    }
+
+    @Test
+    public void stoppedSession_storesEverySampleShown() throws Exception {
+        server.enqueue(new MockResponse().setBody(stats(82.5, false, "unknown")));
+        server.enqueue(new MockResponse().setBody(stats(61.0, true, "phone_distraction")));
+        server.enqueue(new MockResponse().setBody(stats(74.3, false, "unknown")));
+
+        recorder.begin();
+        poller.start(0);
+        poll(3);
+        poller.stop();
+        recorder.finish().saveTo("s-1", (docId, blob, samples) -> stored.add(new Object[]{docId, blob, samples}));
+
+        assertEquals(1, stored.size());
+        assertEquals("s-1", stored.get(0)[0]);
+        assertEquals(3, stored.get(0)[2]);
+        FocusTimeline timeline = FocusTimeline.decode((byte[]) stored.get(0)[1]);
+        assertEquals(3, timeline.size());
+        assertEquals(82.5f, timeline.score(0), 0.05f);
+        assertEquals(61.0f, timeline.score(1), 0.05f);
+        assertEquals(74.3f, timeline.score(2), 0.05f);
+        assertFalse(timeline.distracted(0));
+        assertTrue(timeline.distracted(1));
+        assertEquals(DistractionType.PHONE, timeline.activity(1));
+        assertTrue(timeline.timeMs(1) >= timeline.timeMs(0));
+        assertTrue(timeline.timeMs(2) >= timeline.timeMs(1));
+    }
+
+    @Test
+    public void nextSession_startsWithAnEmptyTimeline() throws Exception {
+        server.enqueue(new MockResponse().setBody(stats(90, false, "unknown")));
+        recorder.begin();
+        poller.start(0);
+        poll(1);
+        poller.stop();
+        recorder.finish().saveTo("s-1", (docId, blob, samples) -> stored.add(new Object[]{docId, blob, samples}));
+
+        // Stopped straight after starting again: nothing shown, nothing stored
+        recorder.begin();
+        SessionRecorder.Recording second = recorder.finish();
+        assertEquals(0, second.samples());
+        second.saveTo("s-2", (docId, blob, samples) -> stored.add(new Object[]{docId, blob, samples}));
+        assertEquals(1, stored.size());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.studytrackerbasictest;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+public class TimeTextFormatterTest {
+
+    @Test
+    public void minutesSeconds_matchesStringFormat() {
+        TimeTextFormatter f = new TimeTextFormatter("Running: ", "");
+        for (long s = 0; s < 200 * 60; s += 7) {
+            assertTrue(f.setMinutesSeconds(s));
+            assertEquals(String.format(Locale.US, "Running: %02d:%02d", s / 60, s % 60), f.toString());
+        }
+    }
+
+    @Test
+    public void number_matchesStringFormat() {
+        TimeTextFormatter f = new TimeTextFormatter("Current Focused Streak: ", " min");
+        long[] values = {0, 1, 9, 10, 99, 100, 12345, -1, -250, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long v : values) {
+            assertTrue(f.setNumber(v));
+            assertEquals(String.format(Locale.US, "Current Focused Streak: %d min", v), f.toString());
+        }
+    }
+
+    @Test
+    public void unchangedValue_isSkipped() {
+        TimeTextFormatter f = new TimeTextFormatter();
+        assertTrue(f.setMinutesSeconds(61));
+        assertFalse(f.setMinutesSeconds(61));
+        assertTrue(f.setMinutesSeconds(62));
+
+        // Same number, different format: must be rewritten
+        assertTrue(f.setNumber(62));
+        assertEquals("62", f.toString());
+
+        f.invalidate();
+        assertTrue(f.setNumber(62));
+    }
+
+    @Test
+    public void bufferIsReused() {
+        TimeTextFormatter f = new TimeTextFormatter();
+        char[] buffer = f.buffer();
+        f.setMinutesSeconds(5);
+        f.setNumber(-42);
+        assertSame(buffer, f.buffer());
+        assertEquals("-42", new String(buffer, 0, f.length()));
+    }
+
+    @Test
+    public void negativeSeconds_clampToZero() {
+        TimeTextFormatter f = new TimeTextFormatter();
+        f.setMinutesSeconds(-3);
+        assertEquals("00:00", f.toString());
+    }
+
+    private interface Tick {
+        /** Renders second i; returns something of the text so the work can't be skipped. */
+        int run(int i);
+    }
+
+    /** Bytes allocated per tick by this thread. */
+    private static long bytesPerTick(Tick tick, int ticks) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        int sink = 0;
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < ticks; i++) sink += tick.run(i);
+        long bytes = threads.getThreadAllocatedBytes(id) - before;
+        assertTrue(sink > 0);
+        return bytes / ticks;
+    }
+
+    private static long nanosPerTick(Tick tick, int ticks) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ticks; i++) sink += tick.run(i);
+        long ns = (System.nanoTime() - start) / ticks;
+        assertTrue(sink > 0);
+        return ns;
+    }
+
+    @Test
+    public void benchmark_beatsStringFormatWithoutAllocating() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        // Every tick shows a new value, so nothing is skipped: the timer and the score
+        TimeTextFormatter timer = new TimeTextFormatter();
+        TimeTextFormatter score = new TimeTextFormatter("Focus ", "%");
+        Tick formatter = i -> {
+            timer.setMinutesSeconds(i);
+            score.setNumber(i % 101);
+            return timer.length() + score.length();
+        };
+        // What the timers and LiveSessionActivity.updateUI did before
+        Tick stringFormat = i -> {
+            String time = String.format(Locale.getDefault(), "%02d:%02d", i / 60, i % 60);
+            String focus = String.format(Locale.getDefault(), "Focus %d%%", i % 101);
+            return time.length() + focus.length();
+        };
+
+        for (int round = 0; round < 5; round++) {   // Warm up both paths
+            nanosPerTick(formatter, 20000);
+            nanosPerTick(stringFormat, 20000);
+        }
+        long formatterBytes = bytesPerTick(formatter, 100000);
+        long formatBytes = bytesPerTick(stringFormat, 100000);
+        long formatterNs = nanosPerTick(formatter, 200000);
+        long formatNs = nanosPerTick(stringFormat, 200000);
+
+        assertEquals("formatter " + formatterBytes + " B/tick", 0, formatterBytes);
+        assertTrue("String.format " + formatBytes + " B/tick", formatBytes > 100);
+        assertTrue("formatter " + formatterNs + " ns/tick vs String.format " + formatNs,
+                formatterNs * 5 < formatNs);
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AnalyticsEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+    private static final int TODAY_DAY = (int) TODAY.toEpochDay();
+    private static final ZoneId UTC = ZoneOffset.UTC;
+
+    private static Map<String, Object> session(LocalDate date, String duration, Double focusScore) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("date", date.toString());
+        s.put("duration", duration);
+        if (focusScore != null) s.put("focusScore", focusScore);
+        return s;
+    }
+
+    @Test
+    public void parseEpochDay_matchesLocalDate() {
+        for (LocalDate d = LocalDate.of(1999, 12, 25); d.isBefore(LocalDate.of(2030, 1, 10)); d = d.plusDays(13)) {
+            assertEquals(d.toString(), d.toEpochDay(), SessionColumns.parseEpochDay(d.toString()));
+        }
+        assertEquals(SessionColumns.NO_DAY, SessionColumns.parseEpochDay("2025-3-15"));
+        assertEquals(SessionColumns.NO_DAY, SessionColumns.parseEpochDay("2025-13-01"));
+        assertEquals(SessionColumns.NO_DAY, SessionColumns.parseEpochDay("yesterday!"));
+    }
+
+    @Test
+    public void parseDuration() {
+        assertEquals(25 * 60, SessionColumns.parseDurationSeconds("25:00"));
+        assertEquals(90 * 60 + 5, SessionColumns.parseDurationSeconds("90:05"));
+        assertEquals(0, SessionColumns.parseDurationSeconds("25"));
+        assertEquals(0, SessionColumns.parseDurationSeconds("ab:cd"));
+    }
+
+    @Test
+    public void periodTotals_andAverageFocus() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(session(TODAY, "30:00", 80.0));
+        sessions.add(session(TODAY, "45:30", null));                 // Not scored
+        sessions.add(session(TODAY.minusDays(3), "60:00", 60.0));
+        sessions.add(session(TODAY.minusDays(20), "120:00", 40.0));
+        sessions.add(session(TODAY.minusDays(40), "600:00", 10.0));  // Outside every period
+
+        SessionColumns columns = SessionColumns.from(sessions);
+
+        AnalyticsEngine.Result today = compute(columns, AnalyticsEngine.Period.TODAY, TODAY_DAY);
+        assertEquals(2, today.sessionCount);
+        assertEquals(1, today.scoredSessions);
+        assertEquals(75 * 60 + 30, today.totalSeconds);
+        // Scores are 0..100 and averaged as-is, not scaled
+        assertEquals(80.0, today.averageFocus, 1e-9);
+
+        AnalyticsEngine.Result week = compute(columns, AnalyticsEngine.Period.WEEK, TODAY_DAY);
+        assertEquals(3, week.sessionCount);
+        assertEquals(70.0, week.averageFocus, 1e-9);
+
+        AnalyticsEngine.Result month = compute(columns, AnalyticsEngine.Period.MONTH, TODAY_DAY);
+        assertEquals(4, month.sessionCount);
+        assertEquals(4, month.totalHours());
+        assertEquals(60.0, month.averageFocus, 1e-9);
+    }
+
+    @Test
+    public void noScores_averageIsNaN() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(session(TODAY, "10:00", null));
+
+        AnalyticsEngine.Result r = compute(SessionColumns.from(sessions), AnalyticsEngine.Period.TODAY, TODAY_DAY);
+
+        assertEquals(1, r.sessionCount);
+        assertTrue(Double.isNaN(r.averageFocus));
+        assertFalse(r.hasHourData());
+    }
+
+    @Test
+    public void streak_countsConsecutiveDays() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int d = 1; d <= 100; d++) sessions.add(session(TODAY.minusDays(d), "10:00", null));
+        sessions.add(session(TODAY.minusDays(2), "10:00", null));   // Duplicate day
+        sessions.add(session(TODAY.minusDays(102), "10:00", null)); // After a gap
+
+        SessionColumns columns = SessionColumns.from(sessions);
+        // Nothing yet today: the streak still runs through yesterday
+        assertEquals(100, compute(columns, AnalyticsEngine.Period.TODAY, TODAY_DAY).streakDays);
+
+        sessions.add(session(TODAY, "10:00", null));
+        columns = SessionColumns.from(sessions);
+        assertEquals(101, compute(columns, AnalyticsEngine.Period.TODAY, TODAY_DAY).streakDays);
+        assertEquals(101, compute(columns, AnalyticsEngine.Period.TODAY, TODAY_DAY).longestStreakDays);
+
+        // A day missed yesterday breaks it
+        assertEquals(0, compute(columns, AnalyticsEngine.Period.TODAY, TODAY_DAY + 2).streakDays);
+    }
+
+    @Test
+    public void hourGroups_comeFromStartAndEndTimes() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(timed(session(TODAY, "60:00", 90.0), 9, 0, 10, 0));
+        sessions.add(timed(session(TODAY, "30:00", 60.0), 10, 30, 11, 0));
+        sessions.add(timed(session(TODAY, "30:00", 20.0), 23, 0, 23, 30));
+        sessions.add(session(TODAY, "25:00", 100.0));               // No times: not placed
+
+        AnalyticsEngine.Result r = compute(SessionColumns.from(sessions), AnalyticsEngine.Period.TODAY, TODAY_DAY);
+
+        assertTrue(r.hasHourData());
+        // 8-11am: 60 min at 90 and 30 min at 60, weighted by minutes
+        assertEquals((60 * 90 + 30 * 60) / 90f, r.hourGroupFocus(2), 1e-3);
+        assertEquals(60, r.hourMinutes(9), 1e-9);
+        assertEquals(20f, r.hourGroupFocus(5), 1e-3);
+        assertTrue(Float.isNaN(r.hourGroupFocus(0)));
+    }
+
+    private static Map<String, Object> timed(Map<String, Object> s, int h1, int m1, int h2, int m2) {
+        s.put("startedAt", TODAY.atTime(h1, m1).toInstant(ZoneOffset.UTC).toEpochMilli());
+        s.put("endedAt", TODAY.atTime(h2, m2).toInstant(ZoneOffset.UTC).toEpochMilli());
+        return s;
+    }
+
+    private static AnalyticsEngine.Result compute(SessionColumns columns, AnalyticsEngine.Period period, int today) {
+        HourHistogram hours = HourHistogram.build(columns, UTC);
+        StudyDayBitmap days = new StudyDayBitmap();
+        AnalyticsEngine.markStudyDays(columns, days);
+        return AnalyticsEngine.compute(DayIndex.build(columns), DaySketches.build(columns),
+                DistractionRollup.build(columns), hours, days,
+                period, today - period.daysBack, today, today);
+    }
+
+    @Test
+    public void malformedDocuments_areSkipped() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(new HashMap<>());
+        Map<String, Object> odd = new HashMap<>();
+        odd.put("date", 20250315L);
+        odd.put("duration", 1500);
+        odd.put("focusScore", "high");
+        sessions.add(odd);
+
+        AnalyticsEngine.Result r = compute(SessionColumns.from(sessions), AnalyticsEngine.Period.MONTH, TODAY_DAY);
+
+        assertEquals(0, r.sessionCount);
+        assertEquals(0, r.streakDays);
+    }
+
+    /**
+     * n sessions of 10-120 min, about five a day, so more sessions mean a longer history
+     * rather than busier days; a quarter of them distracted.
+     */
+    private static List<Map<String, Object>> syntheticSessions(int n) {
+        Random random = new Random(n);
+        List<Map<String, Object>> sessions = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            LocalDate date = TODAY.minusDays(random.nextInt(n / 5));
+            int minutes = 10 + random.nextInt(111);
+            Map<String, Object> s = timed(session(date, minutes + ":00", 100 * random.nextDouble()),
+                    random.nextInt(22), 0, 0, 0);
+            s.put("endedAt", (Long) s.get("startedAt") + minutes * 60_000L);
+            if (i % 4 == 0) {
+                Map<String, Object> events = new HashMap<>();
+                events.put("phone_distraction", 1 + random.nextInt(3));
+                s.put("distractionEvents", events);
+            }
+            sessions.add(s);
+        }
+        return sessions;
+    }
+
+    private static final class Loaded {
+        final DayIndex index;
+        final DaySketches sketches;
+        final DistractionRollup distractions;
+        final HourHistogram hours;
+        final StudyDayBitmap days = new StudyDayBitmap();
+
+        /** What AnalyticsEngine.load builds from a fresh set of documents. */
+        Loaded(List<Map<String, Object>> sessions) {
+            SessionColumns columns = SessionColumns.from(sessions, UTC);
+            hours = HourHistogram.build(columns, UTC);
+            AnalyticsEngine.markStudyDays(columns, days);
+            index = DayIndex.build(columns);
+            sketches = DaySketches.build(columns);
+            distractions = DistractionRollup.build(columns);
+        }
+
+        AnalyticsEngine.Result query(AnalyticsEngine.Period period) {
+            return AnalyticsEngine.compute(index, sketches, distractions, hours, days,
+                    period, TODAY_DAY - period.daysBack, TODAY_DAY, TODAY_DAY);
+        }
+    }
+
+    /** Best of a few loads, so a GC pause doesn't decide the ratio. */
+    private static long loadNanos(List<Map<String, Object>> sessions) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            new Loaded(sessions);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static long queryNanos(Loaded loaded, int queries) {
+        AnalyticsEngine.Period[] periods = {AnalyticsEngine.Period.TODAY, AnalyticsEngine.Period.WEEK,
+                AnalyticsEngine.Period.MONTH};
+        long start = System.nanoTime();
+        for (int i = 0; i < queries; i++) loaded.query(periods[i % periods.length]);
+        return (System.nanoTime() - start) / queries;
+    }
+
+    @Test
+    public void benchmark_loadScalesLinearly_queriesDoNotGrow() {
+        List<Map<String, Object>> small = syntheticSessions(10_000);
+        List<Map<String, Object>> large = syntheticSessions(100_000);
+
+        for (int round = 0; round < 3; round++) new Loaded(small);   // Warm up
+        long smallLoad = loadNanos(small);
+        long largeLoad = loadNanos(large);
+
+        Loaded smallData = new Loaded(small);
+        Loaded largeData = new Loaded(large);
+        assertEquals(100_000, largeData.index.query(TODAY_DAY - 100_000 / 5, TODAY_DAY).sessions);
+        queryNanos(smallData, 5000);   // Warm up
+        queryNanos(largeData, 5000);
+        long smallQuery = queryNanos(smallData, 5000);
+        long largeQuery = queryNanos(largeData, 5000);
+
+        // 10x the sessions: about 10x the load (one pass and a sort), well short of 100x
+        assertTrue("load 10k " + smallLoad / 1000 + " us vs 100k " + largeLoad / 1000 + " us",
+                largeLoad < 25 * smallLoad);
+        // Queries read per-day structures for the period's days, however long the history
+        assertTrue("query 10k " + smallQuery + " ns vs 100k " + largeQuery + " ns", largeQuery < 3 * smallQuery);
+        assertTrue("query at 100k sessions " + largeQuery + " ns", largeQuery < 1_000_000);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AnalyticsLoaderTest {
+
+    private static List<Map<String, Object>> sessions(int count) {
+        LocalDate today = LocalDate.now(ZoneId.systemDefault());
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> s = new HashMap<>();
+            s.put("date", today.minusDays(i % 20).toString());
+            s.put("duration", "25:00");
+            s.put("focusScore", 50.0 + i % 50);
+            list.add(s);
+        }
+        return list;
+    }
+
+    // Waits for everything queued on the analytics thread so far
+    private static void drain() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AnalyticsEngine.execute(done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static CountDownLatch holdAnalyticsThread() {
+        CountDownLatch release = new CountDownLatch(1);
+        AnalyticsEngine.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        return release;
+    }
+
+    @Test
+    public void requestBeforeData_isAnsweredOnLoad() throws InterruptedException {
+        List<AnalyticsEngine.Result> delivered = new ArrayList<>();
+        AnalyticsLoader loader = new AnalyticsLoader("loader-wait", Runnable::run);
+
+        loader.request(AnalyticsEngine.Period.WEEK, delivered::add);
+        drain();
+        assertTrue(delivered.isEmpty());
+
+        loader.setSessions(sessions(40));
+        drain();
+        assertEquals(1, delivered.size());
+        assertEquals(AnalyticsEngine.Period.WEEK, delivered.get(0).period);
+        assertEquals(16, delivered.get(0).sessionCount);   // Days 0..7 of a 20-day cycle, twice
+    }
+
+    @Test
+    public void supersededRequests_areDropped() throws InterruptedException {
+        List<AnalyticsEngine.Result> delivered = new ArrayList<>();
+        AnalyticsLoader loader = new AnalyticsLoader("loader-supersede", Runnable::run);
+        loader.setSessions(sessions(10));
+        drain();
+
+        // All three are queued behind the held thread; only the newest may run
+        CountDownLatch release = holdAnalyticsThread();
+        loader.request(AnalyticsEngine.Period.TODAY, delivered::add);
+        loader.request(AnalyticsEngine.Period.MONTH, delivered::add);
+        loader.request(AnalyticsEngine.Period.WEEK, delivered::add);
+        release.countDown();
+        drain();
+
+        assertEquals(1, delivered.size());
+        assertEquals(AnalyticsEngine.Period.WEEK, delivered.get(0).period);
+
+        release = holdAnalyticsThread();
+        loader.request(AnalyticsEngine.Period.TODAY, delivered::add);
+        loader.cancel();
+        release.countDown();
+        drain();
+        assertEquals(1, delivered.size());
+    }
+
+    @Test
+    public void results_areCachedUntilDataChanges() throws InterruptedException {
+        List<AnalyticsEngine.Result> delivered = new ArrayList<>();
+        AnalyticsLoader loader = new AnalyticsLoader("loader-cache", Runnable::run);
+        loader.setSessions(sessions(30));
+        drain();
+
+        loader.request(AnalyticsEngine.Period.MONTH, delivered::add);
+        drain();
+        loader.request(AnalyticsEngine.Period.TODAY, delivered::add);
+        drain();
+        loader.request(AnalyticsEngine.Period.MONTH, delivered::add);
+        drain();
+        assertSame(delivered.get(0), delivered.get(2));
+
+        // Same documents again: nothing recomputed or redelivered
+        loader.setSessions(sessions(30));
+        drain();
+        assertEquals(3, delivered.size());
+
+        // New data: the visible period is recomputed and the cache no longer applies
+        loader.setSessions(sessions(31));
+        drain();
+        assertEquals(4, delivered.size());
+        assertEquals(31, delivered.get(3).sessionCount);
+        loader.request(AnalyticsEngine.Period.MONTH, delivered::add);
+        drain();
+        assertSame(delivered.get(3), delivered.get(4));
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DayIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 15);
+    private static final int TODAY_DAY = (int) TODAY.toEpochDay();
+
+    private static Map<String, Object> session(int epochDay, int minutes, Double focusScore) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("date", LocalDate.ofEpochDay(epochDay).toString());
+        s.put("duration", minutes + ":00");
+        if (focusScore != null) s.put("focusScore", focusScore);
+        return s;
+    }
+
+    // What the analytics screens used to do: look at every session for every range
+    private static DayIndex.Totals scan(SessionColumns c, int first, int last) {
+        int n = 0, scored = 0;
+        long secs = 0;
+        double focus = 0;
+        for (int i = 0; i < c.size; i++) {
+            int day = c.epochDay(i);
+            if (day < first || day > last) continue;
+            n++;
+            secs += c.durationSeconds(i);
+            if (!Float.isNaN(c.focusScore(i))) {
+                scored++;
+                focus += c.focusScore(i);
+            }
+        }
+        return new DayIndex.Totals(n, secs, scored, focus);
+    }
+
+    private static void assertTotals(DayIndex.Totals expected, DayIndex.Totals actual) {
+        assertEquals(expected.sessions, actual.sessions);
+        assertEquals(expected.seconds, actual.seconds);
+        assertEquals(expected.scoredSessions, actual.scoredSessions);
+        assertEquals(expected.focusSum, actual.focusSum, 1e-6);
+    }
+
+    @Test
+    public void rangeQueries_matchScan() {
+        Random rnd = new Random(11);
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            sessions.add(session(TODAY_DAY - rnd.nextInt(3 * 365), 5 + rnd.nextInt(120),
+                    rnd.nextBoolean() ? (double) rnd.nextInt(101) : null));
+        }
+        SessionColumns c = SessionColumns.from(sessions, ZoneOffset.UTC);
+        DayIndex index = DayIndex.build(c);
+
+        for (int q = 0; q < 500; q++) {
+            int first = TODAY_DAY - rnd.nextInt(4 * 365);
+            int last = first + rnd.nextInt(400);
+            assertTotals(scan(c, first, last), index.query(first, last));
+        }
+        assertEquals(0, index.query(TODAY_DAY + 1, TODAY_DAY + 30).sessions);
+        assertEquals(0, index.query(TODAY_DAY, TODAY_DAY - 1).sessions);
+        assertEquals(c.size, index.query(Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1).sessions);
+    }
+
+    @Test
+    public void addAndRemove_growInBothDirections() {
+        DayIndex index = DayIndex.build(SessionColumns.from(new ArrayList<>(), ZoneOffset.UTC));
+        assertEquals(0, index.query(TODAY_DAY - 10, TODAY_DAY).sessions);
+
+        index.add(TODAY_DAY, 1500, 80f);
+        index.add(TODAY_DAY - 40, 600, Float.NaN);   // Earlier than anything stored
+        index.add(TODAY_DAY + 3, 900, 40f);           // Later
+        index.add(TODAY_DAY, 300, 60f);
+
+        DayIndex.Totals all = index.query(TODAY_DAY - 100, TODAY_DAY + 100);
+        assertEquals(4, all.sessions);
+        assertEquals(3300, all.seconds);
+        assertEquals(3, all.scoredSessions);
+        assertEquals(60.0, all.averageFocus(), 1e-9);
+
+        DayIndex.Totals today = index.query(TODAY_DAY, TODAY_DAY);
+        assertEquals(2, today.sessions);
+        assertEquals(70.0, today.averageFocus(), 1e-9);
+
+        index.remove(TODAY_DAY, 300, 60f);
+        today = index.query(TODAY_DAY, TODAY_DAY);
+        assertEquals(1, today.sessions);
+        assertEquals(1500, today.seconds);
+        assertEquals(80.0, today.averageFocus(), 1e-9);
+        assertTrue(Double.isNaN(index.query(TODAY_DAY - 40, TODAY_DAY - 40).averageFocus()));
+    }
+
+    @Test
+    public void incrementalUpdates_matchRebuild() {
+        Random rnd = new Random(5);
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int i = 0; i < 300; i++) sessions.add(session(TODAY_DAY - rnd.nextInt(200), 30, 50.0));
+        DayIndex index = DayIndex.build(SessionColumns.from(sessions, ZoneOffset.UTC));
+
+        for (int i = 0; i < 300; i++) {
+            int day = TODAY_DAY - 300 + rnd.nextInt(400);
+            int minutes = 1 + rnd.nextInt(90);
+            double score = rnd.nextInt(101);
+            sessions.add(session(day, minutes, score));
+            index.add(day, minutes * 60, (float) score);
+        }
+        SessionColumns c = SessionColumns.from(sessions, ZoneOffset.UTC);
+        DayIndex rebuilt = DayIndex.build(c);
+
+        for (int first = TODAY_DAY - 320; first < TODAY_DAY + 120; first += 17) {
+            for (int last = first; last < TODAY_DAY + 120; last += 29) {
+                assertTotals(scan(c, first, last), index.query(first, last));
+                assertTotals(scan(c, first, last), rebuilt.query(first, last));
+            }
+        }
+    }
+
+    // The scan before DayIndex: every document, its "yyyy-MM-dd" date compared as a string
+    private static int stringScan(List<Map<String, Object>> sessions, String firstDate, String lastDate) {
+        int n = 0;
+        for (Map<String, Object> s : sessions) {
+            String date = (String) s.get("date");
+            if (date.compareTo(firstDate) >= 0 && date.compareTo(lastDate) <= 0) n++;
+        }
+        return n;
+    }
+
+    /** Three sessions a day over the days before TODAY. */
+    private static List<Map<String, Object>> history(int days) {
+        Random rnd = new Random(days);
+        List<Map<String, Object>> sessions = new ArrayList<>(3 * days);
+        for (int d = 0; d < days; d++) {
+            for (int k = 0; k < 3; k++) sessions.add(session(TODAY_DAY - d, 5 + rnd.nextInt(120), 50.0));
+        }
+        return sessions;
+    }
+
+    private interface Query {
+        int run(int first, int last);
+    }
+
+    /** ns per month-long range query, best of a few rounds, ranges spread over the history. */
+    private static long nanosPerQuery(Query query, int days, int queries) {
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int q = 0; q < queries; q++) {
+                int first = TODAY_DAY - 30 - (int) ((long) q * (days - 31) / queries);
+                sink += query.run(first, first + 29);
+            }
+            best = Math.min(best, (System.nanoTime() - start) / queries);
+        }
+        assertEquals(5 * 30 * 3 * queries, sink);
+        return best;
+    }
+
+    @Test
+    public void benchmark_rangeQueriesBeatStringScan_andBarelyGrowWithDays() {
+        int smallDays = 2000, largeDays = 8000;
+        List<Map<String, Object>> small = history(smallDays);
+        List<Map<String, Object>> large = history(largeDays);
+        DayIndex smallIndex = DayIndex.build(SessionColumns.from(small, ZoneOffset.UTC));
+        DayIndex largeIndex = DayIndex.build(SessionColumns.from(large, ZoneOffset.UTC));
+
+        Query smallTree = (first, last) -> smallIndex.query(first, last).sessions;
+        Query largeTree = (first, last) -> largeIndex.query(first, last).sessions;
+        Query smallScan = (first, last) -> stringScan(small,
+                LocalDate.ofEpochDay(first).toString(), LocalDate.ofEpochDay(last).toString());
+        Query largeScan = (first, last) -> stringScan(large,
+                LocalDate.ofEpochDay(first).toString(), LocalDate.ofEpochDay(last).toString());
+
+        // Warm up
+        nanosPerQuery(smallTree, smallDays, 20_000);
+        nanosPerQuery(largeTree, largeDays, 20_000);
+        nanosPerQuery(smallScan, smallDays, 50);
+        nanosPerQuery(largeScan, largeDays, 50);
+
+        long smallTreeNs = nanosPerQuery(smallTree, smallDays, 20_000);
+        long largeTreeNs = nanosPerQuery(largeTree, largeDays, 20_000);
+        long smallScanNs = nanosPerQuery(smallScan, smallDays, 100);
+        long largeScanNs = nanosPerQuery(largeScan, largeDays, 100);
+
+        String times = "DayIndex " + smallTreeNs + " / " + largeTreeNs + " ns, scan "
+                + smallScanNs + " / " + largeScanNs + " ns at " + smallDays + " / " + largeDays + " days";
+        // 4x the days: the scan reads 4x the documents, the trees two more levels
+        assertTrue(times, largeScanNs > 2 * smallScanNs);
+        assertTrue(times, largeTreeNs < 2 * smallTreeNs);
+        assertTrue(times, largeTreeNs * 100 < largeScanNs);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DaySketchesTest {
+
+    private static final int TODAY = (int) LocalDate.of(2025, 3, 15).toEpochDay();
+
+    private static Map<String, Object> session(int epochDay, int minutes, Double focusScore) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("date", LocalDate.ofEpochDay(epochDay).toString());
+        s.put("duration", minutes + ":00");
+        if (focusScore != null) s.put("focusScore", focusScore);
+        return s;
+    }
+
+    @Test
+    public void weekDistribution_isMergeOfItsDays() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        // This week: 10..70 minutes, focus 40..100; the week before: long and unfocused
+        for (int i = 0; i < 7; i++) sessions.add(session(TODAY - i, 10 + 10 * i, 40.0 + 10 * i));
+        for (int i = 7; i < 14; i++) sessions.add(session(TODAY - i, 200, 5.0));
+        sessions.add(session(TODAY, 25, null));   // Unscored
+
+        DaySketches sketches = DaySketches.build(SessionColumns.from(sessions, ZoneOffset.UTC));
+        DaySketches.Distribution week = sketches.query(TODAY - 6, TODAY);
+
+        assertEquals(8, week.sessions);
+        assertEquals(7, week.scoredSessions);
+        assertEquals(30f, week.medianMinutes, 0f);   // 10 20 25 30 40 50 60 70
+        assertEquals(70f, week.p90Minutes, 0f);
+        assertEquals(70f, week.focusMedian, 0f);
+        assertEquals(50f, week.focusP25, 0f);
+
+        DaySketches.Distribution twoWeeks = sketches.query(TODAY - 13, TODAY);
+        assertEquals(15, twoWeeks.sessions);
+        assertEquals(200f, twoWeeks.p90Minutes, 0f);
+
+        DaySketches.Distribution none = sketches.query(TODAY + 1, TODAY + 7);
+        assertEquals(0, none.sessions);
+        assertTrue(Float.isNaN(none.medianMinutes));
+    }
+
+    @Test
+    public void memory_isBoundedByKeptDays() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int d = 0; d < 3650; d++) sessions.add(session(TODAY - d, 30, 80.0));
+        DaySketches sketches = DaySketches.build(SessionColumns.from(sessions, ZoneOffset.UTC));
+        assertEquals(DaySketches.KEPT_DAYS, sketches.keptDays());
+
+        // Live sessions move the window forward and fold the oldest days away
+        for (int d = 1; d <= 50; d++) sketches.add(TODAY + d, 60 * 60, 90f);
+        assertEquals(DaySketches.KEPT_DAYS, sketches.keptDays());
+
+        // All history is still counted once
+        assertEquals(3700, sketches.query(Integer.MIN_VALUE, TODAY + 50).sessions);
+        assertEquals(50, sketches.query(TODAY + 1, TODAY + 50).sessions);
+        assertEquals(60f, sketches.query(TODAY + 1, TODAY + 50).medianMinutes, 0f);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DistractionLogTest {
+
+    private static final DistractionType PHONE = DistractionType.PHONE;
+    private static final DistractionType AWAY = DistractionType.LOOKING_AWAY;
+
+    @Test
+    public void episodes_runFromFirstDistractedPollToFirstFocusedOne() {
+        DistractionLog log = new DistractionLog();
+        log.onSample(0, false, DistractionType.UNKNOWN, 0);
+        log.onSample(5000, true, PHONE, 0.4);
+        log.onSample(10000, true, PHONE, 0.9);
+        log.onSample(15000, true, PHONE, 0.6);
+        log.onSample(20000, false, DistractionType.UNKNOWN, 0);
+        log.onSample(25000, false, DistractionType.UNKNOWN, 0);
+
+        List<DistractionLog.Event> events = log.events();
+        assertEquals(1, events.size());
+        DistractionLog.Event e = events.get(0);
+        assertEquals(PHONE, e.type);
+        assertEquals(5000, e.startMs);
+        assertEquals(20000, e.endMs);
+        assertEquals(0.9f, e.severity, 1e-6f);
+
+        assertEquals(1, log.count(PHONE));
+        assertEquals(15000, log.millis(PHONE));
+        assertEquals(0, log.count(AWAY));
+        assertEquals(PHONE, log.top());
+    }
+
+    @Test
+    public void aChangeOfActivity_startsTheNextEpisode() {
+        DistractionLog log = new DistractionLog();
+        log.onSample(0, true, PHONE, 0.5);
+        log.onSample(5000, true, AWAY, 0.3);
+        log.onSample(30000, true, AWAY, 0.3);
+        log.onSample(35000, true, PHONE, 0.5);
+        log.close(40000);
+
+        assertEquals(3, log.events().size());
+        assertEquals(AWAY, log.events().get(1).type);
+        assertEquals(5000, log.events().get(1).startMs);
+        assertEquals(35000, log.events().get(1).endMs);
+        assertEquals(2, log.count(PHONE));
+        assertEquals(10000, log.millis(PHONE));
+        assertEquals(1, log.count(AWAY));
+        assertEquals(30000, log.millis(AWAY));
+        assertEquals(AWAY, log.top());   // Fewer episodes, more time
+    }
+
+    @Test
+    public void close_endsTheOpenEpisodeOnce() {
+        DistractionLog log = new DistractionLog();
+        assertTrue(log.isEmpty());
+        assertNull(log.top());
+        log.close(1000);   // Nothing open
+        assertTrue(log.isEmpty());
+
+        log.onSample(1000, true, DistractionType.ASLEEP, 1);
+        log.close(4000);
+        log.close(9000);
+        assertFalse(log.isEmpty());
+        assertEquals(1, log.count(DistractionType.ASLEEP));
+        assertEquals(3000, log.millis(DistractionType.ASLEEP));
+
+        // A clock that stepped back never makes a negative episode
+        log.onSample(8000, true, DistractionType.ASLEEP, 1);
+        log.close(7000);
+        assertEquals(3000, log.millis(DistractionType.ASLEEP));
+    }
+
+    @Test
+    public void pastMaxEvents_episodesAreStillCounted() {
+        DistractionLog log = new DistractionLog();
+        int episodes = DistractionLog.MAX_EVENTS + 50;
+        for (int i = 0; i < episodes; i++) {
+            log.onSample(10_000L * i, true, PHONE, 0.5);
+            log.onSample(10_000L * i + 2000, false, DistractionType.UNKNOWN, 0);
+        }
+        assertEquals(DistractionLog.MAX_EVENTS, log.events().size());
+        assertEquals(episodes, log.count(PHONE));
+        assertEquals(2000L * episodes, log.millis(PHONE));
+    }
+
+    @Test
+    public void add_keepsServerIntervalsAsTheyWereRecorded() {
+        DistractionLog log = new DistractionLog();
+        log.add(PHONE, 5000, 12000, 0.9);
+        log.add(AWAY, 20000, 21500, 0.3);
+        log.add(PHONE, 30000, 31000, 0.6);
+
+        assertEquals(3, log.events().size());
+        DistractionLog.Event e = log.events().get(1);
+        assertEquals(AWAY, e.type);
+        assertEquals(20000, e.startMs);
+        assertEquals(21500, e.endMs);
+        assertEquals(0.3f, e.severity, 1e-6f);
+        assertEquals(2, log.count(PHONE));
+        assertEquals(8000, log.millis(PHONE));
+        assertEquals(1500, log.millis(AWAY));
+        assertEquals(PHONE, log.top());
+
+        // An interval whose end came before its start counts as zero length
+        log.add(AWAY, 40000, 39000, 0.3);
+        assertEquals(1500, log.millis(AWAY));
+        assertEquals(2, log.count(AWAY));
+    }
+
+    @Test
+    public void merge_countsOverlappingSameTypeEpisodesOnce() {
+        DistractionLog camera = new DistractionLog();
+        camera.add(PHONE, 10_000, 20_000, 0.6);
+        camera.add(AWAY, 30_000, 35_000, 0.3);
+        DistractionLog phone = new DistractionLog();
+        phone.add(PHONE, 15_000, 25_000, 1.0);   // Overlaps the camera's phone episode
+        phone.add(PHONE, 32_000, 34_000, 1.0);   // Inside the away episode: another type
+
+        DistractionLog merged = DistractionLog.merge(camera, phone);
+
+        List<DistractionLog.Event> events = merged.events();
+        assertEquals(3, events.size());
+        assertEquals(10_000, events.get(0).startMs);
+        assertEquals(25_000, events.get(0).endMs);
+        assertEquals(1.0f, events.get(0).severity, 1e-6f);
+        assertEquals(AWAY, events.get(1).type);
+        assertEquals(PHONE, events.get(2).type);
+        assertEquals(32_000, events.get(2).startMs);
+
+        assertEquals(2, merged.count(PHONE));
+        assertEquals(15_000 + 2000, merged.millis(PHONE));
+        assertEquals(1, merged.count(AWAY));
+        assertEquals(5000, merged.millis(AWAY));
+
+        // Either side empty: the other comes through unchanged
+        DistractionLog alone = DistractionLog.merge(new DistractionLog(), camera);
+        assertEquals(2, alone.events().size());
+        assertEquals(10_000, alone.millis(PHONE));
+    }
+}
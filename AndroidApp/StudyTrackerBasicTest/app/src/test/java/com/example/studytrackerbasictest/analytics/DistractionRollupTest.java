@@ -0,0 +1,95 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DistractionRollupTest {
+
+    private static final int TODAY = (int) LocalDate.of(2025, 3, 15).toEpochDay();
+
+    private static Map<String, Object> session(int epochDay, int phoneEvents, int phoneSec,
+                                               int awayEvents, int awaySec) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("date", LocalDate.ofEpochDay(epochDay).toString());
+        s.put("duration", "30:00");
+        Map<String, Object> events = new HashMap<>();
+        Map<String, Object> seconds = new HashMap<>();
+        if (phoneEvents > 0) {
+            events.put("phone_distraction", phoneEvents);
+            seconds.put("phone_distraction", (long) phoneSec);   // Firestore hands back longs
+        }
+        if (awayEvents > 0) {
+            events.put("looking_away", awayEvents);
+            seconds.put("looking_away", awaySec);
+        }
+        s.put("distractionEvents", events);
+        s.put("distractionSeconds", seconds);
+        return s;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void columns_readPerTypeCounters() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(session(TODAY, 3, 90, 1, 20));
+        Map<String, Object> old = new HashMap<>();   // Saved before distractions were recorded
+        old.put("date", LocalDate.ofEpochDay(TODAY - 1).toString());
+        old.put("duration", "10:00");
+        sessions.add(old);
+        Map<String, Object> odd = session(TODAY, 0, 0, 0, 0);
+        ((Map<String, Object>) odd.get("distractionEvents")).put("new_kind", 2);
+        ((Map<String, Object>) odd.get("distractionEvents")).put("asleep", "many");
+        sessions.add(odd);
+
+        SessionColumns c = SessionColumns.from(sessions, ZoneOffset.UTC);
+        assertEquals(3, c.size);
+        assertEquals(0, c.distractionEvents(0, DistractionType.PHONE));   // Sorted: yesterday first
+        int withPhone = c.distractionEvents(1, DistractionType.PHONE) > 0 ? 1 : 2;
+        assertEquals(3, c.distractionEvents(withPhone, DistractionType.PHONE));
+        assertEquals(90, c.distractionSeconds(withPhone, DistractionType.PHONE));
+        assertEquals(1, c.distractionEvents(withPhone, DistractionType.LOOKING_AWAY));
+        assertEquals(20, c.distractionSeconds(withPhone, DistractionType.LOOKING_AWAY));
+        int other = 3 - withPhone;
+        assertEquals(2, c.distractionEvents(other, DistractionType.UNKNOWN));   // Unknown names fold into Other
+        assertEquals(0, c.distractionEvents(other, DistractionType.ASLEEP));
+    }
+
+    @Test
+    public void breakdown_sumsTheRangesDays() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int d = 0; d < 30; d++) sessions.add(session(TODAY - d, 2, 60, d % 3 == 0 ? 1 : 0, 100));
+        DistractionRollup rollup = DistractionRollup.build(SessionColumns.from(sessions, ZoneOffset.UTC));
+
+        DistractionRollup.Breakdown week = rollup.query(TODAY - 6, TODAY);
+        assertEquals(14, week.events(DistractionType.PHONE));
+        assertEquals(7 * 60, week.seconds(DistractionType.PHONE));
+        assertEquals(3, week.events(DistractionType.LOOKING_AWAY));   // Days 0, 3, 6
+        assertEquals(300, week.seconds(DistractionType.LOOKING_AWAY));
+        assertEquals(0, week.events(DistractionType.ASLEEP));
+        assertEquals(17, week.totalEvents());
+        assertEquals(720, week.totalSeconds());
+
+        assertEquals(60, rollup.query(TODAY - 29, TODAY).events(DistractionType.PHONE));
+        assertEquals(0, rollup.query(TODAY + 1, TODAY + 30).totalEvents());
+
+        rollup.add(TODAY + 1, DistractionType.ASLEEP, 1, 45);   // Outside the built range
+        assertEquals(45, rollup.query(TODAY, TODAY + 1).seconds(DistractionType.ASLEEP));
+    }
+
+    @Test
+    public void noSessions_meansAnEmptyBreakdown() {
+        DistractionRollup rollup = DistractionRollup.build(SessionColumns.from(new ArrayList<>(), ZoneOffset.UTC));
+        assertEquals(0, rollup.query(TODAY - 30, TODAY).totalEvents());
+        assertEquals(0, rollup.query(TODAY - 30, TODAY).totalSeconds());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FocusTimelineTest {
+
+    private static final long START = 1_741_000_000_000L;
+
+    // A realistic session: 5 s polls with network jitter, a drifting score, the odd distraction
+    private static final class Session {
+        final long[] times;
+        final double[] scores;
+        final boolean[] distracted;
+        final DistractionType[] activities;
+
+        Session(int n, long seed) {
+            Random rnd = new Random(seed);
+            times = new long[n];
+            scores = new double[n];
+            distracted = new boolean[n];
+            activities = new DistractionType[n];
+            double score = 80;
+            boolean away = false;
+            for (int i = 0; i < n; i++) {
+                times[i] = START + 5000L * i + rnd.nextInt(80);
+                if (rnd.nextInt(40) == 0) away = !away;
+                score = Math.max(0, Math.min(100, score + (away ? -3 : 1) * rnd.nextDouble()));
+                scores[i] = Math.round(score * 10) / 10.0;   // The telemetry's resolution
+                distracted[i] = away;
+                activities[i] = away ? DistractionType.LOOKING_AWAY : DistractionType.UNKNOWN;
+            }
+        }
+
+        byte[] encode() {
+            FocusTimeline.Encoder encoder = new FocusTimeline.Encoder();
+            for (int i = 0; i < times.length; i++) encoder.add(times[i], scores[i], distracted[i], activities[i]);
+            assertEquals(times.length, encoder.count());
+            return encoder.toByteArray();
+        }
+    }
+
+    private static void assertMatches(Session s, FocusTimeline t) {
+        assertEquals(s.times.length, t.size());
+        for (int i = 0; i < t.size(); i++) {
+            assertEquals("time " + i, s.times[i], t.timeMs(i));
+            assertEquals("score " + i, s.scores[i], t.score(i), 1e-4);
+            assertEquals("distracted " + i, s.distracted[i], t.distracted(i));
+            assertEquals("activity " + i, s.activities[i], t.activity(i));
+        }
+    }
+
+    @Test
+    public void roundTrip_isExactToTelemetryResolution() throws IOException {
+        Session s = new Session(720, 1);   // An hour
+        assertMatches(s, FocusTimeline.decode(s.encode()));
+    }
+
+    @Test
+    public void edgeCases_roundTrip() throws IOException {
+        FocusTimeline.Encoder encoder = new FocusTimeline.Encoder();
+        long[] times = {START, START + 5000, START + 10000, START + 10000, START + 9000,
+                START + 3_600_000, START + 3_600_064, START + 3_602_111, START + 3_610_000};
+        double[] scores = {100, 100, 0, 0.1, 99.9, 55.5, 55.5, 12.3, 100};
+        DistractionType[] types = DistractionType.values();
+        for (int i = 0; i < times.length; i++) {
+            encoder.add(times[i], scores[i], i % 2 == 1, types[i % types.length]);
+        }
+
+        FocusTimeline t = FocusTimeline.decode(encoder.toByteArray());
+        assertEquals(times.length, t.size());
+        for (int i = 0; i < times.length; i++) {
+            assertEquals(times[i], t.timeMs(i));
+            assertEquals(scores[i], t.score(i), 1e-4);
+            assertEquals(i % 2 == 1, t.distracted(i));
+            assertEquals(types[i % types.length], t.activity(i));
+        }
+
+        FocusTimeline.Encoder one = new FocusTimeline.Encoder();
+        one.add(START, 42.4, true, DistractionType.PHONE);
+        FocusTimeline single = FocusTimeline.decode(one.toByteArray());
+        assertEquals(1, single.size());
+        assertEquals(DistractionType.PHONE, single.activity(0));
+
+        assertEquals(0, FocusTimeline.decode(new FocusTimeline.Encoder().toByteArray()).size());
+    }
+
+    @Test
+    public void damagedBlobs_areRejected() {
+        byte[] blob = new Session(100, 2).encode();
+        byte[][] bad = {
+                new byte[3],
+                Arrays.copyOf(blob, blob.length / 2),
+                withByte(blob, 0, 9),                  // Version
+                withByte(blob, 1, 0x7F),               // Count far beyond the data
+        };
+        for (byte[] b : bad) {
+            try {
+                FocusTimeline.decode(b);
+                fail("decoded " + b.length + " bytes");
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    private static byte[] withByte(byte[] blob, int index, int value) {
+        byte[] copy = blob.clone();
+        copy[index] = (byte) value;
+        return copy;
+    }
+
+    @Test
+    public void compressionAndThroughput() throws IOException {
+        Session s = new Session(7200, 3);   // Ten hours
+        byte[] blob = s.encode();
+        int raw = s.times.length * (8 + 8 + 1 + 1);   // long, double, flag, activity code
+        double perSample = (double) blob.length / s.times.length;
+        assertTrue(perSample + " bytes/sample", perSample < 3);
+        assertTrue(raw / blob.length + "x vs raw", raw > 6 * blob.length);
+
+        int iterations = 200;
+        for (int i = 0; i < iterations; i++) FocusTimeline.decode(s.encode());   // Warm-up
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) s.encode();
+        long encodeNs = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) FocusTimeline.decode(blob);
+        long decodeNs = System.nanoTime() - start;
+
+        // A ten-hour session is 7200 samples; a microsecond each keeps save and replay well under a frame
+        long samples = (long) iterations * s.times.length;
+        assertTrue("encode " + encodeNs / samples + " ns/sample", encodeNs / samples < 1000);
+        assertTrue("decode " + decodeNs / samples + " ns/sample", decodeNs / samples < 1000);
+    }
+}
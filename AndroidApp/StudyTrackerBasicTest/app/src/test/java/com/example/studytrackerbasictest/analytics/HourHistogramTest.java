@@ -0,0 +1,171 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HourHistogramTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 15);
+    private static final int EPOCH_DAY = (int) DAY.toEpochDay();
+
+    private static long at(LocalDate date, int hour, int minute, ZoneId zone) {
+        return date.atTime(hour, minute).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static long at(int hour, int minute) {
+        return at(DAY, hour, minute, ZoneOffset.UTC);
+    }
+
+    @Test
+    public void session_isSplitAcrossHours() {
+        HourHistogram h = new HourHistogram(ZoneOffset.UTC);
+        assertTrue(h.add("s1", at(10, 40), at(12, 15), 50));
+
+        double[] mins = new double[24], weighted = new double[24];
+        h.query(EPOCH_DAY, EPOCH_DAY, mins, weighted);
+
+        assertEquals(20, mins[10], 1e-9);
+        assertEquals(60, mins[11], 1e-9);
+        assertEquals(15, mins[12], 1e-9);
+        assertEquals(0, mins[13], 1e-9);
+        assertEquals(30, weighted[11], 1e-9);
+    }
+
+    @Test
+    public void session_isSplitAtMidnight() {
+        HourHistogram h = new HourHistogram(ZoneOffset.UTC);
+        h.add("s1", at(23, 30), at(DAY.plusDays(1), 0, 45, ZoneOffset.UTC), 100);
+
+        double[] mins = new double[24], weighted = new double[24];
+        h.query(EPOCH_DAY, EPOCH_DAY, mins, weighted);
+        assertEquals(30, mins[23], 1e-9);
+        assertEquals(0, mins[0], 1e-9);
+
+        h.query(EPOCH_DAY + 1, EPOCH_DAY + 1, mins, weighted);
+        assertEquals(45, mins[0], 1e-9);
+        assertEquals(0, mins[23], 1e-9);
+    }
+
+    @Test
+    public void localHours_followTheZone() {
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        HourHistogram h = new HourHistogram(tokyo);
+        h.add("s1", at(DAY, 9, 0, tokyo), at(DAY, 10, 0, tokyo), 80);
+
+        double[] mins = new double[24], weighted = new double[24];
+        h.query(EPOCH_DAY, EPOCH_DAY, mins, weighted);
+        assertEquals(60, mins[9], 1e-9);
+        assertEquals(48, weighted[9], 1e-9);
+    }
+
+    @Test
+    public void ignoresUnscored_invalid_andDuplicates() {
+        HourHistogram h = new HourHistogram(ZoneOffset.UTC);
+        assertFalse(h.add("a", at(9, 0), at(10, 0), Double.NaN));
+        assertFalse(h.add("b", 0, at(10, 0), 50));
+        assertFalse(h.add("c", at(10, 0), at(9, 0), 50));
+        assertFalse(h.add("d", at(9, 0), at(9, 0) + 2 * 86_400_000L, 50));
+        assertTrue(h.isEmpty());
+
+        assertTrue(h.add("s1", at(9, 0), at(10, 0), 50));
+        assertFalse(h.add("s1", at(9, 0), at(10, 0), 50));   // Same session seen again on reload
+        assertTrue(h.add("s2", at(9, 0), at(9, 30), 50));    // Another session starting at the same time
+
+        double[] mins = new double[24], weighted = new double[24];
+        h.query(EPOCH_DAY, EPOCH_DAY, mins, weighted);
+        assertEquals(90, mins[9], 1e-9);
+    }
+
+    private static Map<String, Object> doc(String id, long startMs, long endMs, double focusScore) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("id", id);
+        s.put("date", Instant.ofEpochMilli(startMs).atZone(ZoneOffset.UTC).toLocalDate().toString());
+        s.put("duration", "00:00");
+        s.put("startedAt", startMs);
+        s.put("endedAt", endMs);
+        s.put("focusScore", focusScore);
+        return s;
+    }
+
+    @Test
+    public void build_matchesAddingOneByOne_andKnowsTheLoadedIds() {
+        Random rnd = new Random(11);
+        List<Map<String, Object>> docs = new ArrayList<>();
+        HourHistogram oneByOne = new HourHistogram(ZoneOffset.UTC);
+        for (int i = 0; i < 500; i++) {
+            long start = at(DAY.plusDays(rnd.nextInt(90)), rnd.nextInt(24), rnd.nextInt(60), ZoneOffset.UTC);
+            long end = start + (10 + rnd.nextInt(200)) * 60_000L;
+            double score = 100 * rnd.nextDouble();
+            docs.add(doc("s" + i, start, end, score));
+            oneByOne.add("s" + i, start, end, score);
+        }
+        docs.add(docs.get(0));   // The same document twice
+
+        HourHistogram built = HourHistogram.build(SessionColumns.from(docs, ZoneOffset.UTC), ZoneOffset.UTC);
+
+        double[] mins = new double[24], weighted = new double[24];
+        double[] expectedMins = new double[24], expectedWeighted = new double[24];
+        for (int first = -1; first < 95; first += 6) {
+            for (int last = first; last < 95; last += 13) {
+                built.query(EPOCH_DAY + first, EPOCH_DAY + last, mins, weighted);
+                oneByOne.query(EPOCH_DAY + first, EPOCH_DAY + last, expectedMins, expectedWeighted);
+                // Same sums, added in another order
+                assertArrayEquals(expectedMins, mins, 1e-4);
+                assertArrayEquals(expectedWeighted, weighted, 1e-4);
+            }
+        }
+
+        // A session recorded live after the load that already had it
+        Map<String, Object> first = docs.get(0);
+        assertFalse(built.add("s0", (Long) first.get("startedAt"), (Long) first.get("endedAt"), 50));
+        assertTrue(built.add("live", at(DAY.plusDays(200), 9, 0, ZoneOffset.UTC),
+                at(DAY.plusDays(200), 10, 0, ZoneOffset.UTC), 50));
+        built.query(EPOCH_DAY + 200, EPOCH_DAY + 200, mins, weighted);
+        assertEquals(60, mins[9], 1e-9);
+    }
+
+    @Test
+    public void rangeQuery_matchesBruteForce_inAnyInsertionOrder() {
+        Random rnd = new Random(7);
+        int spanDays = 60;
+        double[][] expected = new double[spanDays][24];
+        HourHistogram h = new HourHistogram(ZoneOffset.UTC);
+
+        // Sessions inside one hour on random days, added out of date order so rows are prepended too
+        for (int i = 0; i < 300; i++) {
+            int d = rnd.nextInt(spanDays);
+            int hour = rnd.nextInt(24);
+            long start = at(DAY.plusDays(d), hour, 0, ZoneOffset.UTC) + i;   // Distinct start times
+            h.add("s" + i, start, start + 3_600_000L - i, 100);
+            expected[d][hour] += (3_600_000.0 - i) / 60_000.0;   // Ends on the hour
+        }
+
+        double[] mins = new double[24], weighted = new double[24];
+        for (int first = 0; first < spanDays; first += 7) {
+            for (int last = first; last < spanDays; last += 11) {
+                h.query(EPOCH_DAY + first, EPOCH_DAY + last, mins, weighted);
+                for (int hour = 0; hour < 24; hour++) {
+                    double sum = 0;
+                    for (int d = first; d <= last; d++) sum += expected[d][hour];
+                    assertEquals(sum, mins[hour], 1e-6);
+                    assertEquals(sum, weighted[hour], 1e-6);
+                }
+            }
+        }
+
+        // Ranges reaching past the stored days are clamped
+        h.query(EPOCH_DAY - 100, EPOCH_DAY - 1, mins, weighted);
+        for (double m : mins) assertEquals(0, m, 1e-9);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class KllSketchTest {
+
+    private static float exact(float[] sorted, double q) {
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    // Rank error: the fraction of values below the estimate should be close to q
+    private static void assertRankClose(float[] sorted, double q, float estimate, double tolerance) {
+        int below = 0;
+        while (below < sorted.length && sorted[below] <= estimate) below++;
+        assertEquals("q=" + q, q, (double) below / sorted.length, tolerance);
+    }
+
+    @Test
+    public void smallSketch_isExact() {
+        KllSketch sketch = new KllSketch();
+        float[] values = {25, 50, 10, 45, 30, Float.NaN};
+        for (float v : values) sketch.add(v);
+
+        assertEquals(5, sketch.count());
+        assertEquals(10f, sketch.quantile(0), 0f);
+        assertEquals(30f, sketch.quantile(0.5), 0f);
+        assertEquals(50f, sketch.quantile(1), 0f);
+        assertEquals(0.6, sketch.rank(30), 1e-9);
+        assertTrue(Float.isNaN(new KllSketch().quantile(0.5)));
+    }
+
+    @Test
+    public void largeStream_staysWithinRankErrorAndMemory() {
+        Random rnd = new Random(1);
+        int n = 200_000;
+        float[] values = new float[n];
+        KllSketch sketch = new KllSketch();
+        for (int i = 0; i < n; i++) {
+            values[i] = (float) Math.abs(25 + 15 * rnd.nextGaussian());   // Session minutes
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            assertRankClose(values, q, sketch.quantile(q), 0.02);
+        }
+        assertEquals(values[0], sketch.quantile(0), 0f);
+        assertEquals(values[n - 1], sketch.quantile(1), 0f);
+        assertTrue("retained " + sketch.retained(), sketch.retained() < 3 * KllSketch.DEFAULT_K + 64);
+    }
+
+    @Test
+    public void mergedDailySketches_matchOneBigSketch() {
+        Random rnd = new Random(2);
+        KllSketch merged = new KllSketch();
+        float[] all = new float[30 * 400];
+        int n = 0;
+        for (int day = 0; day < 30; day++) {
+            KllSketch daily = new KllSketch(64);
+            for (int i = 0; i < 400; i++) {
+                float v = rnd.nextInt(101);   // Focus scores
+                daily.add(v);
+                all[n++] = v;
+            }
+            merged.merge(daily);
+        }
+        Arrays.sort(all);
+
+        assertEquals(all.length, merged.count());
+        for (double q : new double[]{0.25, 0.5, 0.75, 0.9}) {
+            assertEquals("q=" + q, exact(all, q), merged.quantile(q), 4f);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LttbTest {
+
+    private static float[] ramp(int n) {
+        float[] x = new float[n];
+        for (int i = 0; i < n; i++) x[i] = i;
+        return x;
+    }
+
+    @Test
+    public void shortSeries_isKeptWhole() {
+        float[] x = ramp(5);
+        float[] y = {1, 2, 3, 4, 5};
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Lttb.select(x, y, 5, 5));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Lttb.select(x, y, 5, 2));
+        assertArrayEquals(new int[]{0, 1, 2}, Lttb.select(x, y, 3, 100));
+    }
+
+    @Test
+    public void downsampled_keepsEndsAndPeaks() {
+        int n = 1000;
+        float[] x = ramp(n);
+        float[] y = new float[n];
+        Random rnd = new Random(3);
+        for (int i = 0; i < n; i++) y[i] = 50 + rnd.nextFloat();
+        y[377] = 100;   // A single great day
+        y[712] = 0;     // And a missed one
+
+        int[] kept = Lttb.select(x, y, n, 50);
+        assertEquals(50, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(n - 1, kept[49]);
+        boolean peak = false, dip = false;
+        for (int i = 0; i < kept.length; i++) {
+            if (i > 0) assertTrue(kept[i] > kept[i - 1]);
+            peak |= kept[i] == 377;
+            dip |= kept[i] == 712;
+        }
+        assertTrue(peak);
+        assertTrue(dip);
+    }
+
+    @Test
+    public void renderPrep_isLinearInSeriesLength() {
+        // Time per input point must stay roughly flat from 36.5k to 3.65M points; a
+        // quadratic pass would be ~100x slower per point at the top end
+        Random rnd = new Random(4);
+        double smallest = 0;
+        for (int n : new int[]{36_500, 365_000, 3_650_000}) {
+            float[] x = ramp(n);
+            float[] y = new float[n];
+            for (int i = 0; i < n; i++) y[i] = 100 * rnd.nextFloat();
+
+            int iterations = Math.max(3, 2_000_000 / n);
+            for (int i = 0; i < iterations; i++) Trend.points(x, y, n, 300);   // Warm-up
+            long start = System.nanoTime();
+            float[] pairs = null;
+            for (int i = 0; i < iterations; i++) pairs = Trend.points(x, y, n, 300);
+            double nsPerPoint = (double) (System.nanoTime() - start) / iterations / n;
+
+            assertEquals(600, pairs.length);
+            if (smallest == 0) smallest = nsPerPoint;
+            assertTrue(n + " points: " + nsPerPoint + " ns/point vs " + smallest, nsPerPoint < 10 * smallest);
+        }
+    }
+}
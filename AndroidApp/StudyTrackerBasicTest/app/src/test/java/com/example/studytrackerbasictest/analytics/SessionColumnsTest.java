@@ -0,0 +1,96 @@
+package com.example.studytrackerbasictest.analytics;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SessionColumnsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 15);
+
+    private static Map<String, Object> session(LocalDate date, int startHour, int startMinute, int minutes) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("date", date.toString());
+        s.put("duration", minutes + ":00");
+        long start = date.atTime(startHour, startMinute).toInstant(ZoneOffset.UTC).toEpochMilli();
+        s.put("startedAt", start);
+        s.put("endedAt", start + minutes * 60_000L);
+        return s;
+    }
+
+    @Test
+    public void sortedByDayThenStart() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(session(DAY, 14, 0, 30));
+        sessions.add(session(DAY.minusDays(1), 20, 0, 10));
+        sessions.add(session(DAY, 9, 15, 45));
+        Map<String, Object> untimed = new HashMap<>();
+        untimed.put("date", DAY.toString());
+        untimed.put("duration", "5:00");
+        sessions.add(untimed);
+
+        SessionColumns c = SessionColumns.from(sessions, ZoneOffset.UTC);
+
+        assertEquals(4, c.size);
+        assertEquals(DAY.minusDays(1).toEpochDay(), c.epochDay(0));
+        assertEquals(SessionColumns.NO_MINUTE, c.startMinute(1));   // Unknown start sorts first
+        assertEquals(9 * 60 + 15, c.startMinute(2));
+        assertEquals(45 * 60, c.durationSeconds(2));
+        assertEquals(14 * 60, c.startMinute(3));
+        assertTrue(Float.isNaN(c.focusScore(3)));
+    }
+
+    @Test
+    public void rangeSlicing_matchesLinearScan() {
+        Random rnd = new Random(3);
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            sessions.add(session(DAY.minusDays(rnd.nextInt(400)), rnd.nextInt(24), rnd.nextInt(60), 25));
+        }
+        Collections.shuffle(sessions, rnd);
+        SessionColumns c = SessionColumns.from(sessions, ZoneOffset.UTC);
+
+        for (int i = 1; i < c.size; i++) assertTrue(c.epochDay(i - 1) <= c.epochDay(i));
+
+        int today = (int) DAY.toEpochDay();
+        for (int back : new int[]{0, 6, 29, 399, 1000}) {
+            int first = today - back;
+            int expected = 0;
+            for (int i = 0; i < c.size; i++) if (c.epochDay(i) >= first && c.epochDay(i) <= today) expected++;
+            assertEquals(expected, c.endIndexOf(today) - c.firstIndexOf(first));
+        }
+        assertEquals(c.size, c.firstIndexOf(today + 1));
+        assertEquals(0, c.endIndexOf(today - 400));
+    }
+
+    @Test
+    public void distractionAndMalformedFields() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        Map<String, Object> s = session(DAY, 10, 0, 20);
+        s.put("topDistraction", "phone_distraction");
+        s.put("focusScore", 72L);
+        sessions.add(s);
+        sessions.add(session(DAY, 11, 0, 20));
+        Map<String, Object> noDate = session(DAY, 12, 0, 20);
+        noDate.remove("date");
+        sessions.add(noDate);
+
+        SessionColumns c = SessionColumns.from(sessions, ZoneOffset.UTC);
+
+        assertEquals(2, c.size);   // Undated documents are dropped
+        assertEquals(DistractionType.PHONE.code, c.distraction(0));
+        assertEquals(72f, c.focusScore(0), 0f);
+        assertEquals(SessionColumns.NO_DISTRACTION, c.distraction(1));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StudyDayBitmapTest {
+
+    private static final int TODAY = (int) LocalDate.of(2025, 3, 15).toEpochDay();
+
+    @Test
+    public void currentStreak_allowsTodayToBeMissing() {
+        StudyDayBitmap days = new StudyDayBitmap();
+        for (int d = 1; d <= 10; d++) days.set(TODAY - d);
+
+        assertEquals(10, days.currentStreak(TODAY));
+        days.set(TODAY);
+        assertEquals(11, days.currentStreak(TODAY));
+        assertEquals(0, days.currentStreak(TODAY + 2));   // Yesterday missed
+    }
+
+    @Test
+    public void currentStreak_countsADayAheadAsToday() {
+        // Saved as the 16th in one zone, opened where it is still the 15th
+        StudyDayBitmap days = new StudyDayBitmap();
+        days.set(TODAY);
+        days.set(TODAY + 1);
+        assertEquals(2, days.currentStreak(TODAY));
+    }
+
+    @Test
+    public void set_reportsChanges() {
+        StudyDayBitmap days = new StudyDayBitmap();
+        assertTrue(days.set(TODAY));
+        int version = days.version();
+        assertFalse(days.set(TODAY));
+        assertEquals(version, days.version());
+        assertTrue(days.contains(TODAY));
+        assertFalse(days.contains(TODAY - 1));
+        assertFalse(days.contains(Integer.MIN_VALUE));
+        assertFalse(days.set(TODAY + 200 * 366));   // Absurd date is refused, not allocated
+    }
+
+    @Test
+    public void streaks_matchBruteForce_overMultiYearHistories() {
+        for (int seed = 0; seed < 50; seed++) {
+            Random rnd = new Random(seed);
+            int span = 365 * (1 + rnd.nextInt(10));
+            int first = TODAY - span + 1;
+            double density = 0.3 + 0.69 * rnd.nextDouble();
+            BitSet expected = new BitSet();
+            StudyDayBitmap days = new StudyDayBitmap();
+
+            // Random insertion order, so the bitmap grows in both directions
+            for (int i = 0; i < span; i++) {
+                int d = first + rnd.nextInt(span);
+                if (rnd.nextDouble() < density) {
+                    days.set(d);
+                    expected.set(d - first);
+                }
+            }
+            // A long run crossing word boundaries
+            int runStart = rnd.nextInt(span / 2);
+            for (int d = runStart; d < runStart + 150 && d < span; d++) {
+                days.set(first + d);
+                expected.set(d);
+            }
+
+            assertEquals("seed " + seed, bruteLongest(expected), days.longestStreak());
+            for (int t = span - 1; t >= span - 40; t--) {
+                assertEquals("seed " + seed, bruteCurrent(expected, t), days.currentStreak(first + t));
+            }
+        }
+    }
+
+    @Test
+    public void encode_roundTrips() {
+        StudyDayBitmap days = new StudyDayBitmap();
+        for (int d = 0; d < 3650; d += 3) days.set(TODAY - d);
+        days.set(-5);   // Before 1970: negative epoch day
+
+        StudyDayBitmap copy = StudyDayBitmap.decode(days.encode());
+        assertEquals(days.longestStreak(), copy.longestStreak());
+        for (int d = 0; d < 3650; d++) assertEquals(days.contains(TODAY - d), copy.contains(TODAY - d));
+        assertTrue(copy.contains(-5));
+
+        assertFalse(StudyDayBitmap.decode(null).contains(TODAY));
+        assertFalse(StudyDayBitmap.decode("1:12:***").contains(TODAY));
+        assertFalse(StudyDayBitmap.decode("garbage").contains(TODAY));
+    }
+
+    @Test
+    public void tenYearsOfDailyStudy() {
+        StudyDayBitmap days = new StudyDayBitmap();
+        for (int d = 0; d < 3653; d++) days.set(TODAY - d);
+
+        // Ten years is 58 words; each call scans them, not 3653 days
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(3653, days.currentStreak(TODAY));
+            assertEquals(3653, days.longestStreak());
+        }
+        assertTrue(days.encode().length() < 700);
+    }
+
+    private static int bruteLongest(BitSet set) {
+        int best = 0, run = 0;
+        for (int i = 0; i <= set.length(); i++) {
+            run = set.get(i) ? run + 1 : 0;
+            best = Math.max(best, run);
+        }
+        return best;
+    }
+
+    private static int bruteCurrent(BitSet set, int today) {
+        int end = set.get(today + 1) ? today + 1 : set.get(today) ? today : today - 1;
+        int run = 0;
+        while (end >= 0 && set.get(end)) {
+            run++;
+            end--;
+        }
+        return run;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.studytrackerbasictest.analytics;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TrendTest {
+
+    private static final int TODAY = (int) LocalDate.of(2025, 3, 15).toEpochDay();
+
+    private static Map<String, Object> session(int epochDay, int minutes, Double focusScore) {
+        Map<String, Object> s = new HashMap<>();
+        s.put("date", LocalDate.ofEpochDay(epochDay).toString());
+        s.put("duration", minutes + ":00");
+        if (focusScore != null) s.put("focusScore", focusScore);
+        return s;
+    }
+
+    private static DayIndex index(List<Map<String, Object>> sessions) {
+        return DayIndex.build(SessionColumns.from(sessions, ZoneOffset.UTC));
+    }
+
+    @Test
+    public void shortPeriods_showDailyMonth() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int d = 0; d < 60; d++) sessions.add(session(TODAY - d, 30, d % 2 == 0 ? 80.0 : null));
+        sessions.add(session(TODAY, 20, 40.0));
+
+        Trend trend = Trend.build(index(sessions), TODAY, TODAY);   // The Today tab
+        assertEquals(Trend.Granularity.DAY, trend.granularity);
+        assertEquals(Trend.MIN_DAYS, trend.size());
+        assertEquals(TODAY - Trend.MIN_DAYS + 1, trend.bucketStart(0));
+        assertEquals(TODAY, trend.bucketStart(trend.size() - 1));
+        assertEquals(50f, trend.minutes(trend.size() - 1), 1e-4f);
+        assertEquals(60f, trend.focus(trend.size() - 1), 1e-4f);
+        assertTrue(Float.isNaN(trend.focus(trend.size() - 2)));
+
+        // Unscored days are left out of the focus line but not the minutes line
+        assertEquals(2 * Trend.MIN_DAYS, trend.minutesPoints(1000).length);
+        assertEquals(2 * (Trend.MIN_DAYS / 2), trend.focusPoints(1000).length);
+    }
+
+    @Test
+    public void trend_startsAtFirstData() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        sessions.add(session(TODAY - 100, 30, 50.0));
+        Trend trend = Trend.build(index(sessions), TODAY - 5000, TODAY);
+        assertEquals(Trend.Granularity.DAY, trend.granularity);
+        assertEquals(TODAY - 100, trend.bucketStart(0));
+        assertEquals(101, trend.size());
+
+        Trend empty = Trend.build(index(new ArrayList<>()), TODAY - 6, TODAY);
+        assertEquals(Trend.MIN_DAYS, empty.size());
+        assertEquals(0, empty.focusPoints(100).length);
+    }
+
+    @Test
+    public void longRanges_useWeeksThenMonths() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        for (int d = 0; d < 3650; d++) sessions.add(session(TODAY - d, 60, 70.0));
+        DayIndex index = index(sessions);
+
+        Trend weekly = Trend.build(index, TODAY - 729, TODAY);
+        assertEquals(Trend.Granularity.WEEK, weekly.granularity);
+        float total = 0;
+        for (int i = 0; i < weekly.size(); i++) {
+            if (i > 0) {
+                assertEquals(DayOfWeek.MONDAY, LocalDate.ofEpochDay(weekly.bucketStart(i)).getDayOfWeek());
+                if (i < weekly.size() - 1) assertEquals(7 * 60f, weekly.minutes(i), 1e-3f);
+            }
+            total += weekly.minutes(i);
+        }
+        assertEquals(730 * 60f, total, 1e-1f);
+
+        Trend monthly = Trend.build(index, TODAY - 3649, TODAY);
+        assertEquals(Trend.Granularity.MONTH, monthly.granularity);
+        assertEquals(1, LocalDate.ofEpochDay(monthly.bucketStart(1)).getDayOfMonth());
+        assertEquals(121, monthly.size());   // Mar 2015 .. Mar 2025
+        assertEquals(70f, monthly.focus(50), 1e-4f);
+
+        // Render prep never hands the chart more than it asked for
+        assertEquals(2 * 40, monthly.minutesPoints(40).length);
+        assertEquals(2 * 40, monthly.focusPoints(40).length);
+    }
+}
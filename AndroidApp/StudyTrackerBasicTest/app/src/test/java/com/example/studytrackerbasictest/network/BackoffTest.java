@@ -0,0 +1,41 @@
+package com.example.studytrackerbasictest.network;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BackoffTest {
+
+    @Test
+    public void delays_stayWithinJitterWindow() {
+        Backoff backoff = new Backoff(1000, 30000, 2.0, new Random(42));
+        long step = 1000;
+        for (int i = 0; i < 10; i++) {
+            long delay = backoff.nextDelayMs();
+            assertTrue("attempt " + i + " too short: " + delay, delay >= step / 2);
+            assertTrue("attempt " + i + " too long: " + delay, delay <= step);
+            step = Math.min(30000, step * 2);
+        }
+    }
+
+    @Test
+    public void delays_areCappedAtMax() {
+        Backoff backoff = new Backoff(500, 8000, 2.0, new Random(7));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(backoff.nextDelayMs() <= 8000);
+        }
+    }
+
+    @Test
+    public void reset_restartsFromBase() {
+        Backoff backoff = new Backoff(1000, 60000, 2.0, new Random(1));
+        for (int i = 0; i < 5; i++) backoff.nextDelayMs();
+        assertEquals(5, backoff.attempts());
+
+        backoff.reset();
+        assertEquals(0, backoff.attempts());
+        assertTrue(backoff.nextDelayMs() <= 1000);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.studytrackerbasictest.network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void tripsAfterThresholdConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void successResetsFailureRun() {
+        CircuitBreaker breaker = new CircuitBreaker(3);
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void listenersSeeEachTransitionOnce() {
+        CircuitBreaker breaker = new CircuitBreaker(2);
+        List<CircuitBreaker.State> seen = new ArrayList<>();
+        breaker.addListener(seen::add);
+
+        // Server goes down, keeps failing, then a probe succeeds
+        for (int i = 0; i < 5; i++) breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordSuccess();
+
+        assertEquals(2, seen.size());
+        assertEquals(CircuitBreaker.State.OPEN, seen.get(0));
+        assertEquals(CircuitBreaker.State.CLOSED, seen.get(1));
+    }
+
+    @Test
+    public void toggledServer_opensAndClosesRepeatedly() {
+        CircuitBreaker breaker = new CircuitBreaker(3);
+        for (int cycle = 0; cycle < 4; cycle++) {
+            for (int i = 0; i < 3; i++) breaker.recordFailure();
+            assertFalse(breaker.allowRequest());
+            breaker.recordSuccess();
+            assertTrue(breaker.allowRequest());
+        }
+    }
+
+    @Test
+    public void afterCooldown_letsExactlyOneTrialThrough() {
+        long[] now = {0};
+        CircuitBreaker breaker = new CircuitBreaker(2, 1000, () -> now[0]);
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        now[0] = 999;
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, breaker.msUntilTrial());
+
+        now[0] = 1000;
+        assertTrue("the trial", breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse("only one trial at a time", breaker.allowRequest());
+    }
+
+    @Test
+    public void failedTrial_reopensForAnotherCooldownWithoutNotifying() {
+        long[] now = {0};
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, () -> now[0]);
+        List<CircuitBreaker.State> seen = new ArrayList<>();
+        breaker.addListener(seen::add);
+        breaker.recordFailure();
+
+        now[0] = 1500;
+        assertTrue(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        now[0] = 2000;
+        assertFalse("cooldown restarts at the failed trial", breaker.allowRequest());
+
+        now[0] = 2500;
+        assertTrue(breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+        assertEquals(List.of(CircuitBreaker.State.OPEN, CircuitBreaker.State.CLOSED), seen);
+    }
+
+    @Test
+    public void lostTrial_isReplacedAfterAnotherCooldown() {
+        long[] now = {0};
+        CircuitBreaker breaker = new CircuitBreaker(1, 1000, () -> now[0]);
+        breaker.recordFailure();
+        now[0] = 1000;
+        assertTrue(breaker.allowRequest());   // Cancelled, never reports back
+
+        now[0] = 1999;
+        assertFalse(breaker.allowRequest());
+        now[0] = 2000;
+        assertTrue(breaker.allowRequest());
+    }
+}
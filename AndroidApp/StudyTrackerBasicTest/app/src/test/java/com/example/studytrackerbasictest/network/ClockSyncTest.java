@@ -0,0 +1,102 @@
+package com.example.studytrackerbasictest.network;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ClockSyncTest {
+
+    // Server runs 50 ppm fast and is ~55 years ahead (epoch ms vs. uptime ms)
+    private static final double SKEW = 1 + 50e-6;
+    private static final long OFFSET = 1_760_000_000_000L;
+
+    private static long serverAt(double localMs) {
+        return (long) Math.floor(localMs * SKEW + OFFSET);
+    }
+
+    /** Polls every 2 s for 5 minutes over a jittery, asymmetric link; returns the last local time. */
+    private static long simulate(ClockSync clock, Random random) {
+        double local = 3_600_000;
+        for (int i = 0; i < 150; i++) {
+            double up = 4 + exponential(random, 8);
+            double down = 2 + exponential(random, 15);
+            if (random.nextInt(10) == 0) up += 150 + random.nextInt(300);   // Wi-Fi stalls
+            if (random.nextInt(10) == 0) down += 150 + random.nextInt(300);
+            double processing = 1 + random.nextInt(25);
+
+            long t0 = (long) local;
+            long t1 = serverAt(local + up);
+            long t2 = serverAt(local + up + processing);
+            long t3 = (long) (local + up + processing + down);
+            clock.addSample(t0, t1, t2, t3);
+            local += 2000;
+        }
+        return (long) local;
+    }
+
+    private static double exponential(Random random, double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    @Test
+    public void converges_underJitterAndSpikes() {
+        for (int seed = 0; seed < 20; seed++) {
+            ClockSync clock = new ClockSync();
+            long now = simulate(clock, new Random(seed));
+
+            assertTrue(clock.isSynced());
+            long error = clock.toServerTime(now) - serverAt(now);
+            assertTrue("seed " + seed + ": aligned within " + error + "ms", Math.abs(error) <= 8);
+
+            // Still aligned a minute later without new samples, thanks to the drift term
+            long later = now + 60_000;
+            long laterError = clock.toServerTime(later) - serverAt(later);
+            assertTrue("seed " + seed + ": extrapolated within " + laterError + "ms", Math.abs(laterError) <= 10);
+        }
+    }
+
+    @Test
+    public void toLocalTime_invertsToServerTime() {
+        ClockSync clock = new ClockSync();
+        long now = simulate(clock, new Random(7));
+
+        long server = clock.toServerTime(now);
+        assertEquals(now, clock.toLocalTime(server), 1);
+    }
+
+    @Test
+    public void singleSample_usesItsOffset() {
+        ClockSync clock = new ClockSync();
+        assertFalse(clock.isSynced());
+
+        clock.addSample(1000, 5010, 5012, 1022);   // RTT 20, symmetric
+
+        assertTrue(clock.isSynced());
+        assertEquals(4000, clock.offsetMs(1011), 0.5);
+        assertEquals(10, clock.uncertaintyMs());
+        assertEquals(0, clock.driftPpm(), 0);
+    }
+
+    @Test
+    public void impossibleSamples_areIgnored() {
+        ClockSync clock = new ClockSync();
+
+        clock.addSample(1000, 5000, 5100, 1020);   // Server held it longer than the round trip
+        clock.addSample(1020, 5000, 5001, 1000);   // Received before it was sent
+
+        assertFalse(clock.isSynced());
+    }
+
+    @Test
+    public void reset_forgetsSamples() {
+        ClockSync clock = new ClockSync();
+        clock.addSample(1000, 5010, 5012, 1022);
+
+        clock.reset();
+
+        assertFalse(clock.isSynced());
+        assertEquals(Long.MAX_VALUE, clock.uncertaintyMs());
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.studytrackerbasictest.network;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * DistractionSocket against a stand-in for server.py's /ws that can drop every
+ * connection on demand.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class DistractionSocketTest {
+
+    /** Speaks protocol v2 (JSON frames) the way server.py does. */
+    private static class StandIn extends Dispatcher {
+        String epoch = "run-1";
+        boolean replayForAnyCursor = false;   // What server.py did before cursors were epoch-checked
+        final List<Boolean> events = new ArrayList<>();   // seq = index + 1
+        final List<WebSocket> clients = new CopyOnWriteArrayList<>();
+        final List<HttpUrl> connects = new CopyOnWriteArrayList<>();
+
+        @NonNull
+        @Override
+        public MockResponse dispatch(@NonNull RecordedRequest request) {
+            HttpUrl url = request.getRequestUrl();
+            connects.add(url);
+            String since = url.queryParameter("since");
+            long cursor = since != null ? Long.parseLong(since) : 0;
+            boolean resuming = epoch.equals(url.queryParameter("epoch"));
+            return new MockResponse().withWebSocketUpgrade(new WebSocketListener() {
+                @Override
+                public void onOpen(@NonNull WebSocket ws, @NonNull Response response) {
+                    synchronized (StandIn.this) {
+                        ws.send("{\"type\":\"hello\",\"epoch\":\"" + epoch + "\",\"seq\":" + events.size() + "}");
+                        for (int seq = 1; seq <= events.size(); seq++) {
+                            if ((resuming || replayForAnyCursor) && seq > cursor) ws.send(frame(seq));
+                        }
+                        clients.add(ws);
+                    }
+                }
+
+                @Override
+                public void onClosing(@NonNull WebSocket ws, int code, @NonNull String reason) {
+                    clients.remove(ws);
+                    ws.close(1000, null);
+                }
+
+                @Override
+                public void onFailure(@NonNull WebSocket ws, @NonNull Throwable t, Response response) {
+                    clients.remove(ws);
+                }
+            });
+        }
+
+        private String frame(int seq) {
+            return "{\"seq\":" + seq + ",\"state\":\"" + (events.get(seq - 1) ? "ON" : "OFF") + "\"}";
+        }
+
+        synchronized void publish(boolean distracted) {
+            events.add(distracted);
+            for (WebSocket ws : clients) ws.send(frame(events.size()));
+        }
+
+        /** Closes every open connection as a restarting server would; true if there was one. */
+        synchronized boolean dropAll() {
+            boolean any = !clients.isEmpty();
+            for (WebSocket ws : clients) ws.close(1001, "going away");
+            clients.clear();
+            return any;
+        }
+    }
+
+    private final MockWebServer server = new MockWebServer();
+    private final StandIn standIn = new StandIn();
+    private final List<Boolean> alerts = new CopyOnWriteArrayList<>();
+    private boolean connected;
+    private DistractionSocket socket;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(standIn);
+        server.start();
+        socket = new DistractionSocket(new OkHttpClient(), server.url("").toString().replaceAll("/$", ""),
+                new DistractionSocket.Listener() {
+                    @Override
+                    public void onDistractionChanged(boolean distracted) {
+                        alerts.add(distracted);
+                    }
+
+                    @Override
+                    public void onConnectionChanged(boolean isConnected) {
+                        connected = isConnected;
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        socket.close("test over");
+        server.shutdown();
+    }
+
+    /** Runs the main looper, moving its clock on for reconnect backoff, until done or 10 s pass. */
+    private static void runUntil(BooleanSupplier done) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!done.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idleFor(250, TimeUnit.MILLISECONDS);
+            Thread.sleep(5);
+        }
+        assertTrue("timed out", done.getAsBoolean());
+    }
+
+    private void firstConnect_skipsTheBacklog(boolean serverReplaysAnyCursor) throws InterruptedException {
+        standIn.replayForAnyCursor = serverReplaysAnyCursor;
+        for (int i = 0; i < 5; i++) standIn.publish(i % 2 == 0);   // Alerts from before the app was open
+
+        socket.open();
+        runUntil(() -> connected && standIn.clients.size() == 1);
+        assertEquals("0", standIn.connects.get(0).queryParameter("since"));
+        assertNull(standIn.connects.get(0).queryParameter("epoch"));
+
+        standIn.publish(true);
+        runUntil(() -> !alerts.isEmpty());
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals("only the live event", List.of(true), alerts);
+    }
+
+    @Test
+    public void firstConnect_doesNotAlertForPastEvents() throws InterruptedException {
+        firstConnect_skipsTheBacklog(false);
+    }
+
+    @Test
+    public void firstConnect_doesNotAlertForPastEvents_evenIfTheServerReplaysThem() throws InterruptedException {
+        firstConnect_skipsTheBacklog(true);
+    }
+
+    @Test
+    public void serverRestart_resumesFromTheNewRunsPosition() throws InterruptedException {
+        socket.open();
+        runUntil(() -> connected && standIn.clients.size() == 1);
+        standIn.publish(true);
+        runUntil(() -> alerts.size() == 1);
+
+        // New run: new epoch, its own history, and the old cursor means nothing
+        synchronized (standIn) {
+            standIn.epoch = "run-2";
+            standIn.events.clear();
+            for (int i = 0; i < 3; i++) standIn.events.add(true);
+        }
+        assertTrue(standIn.dropAll());
+        runUntil(() -> standIn.connects.size() == 2 && standIn.clients.size() == 1);
+        assertEquals("run-1", standIn.connects.get(1).queryParameter("epoch"));
+        assertEquals("1", standIn.connects.get(1).queryParameter("since"));
+
+        standIn.publish(false);
+        runUntil(() -> alerts.size() == 2);
+        assertEquals(List.of(true, false), alerts);
+
+        // A further drop resumes run-2's cursor and replays what was missed
+        assertTrue(standIn.dropAll());
+        standIn.publish(true);
+        runUntil(() -> alerts.size() == 3);
+        assertEquals("run-2", standIn.connects.get(2).queryParameter("epoch"));
+        assertEquals("4", standIn.connects.get(2).queryParameter("since"));
+    }
+
+    @Test
+    public void randomDrops_loseAndRepeatNothing() throws InterruptedException {
+        socket.open();
+        runUntil(() -> connected && standIn.clients.size() == 1);
+
+        // Each drop is followed by up to three events the client misses, then a reconnect
+        Random rnd = new Random(27);
+        int drops = 0;
+        int missedBeforeReconnect = -1;
+        for (int i = 0; i < 300; i++) {
+            standIn.publish(i % 2 == 0);
+            if (missedBeforeReconnect > 0) {
+                missedBeforeReconnect--;
+            } else if (missedBeforeReconnect == 0) {
+                runUntil(() -> standIn.clients.size() == 1);
+                missedBeforeReconnect = -1;
+            } else if (rnd.nextInt(20) == 0) {
+                assertTrue(standIn.dropAll());
+                drops++;
+                missedBeforeReconnect = rnd.nextInt(4);
+            }
+            if (rnd.nextInt(4) == 0) shadowOf(Looper.getMainLooper()).idleFor(100, TimeUnit.MILLISECONDS);
+        }
+        runUntil(() -> alerts.size() == 300);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertTrue("expected some drops, got " + drops, drops >= 5);
+        assertEquals("every alert exactly once, in order", standIn.events, alerts);
+        assertEquals(drops, socket.getReconnectCount());
+    }
+}
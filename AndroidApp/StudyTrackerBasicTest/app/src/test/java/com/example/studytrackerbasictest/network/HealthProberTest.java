@@ -0,0 +1,119 @@
+package com.example.studytrackerbasictest.network;
+
+import android.app.Application;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * The breaker, its interceptor and HealthProber wired together the way DetectionServer
+ * does it, against a local server that can be taken down and brought back.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class HealthProberTest {
+
+    private static final long COOLDOWN_MS = 1000;
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<String> paths = new CopyOnWriteArrayList<>();
+    private volatile boolean healthy;
+    private CircuitBreaker breaker;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                paths.add(request.getPath());
+                return new MockResponse().setResponseCode(healthy ? 200 : 503).setBody("{}");
+            }
+        });
+        server.start();
+
+        // SystemClock moves with the paused main looper, so the cooldown passes with idleFor
+        breaker = new CircuitBreaker(3, COOLDOWN_MS, SystemClock::elapsedRealtime);
+        client = new OkHttpClient.Builder().addInterceptor(new CircuitBreakerInterceptor(breaker)).build();
+        String baseUrl = server.url("").toString().replaceAll("/$", "");
+        breaker.addListener(new HealthProber(breaker, () -> client, () -> baseUrl));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private int get(String path) {
+        try (Response r = client.newCall(new Request.Builder().url(server.url(path)).build()).execute()) {
+            return r.code();
+        } catch (CircuitBreakerInterceptor.ServerUnavailableException e) {
+            return -1;
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private long probes() {
+        return paths.stream().filter("/status"::equals).count();
+    }
+
+    /** Runs the main looper in 100 ms steps until done or 60 s of looper time pass. */
+    private static void runUntil(BooleanSupplier done) throws InterruptedException {
+        for (int i = 0; i < 600 && !done.getAsBoolean(); i++) {
+            shadowOf(Looper.getMainLooper()).idleFor(100, TimeUnit.MILLISECONDS);
+            Thread.sleep(5);
+        }
+        assertTrue("timed out", done.getAsBoolean());
+    }
+
+    @Test
+    public void open_probe_close() throws InterruptedException {
+        for (int i = 0; i < 3; i++) assertEquals(503, get("/session/stats"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals("refused without touching the network", -1, get("/session/stats"));
+        assertEquals(3, paths.size());
+
+        // Still down: the probe is the trial, fails, and the breaker waits out another cooldown
+        runUntil(() -> probes() == 1);
+        runUntil(() -> breaker.getState() == CircuitBreaker.State.OPEN);
+        assertEquals(-1, get("/session/stats"));
+
+        // Back up: the next probe closes the breaker and ordinary calls flow again
+        healthy = true;
+        runUntil(() -> breaker.getState() == CircuitBreaker.State.CLOSED);
+        assertEquals(200, get("/session/stats"));
+        long probesWhenClosed = probes();
+
+        // And the prober goes quiet
+        shadowOf(Looper.getMainLooper()).idleFor(60, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        assertEquals(probesWhenClosed, probes());
+    }
+}
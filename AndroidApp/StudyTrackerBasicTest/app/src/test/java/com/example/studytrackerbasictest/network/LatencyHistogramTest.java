@@ -0,0 +1,57 @@
+package com.example.studytrackerbasictest.network;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_roundTripAndStayWithinRelativeError() {
+        for (long v = 0; v < 5_000_000; v += 1 + v / 50) {
+            int index = LatencyHistogram.indexOf(v);
+            long low = LatencyHistogram.lowestEquivalent(index);
+            long high = LatencyHistogram.highestEquivalent(index);
+            assertTrue(v + " below bucket " + index, low <= v);
+            assertTrue(v + " above bucket " + index, v <= high);
+            assertTrue("bucket too wide at " + v, high - low <= Math.max(0, low / 16));
+        }
+    }
+
+    @Test
+    public void percentiles_matchUniformDistribution() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long ms = 1; ms <= 1000; ms++) h.record(ms * 1000);
+
+        assertEquals(1000, h.count());
+        assertEquals(500_000, h.percentile(50), 500_000 / 16.0);
+        assertEquals(950_000, h.percentile(95), 950_000 / 16.0);
+        assertEquals(990_000, h.percentile(99), 990_000 / 16.0);
+        assertEquals(1_000_000, h.percentile(100));
+        assertEquals(1000, h.min());
+        assertEquals(500_500, h.mean(), 0.001);
+    }
+
+    @Test
+    public void percentile_neverExceedsObservedMax() {
+        LatencyHistogram h = new LatencyHistogram();
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) h.record(100 + random.nextInt(900));
+        assertTrue(h.percentile(99.9) <= h.max());
+    }
+
+    @Test
+    public void outOfRangeValues_areClamped() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        h.record(Long.MAX_VALUE);
+        assertEquals(0, h.min());
+        assertEquals(LatencyHistogram.MAX_VALUE, h.max());
+
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(50));
+    }
+}
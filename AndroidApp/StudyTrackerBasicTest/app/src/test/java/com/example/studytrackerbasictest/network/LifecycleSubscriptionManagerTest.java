@@ -0,0 +1,210 @@
+package com.example.studytrackerbasictest.network;
+
+import android.app.Application;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LifecycleRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Counts the requests a poll and a SessionStatsPoller make against a local server as
+ * their owner moves through STARTED, STOPPED and DESTROYED.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34, application = Application.class)
+public class LifecycleSubscriptionManagerTest {
+
+    private static final String STATS = "{\"status\":\"ok\",\"sessionId\":\"s-1\",\"elapsedMs\":5000,"
+            + "\"focusedMs\":4000,\"currentFocusScore\":80,\"isDistracted\":false}";
+
+    private final MockWebServer server = new MockWebServer();
+    private final OkHttpClient client = new OkHttpClient();
+    private Owner owner;
+    private LifecycleSubscriptionManager subscriptions;
+
+    private static class Owner implements LifecycleOwner {
+        final LifecycleRegistry registry = LifecycleRegistry.createUnsafe(this);
+
+        @NonNull
+        @Override
+        public Lifecycle getLifecycle() {
+            return registry;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        owner = new Owner();
+        owner.registry.setCurrentState(Lifecycle.State.CREATED);
+        subscriptions = new LifecycleSubscriptionManager(owner);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    /** Registers a poll that GETs path every 5 s while started and every 30 s while stopped. */
+    private void pollPath(String path) {
+        subscriptions.poll(() -> subscriptions.enqueue(
+                client.newCall(new Request.Builder().url(server.url(path)).build()),
+                new Callback() {
+                    @Override
+                    public void onFailure(@NonNull Call call, @NonNull IOException e) {}
+
+                    @Override
+                    public void onResponse(@NonNull Call call, @NonNull Response response) {
+                        response.close();
+                    }
+                }), 5000, 30000);
+    }
+
+    private static void advance(long ms) {
+        shadowOf(Looper.getMainLooper()).idleFor(ms, TimeUnit.MILLISECONDS);
+    }
+
+    /** Requests that reach the server within a short grace period for OkHttp's threads. */
+    private int drainRequests() throws InterruptedException {
+        int n = 0;
+        while (server.takeRequest(300, TimeUnit.MILLISECONDS) != null) n++;
+        return n;
+    }
+
+    private static void idleUntil(BooleanSupplier done) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!done.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            shadowOf(Looper.getMainLooper()).idle();
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void poll_followsTheOwnersLifecycle() throws InterruptedException {
+        for (int i = 0; i < 20; i++) server.enqueue(new MockResponse().setBody("{}"));
+        pollPath("/session/stats");
+
+        advance(60_000);
+        assertEquals("nothing before STARTED", 0, drainRequests());
+
+        owner.registry.setCurrentState(Lifecycle.State.STARTED);
+        advance(0);
+        assertEquals("first poll right away", 1, drainRequests());
+        advance(15_000);
+        assertEquals("every 5 s while started", 3, drainRequests());
+
+        owner.registry.setCurrentState(Lifecycle.State.CREATED);   // onStop
+        advance(29_000);
+        assertEquals("background rate after onStop", 0, drainRequests());
+        advance(1_000);
+        assertEquals(1, drainRequests());
+        advance(60_000);
+        assertEquals(2, drainRequests());
+
+        owner.registry.setCurrentState(Lifecycle.State.STARTED);
+        advance(0);
+        assertEquals("full rate again on onStart", 1, drainRequests());
+
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        advance(120_000);
+        assertEquals("nothing after onDestroy", 0, drainRequests());
+    }
+
+    @Test
+    public void destroy_cancelsInFlightCalls() throws InterruptedException {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        owner.registry.setCurrentState(Lifecycle.State.STARTED);
+
+        Call call = client.newCall(new Request.Builder().url(server.url("/session/stop")).build());
+        AtomicInteger delivered = new AtomicInteger();
+        subscriptions.enqueue(call, new Callback() {
+            @Override
+            public void onFailure(@NonNull Call c, @NonNull IOException e) {
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public void onResponse(@NonNull Call c, @NonNull Response response) {
+                delivered.incrementAndGet();
+            }
+        });
+        assertNotNull(server.takeRequest(2, TimeUnit.SECONDS));
+
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        assertTrue(call.isCanceled());
+        Thread.sleep(300);   // Let OkHttp report the cancellation
+        assertEquals("a dead owner's callback never runs", 0, delivered.get());
+
+        // And anything enqueued afterwards is cancelled without going out
+        Call late = client.newCall(new Request.Builder().url(server.url("/late")).build());
+        subscriptions.enqueue(late, null);
+        assertTrue(late.isCanceled());
+        assertEquals(0, drainRequests());
+    }
+
+    @Test
+    public void statsPoller_deliversEachPollOnceAndOnlyWhileRunning() throws InterruptedException {
+        for (int i = 0; i < 20; i++) server.enqueue(new MockResponse().setBody(STATS));
+        AtomicInteger samples = new AtomicInteger();
+        double[] lastScore = new double[1];
+        SessionStatsPoller poller = new SessionStatsPoller(subscriptions, client,
+                server.url("").toString().replaceAll("/$", ""), (stats, producedAt) -> {
+                    samples.incrementAndGet();
+                    lastScore[0] = stats.currentFocusScore;
+                });
+
+        owner.registry.setCurrentState(Lifecycle.State.STARTED);
+        advance(0);
+        assertEquals("idle until the session starts", 0, drainRequests());
+
+        poller.start();
+        advance(0);
+        assertEquals("/session/stats", server.takeRequest(2, TimeUnit.SECONDS).getPath());
+        idleUntil(() -> samples.get() == 1);
+        assertEquals(1, samples.get());
+        assertEquals(80.0, lastScore[0], 0.0);
+
+        advance(5_000);
+        assertEquals(1, drainRequests());
+        idleUntil(() -> samples.get() == 2);
+        assertEquals(2, samples.get());
+
+        poller.stop();
+        advance(60_000);
+        assertEquals("stopped with the session", 0, drainRequests());
+        assertEquals(2, samples.get());
+
+        poller.start();
+        advance(0);
+        assertEquals(1, drainRequests());
+        owner.registry.setCurrentState(Lifecycle.State.DESTROYED);
+        advance(60_000);
+        assertEquals(0, drainRequests());
+    }
+}
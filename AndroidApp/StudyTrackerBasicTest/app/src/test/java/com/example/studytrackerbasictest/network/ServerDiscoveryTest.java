@@ -0,0 +1,143 @@
+package com.example.studytrackerbasictest.network;
+
+import androidx.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * ServerDiscovery's scan against stand-in servers bound to loopback aliases
+ * (127.0.0.x), all on one port the way real servers share port 3000.
+ */
+public class ServerDiscoveryTest {
+
+    private static final String STATUS = "{\"running\":false,\"light_on\":false}";
+
+    private final Map<String, MockWebServer> servers = new HashMap<>();
+    private final List<String> subnet = new ArrayList<>();
+    private int port;
+
+    @Before
+    public void setUp() {
+        for (int i = 1; i < 255; i++) subnet.add("127.0.0." + i);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (MockWebServer server : servers.values()) server.shutdown();
+    }
+
+    /** A stand-in on host answering every request with body after delayMs. */
+    private MockWebServer standIn(String host, String body, long delayMs) throws IOException {
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest request) {
+                return new MockResponse().setBody(body).setHeadersDelay(delayMs, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start(InetAddress.getByName(host), port);
+        port = server.getPort();   // The first one picks a free port, the rest share it
+        servers.put(host, server);
+        return server;
+    }
+
+    private static class Result implements ServerDiscovery.Callback {
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile String host;
+        volatile int callbacks;
+
+        @Override
+        public void onServerFound(String host) {
+            this.host = host;
+            callbacks++;
+            latch.countDown();
+        }
+
+        @Override
+        public void onNotFound() {
+            callbacks++;
+            latch.countDown();
+        }
+    }
+
+    private Result scan(String preferred) throws InterruptedException {
+        Result result = new Result();
+        ServerDiscovery.scan(ServerDiscovery.newScanner(), preferred, subnet, port, result);
+        assertTrue("no answer", result.latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);   // Any second callback would land by now
+        assertEquals(1, result.callbacks);
+        return result;
+    }
+
+    @Test
+    public void sweep_findsTheOnlyServerQuickly() throws Exception {
+        standIn("127.0.0.42", STATUS, 0);
+
+        long start = System.nanoTime();
+        Result result = scan("");
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        assertEquals("127.0.0.42", result.host);
+        assertTrue("took " + ms + "ms", ms < 2000);
+    }
+
+    @Test
+    public void sweep_ignoresHostsThatAreNotDetectionServers() throws Exception {
+        standIn("127.0.0.10", "{\"ok\":true}", 0);   // Something else on port 3000
+        standIn("127.0.0.20", STATUS, 100);
+
+        assertEquals("127.0.0.20", scan("").host);
+    }
+
+    @Test
+    public void preferredServer_winsOverOneThatAnswersSooner() throws Exception {
+        standIn("127.0.0.3", STATUS, 0);
+        standIn("127.0.0.7", STATUS, 200);
+
+        assertEquals("127.0.0.7", scan("127.0.0.7").host);
+        assertEquals("only the preferred server was asked", 0, servers.get("127.0.0.3").getRequestCount());
+    }
+
+    @Test
+    public void preferredServerGone_failsOverToAnother() throws Exception {
+        standIn("127.0.0.3", STATUS, 0);
+        MockWebServer preferred = standIn("127.0.0.7", STATUS, 0);
+        assertEquals("127.0.0.7", scan("127.0.0.7").host);
+
+        preferred.shutdown();
+        assertEquals("127.0.0.3", scan("127.0.0.7").host);
+    }
+
+    @Test
+    public void preferredHostNowRunsSomethingElse_failsOverToAnother() throws Exception {
+        standIn("127.0.0.7", "<html>502 Bad Gateway</html>", 0);
+        standIn("127.0.0.9", STATUS, 0);
+
+        assertEquals("127.0.0.9", scan("127.0.0.7").host);
+    }
+
+    @Test
+    public void noServer_reportsNotFoundOnce() throws Exception {
+        standIn("127.0.0.5", "{}", 0);
+
+        assertNull(scan("127.0.0.5").host);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.studytrackerbasictest.network;
+
+import com.example.studytrackerbasictest.DistractionType;
+import com.example.studytrackerbasictest.analytics.DistractionLog;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionPipelineTest {
+
+    @Test
+    public void distractionsFrom_readsTheIntervalsInAStopResponse() throws Exception {
+        // As server.py's /session/stop returns them
+        JSONObject stop = new JSONObject("{\"status\":\"ok\",\"sessionId\":\"s-1\",\"focusScore\":82.5,"
+                + "\"distractions\":["
+                + "{\"activity\":\"phone_distraction\",\"severity\":0.9,\"startMs\":1000,\"endMs\":6000},"
+                + "{\"activity\":\"looking_away\",\"severity\":0.4,\"startMs\":9000,\"endMs\":9500},"
+                + "{\"activity\":\"something_new\",\"startMs\":12000,\"endMs\":13000},"
+                + "{\"activity\":\"asleep\",\"startMs\":14000}]}");
+
+        DistractionLog log = SessionPipeline.distractionsFrom(stop);
+        assertNotNull(log);
+        assertEquals("the one without an end is skipped", 3, log.events().size());
+        assertEquals(DistractionType.PHONE, log.events().get(0).type);
+        assertEquals(5000, log.millis(DistractionType.PHONE));
+        assertEquals(0.9f, log.events().get(0).severity, 1e-6f);
+        assertEquals(500, log.millis(DistractionType.LOOKING_AWAY));
+        assertEquals(1, log.count(DistractionType.UNKNOWN));
+        assertEquals(0, log.count(DistractionType.ASLEEP));
+    }
+
+    @Test
+    public void distractionsFrom_emptyListMeansAFocusedSession() throws Exception {
+        DistractionLog log = SessionPipeline.distractionsFrom(new JSONObject("{\"status\":\"ok\",\"distractions\":[]}"));
+        assertNotNull(log);
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    public void distractionsFrom_olderServerWithoutIntervals() throws Exception {
+        assertNull(SessionPipeline.distractionsFrom(new JSONObject("{\"status\":\"ok\",\"focusScore\":70}")));
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.studytrackerbasictest.network;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import org.json.JSONObject;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+public class SessionStatsDecoderTest {
+
+    private final SessionStatsDecoder decoder = new SessionStatsDecoder();
+
+    private SessionStats decode(String json, SessionStats into) throws IOException {
+        decoder.decode(new Buffer().writeUtf8(json), into);
+        return into;
+    }
+
+    @Test
+    public void decodesStatsResponse() throws IOException {
+        SessionStats stats = decode("{\"status\": \"ok\", \"sessionId\": \"s-42\", \"elapsedMs\": 125000,"
+                + " \"focusedMs\": 98000, \"currentFocusScore\": 87.5, \"isDistracted\": true,"
+                + " \"currentActivity\": \"looking_away\", \"currentSeverity\": 0.65}", new SessionStats());
+
+        assertEquals(SessionStats.STATUS_OK, stats.status);
+        assertEquals("s-42", stats.sessionId);
+        assertEquals(125000, stats.elapsedMs);
+        assertEquals(98000, stats.focusedMs);
+        assertEquals(87.5, stats.currentFocusScore, 0.0);
+        assertTrue(stats.isDistracted);
+        assertEquals(DistractionType.LOOKING_AWAY, stats.currentActivity);
+        assertEquals(0.65, stats.currentSeverity, 0.0);
+        assertFalse(stats.hasFocusScore());
+    }
+
+    @Test
+    public void missingFields_fallBackToDefaults() throws IOException {
+        SessionStats stats = new SessionStats();
+        decode("{\"status\":\"ok\",\"currentFocusScore\":10,\"isDistracted\":true}", stats);
+        decode("{\"status\":\"no_active_session\"}", stats);
+
+        assertEquals(SessionStats.STATUS_NO_SESSION, stats.status);
+        assertEquals(100.0, stats.currentFocusScore, 0.0);
+        assertFalse(stats.isDistracted);
+        assertEquals(DistractionType.UNKNOWN, stats.currentActivity);
+    }
+
+    @Test
+    public void skipsUnknownAndNestedValues() throws IOException {
+        SessionStats stats = decode("{\"extra\":{\"a\":[1,{\"b\":\"}]\"}],\"c\":null},"
+                + "\"note\":\"say \\\"hi\\\" \\u00e9\",\"focusScore\":-1.25e1,\"status\":\"stopped\"}",
+                new SessionStats());
+
+        assertEquals(SessionStats.STATUS_OTHER, stats.status);
+        assertEquals(-12.5, stats.focusScore, 0.0);
+    }
+
+    @Test
+    public void unchangedSessionId_reusesString() throws IOException {
+        SessionStats stats = decode("{\"sessionId\":\"abc\"}", new SessionStats());
+        String first = stats.sessionId;
+
+        decode("{\"sessionId\":\"abc\"}", stats);
+        assertSame(first, stats.sessionId);
+
+        decode("{\"sessionId\":\"abd\"}", stats);
+        assertEquals("abd", stats.sessionId);
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedBody_throws() throws IOException {
+        decode("{\"status\":\"ok\",\"elapsedMs\":12", new SessionStats());
+    }
+
+    // Benchmark: the streaming decoder against the JSONObject path it replaced
+
+    private static final String STATS = "{\"status\": \"ok\", \"sessionId\": \"s-42\", \"elapsedMs\": 125000,"
+            + " \"focusedMs\": 98000, \"currentFocusScore\": 87.5, \"isDistracted\": true,"
+            + " \"currentActivity\": \"looking_away\", \"currentSeverity\": 0.65,"
+            + " \"distractionCount\": 3, \"distractedTotalMs\": 27000}";
+
+    private interface Parse {
+        void run(Buffer body) throws Exception;
+    }
+
+    /** Bytes allocated per message by this thread; the body buffers are built up front. */
+    private static long bytesPerMessage(Parse parse, int messages) throws Exception {
+        Buffer[] bodies = new Buffer[messages];
+        for (int i = 0; i < messages; i++) bodies[i] = new Buffer().writeUtf8(STATS);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (Buffer body : bodies) parse.run(body);
+        return (threads.getThreadAllocatedBytes(id) - before) / messages;
+    }
+
+    private static long nanosPerMessage(Parse parse, int messages) throws Exception {
+        Buffer[] bodies = new Buffer[messages];
+        for (int i = 0; i < messages; i++) bodies[i] = new Buffer().writeUtf8(STATS);
+        long start = System.nanoTime();
+        for (Buffer body : bodies) parse.run(body);
+        return (System.nanoTime() - start) / messages;
+    }
+
+    @Test
+    public void benchmark_streamingBeatsJsonObject() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        SessionStats stats = new SessionStats();
+        Parse streaming = body -> decoder.decode(body, stats);
+        Parse jsonObject = body -> {
+            // What fetchSessionStats did before: the whole body as a String, then boxed opt* reads
+            JSONObject json = new JSONObject(body.readUtf8());
+            stats.status = "ok".equals(json.optString("status")) ? SessionStats.STATUS_OK : SessionStats.STATUS_OTHER;
+            stats.sessionId = json.optString("sessionId", null);
+            stats.elapsedMs = json.optLong("elapsedMs", 0);
+            stats.focusedMs = json.optLong("focusedMs", 0);
+            stats.currentFocusScore = json.optDouble("currentFocusScore", 100.0);
+            stats.isDistracted = json.optBoolean("isDistracted", false);
+            stats.currentActivity = DistractionType.fromWireName(json.optString("currentActivity", "unknown"));
+            stats.currentSeverity = json.optDouble("currentSeverity", 0.5);
+        };
+
+        for (int round = 0; round < 5; round++) {   // Warm up both paths
+            nanosPerMessage(streaming, 2000);
+            nanosPerMessage(jsonObject, 2000);
+        }
+        long streamingBytes = bytesPerMessage(streaming, 10000);
+        long jsonBytes = bytesPerMessage(jsonObject, 10000);
+        long streamingNs = nanosPerMessage(streaming, 20000);
+        long jsonNs = nanosPerMessage(jsonObject, 20000);
+
+        // Segments go back to okio's pool, and the holder and its strings are reused
+        assertTrue("streaming " + streamingBytes + " B/msg", streamingBytes < 256);
+        assertTrue("streaming " + streamingBytes + " B/msg vs JSONObject " + jsonBytes,
+                streamingBytes * 4 < jsonBytes);
+        assertTrue("streaming " + streamingNs + " ns/msg vs JSONObject " + jsonNs, streamingNs < jsonNs);
+        assertEquals(DistractionType.LOOKING_AWAY, stats.currentActivity);
+    }
+}
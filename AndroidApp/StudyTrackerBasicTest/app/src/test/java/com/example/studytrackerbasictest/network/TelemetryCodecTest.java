@@ -0,0 +1,148 @@
+package com.example.studytrackerbasictest.network;
+
+import com.example.studytrackerbasictest.DistractionType;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+public class TelemetryCodecTest {
+
+    // Produced by server.py's _encode_stats for the same values as sample()
+    private static final byte[] SERVER_STATS = {
+            1, 1, 1, 3, 107, 3, -118, 2, -56, -48, 7, -48, -3, 5, 4, 115, 45, 52, 50
+    };
+
+    private static SessionStats sample() {
+        SessionStats stats = new SessionStats();
+        stats.status = SessionStats.STATUS_OK;
+        stats.sessionId = "s-42";
+        stats.elapsedMs = 125000;
+        stats.focusedMs = 98000;
+        stats.currentFocusScore = 87.5;
+        stats.isDistracted = true;
+        stats.currentActivity = DistractionType.LOOKING_AWAY;
+        stats.currentSeverity = 0.65;
+        return stats;
+    }
+
+    @Test
+    public void encode_matchesServerLayout() {
+        assertArrayEquals(SERVER_STATS, TelemetryCodec.encodeStats(sample()));
+    }
+
+    @Test
+    public void decode_serverFrame() throws IOException {
+        SessionStats stats = new SessionStats();
+        TelemetryCodec.decodeStats(SERVER_STATS, stats);
+
+        assertEquals(SessionStats.STATUS_OK, stats.status);
+        assertEquals("s-42", stats.sessionId);
+        assertEquals(125000, stats.elapsedMs);
+        assertEquals(98000, stats.focusedMs);
+        assertEquals(87.5, stats.currentFocusScore, 0.0);
+        assertTrue(stats.isDistracted);
+        assertEquals(DistractionType.LOOKING_AWAY, stats.currentActivity);
+        assertEquals(0.65, stats.currentSeverity, 1e-9);
+    }
+
+    @Test
+    public void roundTrip_largeCountersAndNoSession() throws IOException {
+        SessionStats in = new SessionStats();
+        in.status = SessionStats.STATUS_NO_SESSION;
+        in.elapsedMs = 10L * 24 * 3600 * 1000;
+        in.focusedMs = Integer.MAX_VALUE + 7L;
+
+        SessionStats out = new SessionStats();
+        out.sessionId = "stale";
+        TelemetryCodec.decodeStats(TelemetryCodec.encodeStats(in), out);
+
+        assertEquals(SessionStats.STATUS_NO_SESSION, out.status);
+        assertEquals(in.elapsedMs, out.elapsedMs);
+        assertEquals(in.focusedMs, out.focusedMs);
+        assertNull(out.sessionId);
+        assertFalse(out.isDistracted);
+    }
+
+    @Test
+    public void decode_ignoresTrailingFieldsFromNewerServers() throws IOException {
+        byte[] extended = new byte[SERVER_STATS.length + 3];
+        System.arraycopy(SERVER_STATS, 0, extended, 0, SERVER_STATS.length);
+
+        SessionStats stats = new SessionStats();
+        TelemetryCodec.decodeStats(extended, stats);
+        assertEquals("s-42", stats.sessionId);
+    }
+
+    @Test
+    public void decode_truncatedFrameThrowsAndKeepsTheLastGoodStats() throws IOException {
+        SessionStats stats = new SessionStats();
+        TelemetryCodec.decodeStats(TelemetryCodec.encodeStats(sample()), stats);
+        for (int length = 0; length < SERVER_STATS.length; length++) {
+            byte[] truncated = new byte[length];
+            System.arraycopy(SERVER_STATS, 0, truncated, 0, length);
+            try {
+                TelemetryCodec.decodeStats(truncated, stats);
+                fail("decoded " + length + " bytes");
+            } catch (IOException expected) {
+            }
+            assertEquals(SessionStats.STATUS_OK, stats.status);
+            assertEquals("s-42", stats.sessionId);
+            assertEquals(125000, stats.elapsedMs);
+            assertEquals(87.5, stats.currentFocusScore, 0.0);
+            assertTrue(stats.isDistracted);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_unknownVersionThrows() throws IOException {
+        byte[] frame = SERVER_STATS.clone();
+        frame[0] = 9;
+        TelemetryCodec.decodeStats(frame, new SessionStats());
+    }
+
+    @Test
+    public void eventFrames_roundTrip() throws IOException {
+        byte[] frame = TelemetryCodec.encodeEvent(300, true);
+        assertArrayEquals(new byte[]{2, 1, (byte) 172, 2}, frame);
+        assertTrue(TelemetryCodec.isEventFrame(frame));
+        assertTrue(TelemetryCodec.eventState(frame));
+        assertEquals(300, TelemetryCodec.eventSeq(frame));
+
+        assertFalse(TelemetryCodec.eventState(TelemetryCodec.encodeEvent(1, false)));
+    }
+
+    @Test
+    public void binary_isMuchSmallerThanJson() throws IOException {
+        String json = "{\"currentActivity\":\"looking_away\",\"currentFocusScore\":87.5,"
+                + "\"currentSeverity\":0.65,\"distractedTotalMs\":27000,\"distractionCount\":3,"
+                + "\"elapsedMs\":125000,\"focusedMs\":98000,\"isDistracted\":true,"
+                + "\"sessionId\":\"s-42\",\"status\":\"ok\"}";
+        byte[] binary = TelemetryCodec.encodeStats(sample());
+        int jsonSize = json.getBytes(StandardCharsets.UTF_8).length;
+        assertTrue(binary.length + " vs " + jsonSize, binary.length * 5 < jsonSize);
+
+        // Throughput: a fixed-layout frame should decode several times faster than JSON text
+        SessionStats stats = new SessionStats();
+        SessionStatsDecoder jsonDecoder = new SessionStatsDecoder();
+        int iterations = 20000;
+        for (int i = 0; i < iterations; i++) {
+            TelemetryCodec.decodeStats(binary, stats);
+            jsonDecoder.decode(new Buffer().writeUtf8(json), stats);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) TelemetryCodec.decodeStats(binary, stats);
+        long binaryNs = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) jsonDecoder.decode(new Buffer().writeUtf8(json), stats);
+        long jsonNs = System.nanoTime() - start;
+
+        assertTrue("binary " + binaryNs / iterations + "ns/op vs json " + jsonNs / iterations + "ns/op",
+                binaryNs * 2 < jsonNs);
+    }
+}
@@ -59,7 +59,7 @@ Do NOT import or use this module from Android. Its for server-side use only.
 from __future__ import annotations
 
 from datetime import datetime, timezone
-from typing import Optional, Tuple
+from typing import Dict, List, Optional, Tuple
 import os
 from pathlib import Path
 
@@ -300,6 +300,31 @@ class SessionServerStore:
 
         return duration_ms
 
+    def list_intervals(self, session_id: str) -> List[Dict[str, object]]:
+        """The session's closed distracted intervals in order, as the app stores them.
+
+        Each is {"activity", "severity", "startMs", "endMs"} with epoch-ms times, so the
+        app can keep the server's own ON/OFF edges instead of re-deriving them from polls.
+        """
+        intervals_col = (
+            self._db.collection(SESSION_COLLECTION).document(session_id).collection("distractedIntervals")
+        )
+        intervals = []
+        for snap in intervals_col.order_by("idx").stream():
+            data = snap.to_dict() or {}
+            start_at, end_at = data.get("startAt"), data.get("endAt")
+            if not start_at or not end_at:
+                continue
+            intervals.append(
+                {
+                    "activity": data.get("activity", "unknown"),
+                    "severity": float(data.get("severity", 0.5) or 0.0),
+                    "startMs": int(start_at.timestamp() * 1000),
+                    "endMs": int(end_at.timestamp() * 1000),
+                }
+            )
+        return intervals
+
 
 # # Optional: tiny self-test when run directly (no external side effects beyond Firestore writes)
 # if __name__ == "__main__":
@@ -1,13 +1,17 @@
 import os
 import sys
+import json
+import uuid
+import struct
 import subprocess
 import time
 import atexit
 import logging
 import threading
+from collections import OrderedDict, deque
 from pathlib import Path
 from dotenv import load_dotenv
-from flask import Flask, jsonify, request
+from flask import Flask, Response, g, jsonify, request
 from flask_sock import Sock
 from driver_state_detection.focus_score_calculator import SessionServerStore
 
@@ -23,12 +27,34 @@ app.logger.setLevel(logging.INFO)
 
 proc = None
 light_on_state = False
-ws_clients = set()  # track connected WebSocket clients
+ws_clients = {}  # connected WebSocket clients -> protocol ("raw" for ESP32, "v2" for the app)
+ws_events = deque(maxlen=256)  # recent (seq, state) broadcasts, replayed to v2 clients on reconnect
+ws_seq = 0
+ws_epoch = uuid.uuid4().hex  # changes on every restart so clients know their cursor is stale
+ws_lock = threading.Lock()
+idempotent_responses = OrderedDict()  # Idempotency-Key -> (body, status, mimetype) of completed POSTs
+IDEMPOTENCY_CACHE_SIZE = 128
+idempotency_lock = threading.Lock()
 session_store = None  # type: SessionServerStore | None
 session_id = None     # type: str | None
 session_username = None  # type: str | None
 session_username_lock = threading.Lock()
 
+# Compact binary telemetry (see the app's TelemetryCodec); JSON remains the default
+TELEMETRY_MIMETYPE = "application/x-studytracker-stats"
+TELEMETRY_VERSION = 1
+TELEMETRY_FRAME_EVENT = 0x02
+TELEMETRY_STATUS_CODES = {"ok": 1, "no_active_session": 2}
+TELEMETRY_ACTIVITY_CODES = {
+    "unknown": 0, "phone_distraction": 1, "asleep": 2, "looking_away": 3, "face_missing": 4,
+}
+
+
+@app.before_request
+def _stamp_received():
+    # Registered first so the receive time is taken before any other handler runs
+    g.received_ms = int(time.time() * 1000)
+
 
 @app.before_request
 def _log_endpoint():
@@ -36,6 +62,117 @@ def _log_endpoint():
     app.logger.info(f"{request.method} {request.path}")
 
 
+@app.before_request
+def _replay_idempotent():
+    """Answer a retried command (same Idempotency-Key) with the original response.
+
+    The app's offline outbox retries /session/stop and /stop until they get through; if the
+    first attempt actually succeeded, the retry must not turn into a "noop" and lose the score.
+    """
+    key = request.headers.get("Idempotency-Key")
+    if request.method != "POST" or not key:
+        return None
+    with idempotency_lock:
+        cached = idempotent_responses.get((request.path, key))
+    if cached is None:
+        return None
+    body, status, mimetype = cached
+    app.logger.info(f"Replaying response for Idempotency-Key {key}")
+    return Response(body, status=status, mimetype=mimetype)
+
+
+@app.after_request
+def _remember_idempotent(response):
+    key = request.headers.get("Idempotency-Key")
+    if request.method == "POST" and key and response.status_code < 500:
+        with idempotency_lock:
+            idempotent_responses[(request.path, key)] = (
+                response.get_data(), response.status_code, response.mimetype)
+            while len(idempotent_responses) > IDEMPOTENCY_CACHE_SIZE:
+                idempotent_responses.popitem(last=False)
+    return response
+
+
+@app.after_request
+def _stamp_sent(response):
+    """Receive/send times on the server clock, for the app's NTP-style ClockSync.
+
+    The pair brackets the server's own processing time, so the client can subtract it
+    from the round trip. Added to every response, replays included.
+    """
+    received = getattr(g, "received_ms", None)
+    if received is not None:
+        response.headers["X-Server-Received"] = str(received)
+        response.headers["X-Server-Sent"] = str(int(time.time() * 1000))
+    return response
+
+
+def _varint(n):
+    n = max(0, int(n))
+    out = bytearray()
+    while n >= 0x80:
+        out.append((n & 0x7F) | 0x80)
+        n >>= 7
+    out.append(n)
+    return bytes(out)
+
+
+def _u16(value):
+    return min(max(int(round(value)), 0), 0xFFFF)
+
+
+def _encode_stats(stats):
+    """Little-endian fixed header, then varint counters and the session id."""
+    session = (stats.get("sessionId") or "").encode("utf-8")
+    header = struct.pack(
+        "<BBBBHH",
+        TELEMETRY_VERSION,
+        TELEMETRY_STATUS_CODES.get(stats.get("status"), 3),
+        1 if stats.get("isDistracted") else 0,
+        TELEMETRY_ACTIVITY_CODES.get(stats.get("currentActivity"), 0),
+        _u16(float(stats.get("currentFocusScore", 100.0)) * 10),
+        _u16(float(stats.get("currentSeverity", 0.5)) * 1000),
+    )
+    return (header + _varint(stats.get("elapsedMs", 0)) + _varint(stats.get("focusedMs", 0))
+            + _varint(len(session)) + session)
+
+
+def _encode_event(seq, state):
+    return bytes([TELEMETRY_FRAME_EVENT, 1 if state == "ON" else 0]) + _varint(seq)
+
+
+def _stats_response(stats, status=200):
+    """Binary only when the client ranks it above JSON (Accept); */*, a missing
+    header or a tie all get JSON, so browsers and curl keep working."""
+    accept = request.accept_mimetypes
+    if accept.quality(TELEMETRY_MIMETYPE) > accept.quality("application/json"):
+        return Response(_encode_stats(stats), status=status, mimetype=TELEMETRY_MIMETYPE)
+    return jsonify(stats), status
+
+
+def _broadcast_light(on):
+    """Send the light state to every WebSocket client.
+
+    ESP32 clients get the raw "ON"/"OFF" string; v2 clients get a sequenced JSON (or, with
+    enc=bin, binary) frame that is also kept in ws_events so it can be replayed after a reconnect.
+    """
+    global ws_seq
+    state = "ON" if on else "OFF"
+    with ws_lock:
+        ws_seq += 1
+        ws_events.append((ws_seq, state))
+        frames = {
+            "raw": state,
+            "v2": json.dumps({"seq": ws_seq, "state": state}),
+            "v2bin": _encode_event(ws_seq, state),
+        }
+        for ws, proto in list(ws_clients.items()):
+            try:
+                ws.send(frames[proto])
+            except Exception:
+                ws_clients.pop(ws, None)
+
+
 @app.route('/')
 def root():
     return jsonify({
@@ -78,12 +215,8 @@ def light():
 
     # No database writes here; just broadcast state
 
-    # Broadcast to all connected WebSocket clients as raw string
-    for ws in list(ws_clients):
-        try:
-            ws.send("ON" if light_on_state else "OFF")
-        except Exception:
-            ws_clients.discard(ws)
+    # Broadcast to all connected WebSocket clients
+    _broadcast_light(light_on_state)
 
     return jsonify({"status": "ok", "light_on": light_on_state})
 
@@ -152,14 +285,33 @@ def session_edge():
         return jsonify({"status": "skipped", "error": str(e)}), 200
 
 
+def _stale_stop():
+    """409 for a stop naming a session other than the current one, else None.
+
+    The app's outbox can deliver a stop long after it was issued; by then the user may have
+    started another session, which a stale stop must not end. Bodies without a sessionId
+    (older apps, curl) and stops arriving when no session is open act as before.
+    """
+    body = request.get_json(silent=True) or {}
+    requested = body.get("sessionId")
+    if requested and session_id is not None and requested != session_id:
+        app.logger.info(f"{request.path} for stale session {requested} (current: {session_id}), ignoring")
+        return jsonify({"status": "stale", "sessionId": requested}), 409
+    return None
+
+
 @app.route('/session/stop', methods=['POST'])
 def session_stop():
     """Finalize the current focus scoring session: close interval, compute totals & score.
 
     Does not touch the vision process. Safe to call multiple times; after success, in-memory
-    session references are cleared.
+    session references are cleared. Accepts JSON {"sessionId": string}; see _stale_stop.
+    The response lists the session's distracted intervals under "distractions".
     """
     global session_store, session_id
+    stale = _stale_stop()
+    if stale is not None:
+        return stale
     try:
         if session_store and session_id:
             result = session_store.stop_session(session_id)
@@ -167,6 +319,11 @@ def session_stop():
             resp = {"status": "ok", "sessionId": session_id, 
                    "elapsedMs": elapsed_ms, 
                    "focusScore": focus_score}
+            try:
+                resp["distractions"] = session_store.list_intervals(session_id)
+            except Exception as e:
+                # The score still counts; the app just has no breakdown for this session
+                app.logger.warning(f"/session/stop could not list intervals: {e}")
         else:
             resp = {"status": "noop"}
     except Exception as e:
@@ -183,7 +340,7 @@ def session_stats():
     global session_store, session_id
     try:
         if not session_store or not session_id:
-            return jsonify({"status": "no_active_session"})
+            return _stats_response({"status": "no_active_session"})
         
         # Get stats from Firebase
         from datetime import datetime, timezone
@@ -194,7 +351,7 @@ def session_stats():
         snap = session_ref.get()
         
         if not snap.exists:
-            return jsonify({"status": "session_not_found"})
+            return _stats_response({"status": "session_not_found"})
         
         data = snap.to_dict()
         started_at = data.get("startedAt")
@@ -208,7 +365,7 @@ def session_stats():
         # Calculate focus score
         focus_score = ((1 - float(distracted_total_ms) / elapsed_ms) * 100.0) if elapsed_ms > 0 else 100.0
         
-        return jsonify({
+        return _stats_response({
             "status": "ok",
             "sessionId": session_id,
             "elapsedMs": elapsed_ms,
@@ -277,11 +434,7 @@ def start():
 
         # Fail-safe: ensure LED starts OFF
         light_on_state = False
-        for ws in list(ws_clients):
-            try:
-                ws.send("OFF")
-            except Exception:
-                ws_clients.discard(ws)
+        _broadcast_light(False)
 
         # No database session initialization here
 
@@ -298,7 +451,15 @@ def start():
 
 @app.route('/stop', methods=['POST'])
 def stop():
+    """Stops the vision process and finalizes any open session.
+
+    Accepts JSON {"sessionId": string}; a stop for a session that is no longer current is
+    answered 409 and leaves the camera running (see _stale_stop).
+    """
     global proc, light_on_state, session_store, session_id
+    stale = _stale_stop()
+    if stale is not None:
+        return stale
     if proc is None or proc.poll() is not None:
         # Even if process already stopped, finalize any open session
         resp = {"status": "not running"}
@@ -325,11 +486,7 @@ def stop():
 
         # Ensure LED OFF after stopping
         light_on_state = False
-        for ws in list(ws_clients):
-            try:
-                ws.send("OFF")
-            except Exception:
-                ws_clients.discard(ws)
+        _broadcast_light(False)
 
     # Always finalize the current focus-scoring session after stopping the process
     if session_store and session_id:
@@ -350,18 +507,40 @@ def stop():
 
 @sock.route('/ws')
 def websocket(ws):
-    """Handle ESP32 WebSocket clients."""
-    app.logger.info("ESP32 connected via WebSocket")
-    ws_clients.add(ws)
+    """Handle ESP32 and app WebSocket clients.
+
+    Clients connecting with ?proto=2&since=<seq>&epoch=<epoch> get a hello frame with the
+    current seq, then, only if <epoch> is this run's, a replay of every retained event after
+    <seq> before live events. A first connect or a cursor from an earlier run replays nothing;
+    the client starts counting from the hello. Others get raw strings.
+    Adding &enc=bin switches event frames (not the hello) to the binary telemetry encoding.
+    """
+    app.logger.info("Client connected via WebSocket")
+    if request.args.get("proto") == "2":
+        since = request.args.get("since", default=0, type=int)
+        proto = "v2bin" if request.args.get("enc") == "bin" else "v2"
+        resuming = request.args.get("epoch") == ws_epoch  # else no cursor, or one from a previous run
+        with ws_lock:
+            ws.send(json.dumps({"type": "hello", "epoch": ws_epoch, "seq": ws_seq}))
+            for seq, state in ws_events:
+                if resuming and seq > since:
+                    if proto == "v2bin":
+                        ws.send(_encode_event(seq, state))
+                    else:
+                        ws.send(json.dumps({"seq": seq, "state": state, "replay": True}))
+            ws_clients[ws] = proto
+    else:
+        with ws_lock:
+            ws_clients[ws] = "raw"
     try:
         while True:
             msg = ws.receive()
             if msg is None:
                 break
-            app.logger.info(f"Received from ESP32: {msg}")
+            app.logger.info(f"Received from WebSocket client: {msg}")
     finally:
-        ws_clients.discard(ws)
-        app.logger.info("ESP32 disconnected")
+        ws_clients.pop(ws, None)
+        app.logger.info("WebSocket client disconnected")
 
 
 if __name__ == '__main__':